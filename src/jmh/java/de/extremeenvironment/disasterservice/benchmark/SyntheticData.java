@@ -0,0 +1,217 @@
+package de.extremeenvironment.disasterservice.benchmark;
+
+import de.extremeenvironment.disasterservice.domain.*;
+import de.extremeenvironment.disasterservice.domain.enumeration.ActionType;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Generates reproducible data resembling a surge of actions around a few disasters.
+ *
+ * <p>
+ * Coordinates are scattered normally around disaster centers, action objects are picked with a skewed popularity
+ * and areas are small polygons laid out on a grid around the centers, so they rarely overlap.
+ * </p>
+ */
+public class SyntheticData {
+
+    private static final int DISASTERS = 20;
+
+    private static final int ACTION_OBJECTS = 200;
+
+    private static final int USERS = 1000;
+
+    private static final double SPREAD = 0.2; // degrees
+
+    private final Random random;
+
+    private final float[][] centers = new float[DISASTERS][2];
+
+    private final List<Disaster> disasters = new ArrayList<>();
+
+    private final List<ActionObject> actionObjects = new ArrayList<>();
+
+    private final List<User> users = new ArrayList<>();
+
+    private long nextId = 1;
+
+    public SyntheticData(long seed) {
+        this.random = new Random(seed);
+
+        for (int i = 0; i < DISASTERS; i++) {
+            centers[i][0] = (float) (random.nextDouble() * 120 - 60);
+            centers[i][1] = (float) (random.nextDouble() * 360 - 180);
+
+            Disaster disaster = new Disaster();
+            disaster.setId(nextId++);
+            disaster.setLat(centers[i][0]);
+            disaster.setLon(centers[i][1]);
+            disaster.setIsExpired(false);
+            disasters.add(disaster);
+        }
+
+        for (int i = 0; i < ACTION_OBJECTS; i++) {
+            ActionObject actionObject = new ActionObject();
+            actionObject.setId(nextId++);
+            actionObject.setName("object " + i);
+            actionObjects.add(actionObject);
+        }
+
+        for (int i = 0; i < USERS; i++) {
+            User user = new User(i);
+            user.setId(nextId++);
+            users.add(user);
+        }
+    }
+
+    /**
+     * @return a coordinate near a random disaster center
+     */
+    public float[] coordinate() {
+        float[] center = centers[random.nextInt(DISASTERS)];
+        return new float[]{
+            (float) (center[0] + random.nextGaussian() * SPREAD),
+            (float) (center[1] + random.nextGaussian() * SPREAD)
+        };
+    }
+
+    /**
+     * @param count the number of actions
+     * @return open offers and seeks with one to three action objects each
+     */
+    public List<Action> actions(int count) {
+        List<Action> actions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            actions.add(action(random.nextBoolean() ? ActionType.OFFER : ActionType.SEEK));
+        }
+        return actions;
+    }
+
+    /**
+     * @param actionType the type of the action
+     * @return an open action near a random disaster
+     */
+    public Action action(ActionType actionType) {
+        int disaster = random.nextInt(DISASTERS);
+        float[] center = centers[disaster];
+
+        Action action = new Action();
+        action.setId(nextId++);
+        action.setActionType(actionType);
+        action.setLat((float) (center[0] + random.nextGaussian() * SPREAD));
+        action.setLon((float) (center[1] + random.nextGaussian() * SPREAD));
+        action.setIsExpired(false);
+        action.setDisaster(disasters.get(disaster));
+        action.setUser(users.get(random.nextInt(USERS)));
+        action.setCreatedDate(ZonedDateTime.now().minusMinutes(random.nextInt(7 * 24 * 60)));
+
+        int objectCount = 1 + random.nextInt(3);
+        for (int i = 0; i < objectCount; i++) {
+            action.addActionObject(popularActionObject());
+        }
+        return action;
+    }
+
+    /**
+     * @param count the number of areas
+     * @return areas with four to eight corners each
+     */
+    public List<Area> areas(int count) {
+        List<Area> areas = new ArrayList<>(count);
+        int perDisaster = (count + DISASTERS - 1) / DISASTERS;
+        int side = (int) Math.ceil(Math.sqrt(perDisaster));
+
+        for (int i = 0; i < count; i++) {
+            float[] center = centers[i % DISASTERS];
+            int slot = i / DISASTERS;
+            double size = 2 * SPREAD / side;
+            double lat = center[0] - SPREAD + (slot / side + 0.5) * size;
+            double lon = center[1] - SPREAD + (slot % side + 0.5) * size;
+            areas.add(area(lat, lon, size * 0.45));
+        }
+        return areas;
+    }
+
+    /**
+     * @param lat    the latitude of the center
+     * @param lon    the longitude of the center
+     * @param radius the approximate radius in degrees
+     * @return a convex area around the center
+     */
+    public Area area(double lat, double lon, double radius) {
+        Area area = new Area();
+        area.setId(nextId++);
+        // keeps the corners in order, so the polygon does not intersect itself
+        area.setCorners(new LinkedHashSet<>());
+
+        int cornerCount = 4 + random.nextInt(5);
+        double offset = random.nextDouble() * Math.PI;
+        for (int i = 0; i < cornerCount; i++) {
+            double angle = offset + 2 * Math.PI * i / cornerCount;
+            double r = radius * (0.8 + 0.2 * random.nextDouble());
+
+            Corner corner = new Corner();
+            corner.setId(nextId++);
+            corner.setLat((float) (lat + Math.sin(angle) * r));
+            corner.setLon((float) (lon + Math.cos(angle) * r));
+            corner.setArea(area);
+            area.getCorners().add(corner);
+        }
+        return area;
+    }
+
+    /**
+     * creates an in-memory implementation of a repository or client interface
+     *
+     * @param type    the interface
+     * @param answers the answers by method name, other methods throw an {@link UnsupportedOperationException}
+     * @return the stub
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return invokeObjectMethod(proxy, method, args);
+            }
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer == null) {
+                throw new UnsupportedOperationException(method.toString());
+            }
+            return answer.apply(args);
+        });
+    }
+
+    /**
+     * @return a transaction manager for stubbed repositories, its transactions do nothing
+     */
+    public static PlatformTransactionManager transactionManager() {
+        Map<String, Function<Object[], Object>> answers = new HashMap<>();
+        answers.put("getTransaction", args -> new SimpleTransactionStatus());
+        answers.put("commit", args -> null);
+        answers.put("rollback", args -> null);
+        return stub(PlatformTransactionManager.class, answers);
+    }
+
+    private static Object invokeObjectMethod(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                return proxy.getClass().getName();
+        }
+    }
+
+    private ActionObject popularActionObject() {
+        // squaring skews the popularity towards the first objects
+        double r = random.nextDouble();
+        return actionObjects.get((int) (r * r * ACTION_OBJECTS));
+    }
+}
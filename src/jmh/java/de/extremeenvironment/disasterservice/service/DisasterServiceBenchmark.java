@@ -0,0 +1,57 @@
+package de.extremeenvironment.disasterservice.service;
+
+import de.extremeenvironment.disasterservice.benchmark.SyntheticData;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the distance calculation used by the matching and the disaster lookup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DisasterServiceBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int size;
+
+    private float[][] coordinates;
+
+    private ZonedDateTime seekDate;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SyntheticData data = new SyntheticData(42);
+        coordinates = new float[size][];
+        for (int i = 0; i < size; i++) {
+            coordinates[i] = data.coordinate();
+        }
+        seekDate = ZonedDateTime.now().minusDays(2);
+    }
+
+    @Benchmark
+    public Float getDistance() {
+        float[] from = nextCoordinate();
+        float[] to = coordinates[size - 1 - next];
+        return DisasterService.getDistance(from[0], from[1], to[0], to[1]);
+    }
+
+    @Benchmark
+    public Float getDistanceWithWaitingBonus() {
+        float[] from = nextCoordinate();
+        float[] to = coordinates[size - 1 - next];
+        return DisasterService.getDistance(from[0], from[1], to[0], to[1], seekDate);
+    }
+
+    private float[] nextCoordinate() {
+        next = next + 1 == size ? 0 : next + 1;
+        return coordinates[next];
+    }
+}
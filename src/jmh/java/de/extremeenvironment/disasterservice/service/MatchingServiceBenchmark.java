@@ -0,0 +1,96 @@
+package de.extremeenvironment.disasterservice.service;
+
+import de.extremeenvironment.disasterservice.benchmark.SyntheticData;
+import de.extremeenvironment.disasterservice.config.JHipsterProperties;
+import de.extremeenvironment.disasterservice.domain.Action;
+import de.extremeenvironment.disasterservice.domain.enumeration.ActionType;
+import de.extremeenvironment.disasterservice.repository.ActionRepository;
+import de.extremeenvironment.disasterservice.repository.OutboxMessageRepository;
+import de.extremeenvironment.disasterservice.service.index.ActionGridIndex;
+import de.extremeenvironment.disasterservice.service.index.ActionObjectIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Benchmarks the matching of a single new action against the open actions, with in-memory repositories.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MatchingServiceBenchmark {
+
+    private static final int PROBES = 256;
+
+    @Param({"1000", "10000", "100000"})
+    private int size;
+
+    private MatchingService matchingService;
+
+    private List<Action> probes;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SyntheticData data = new SyntheticData(42);
+        List<Action> openActions = data.actions(size);
+        Map<Long, Action> actionsById = new HashMap<>();
+        openActions.forEach(action -> actionsById.put(action.getId(), action));
+
+        Map<String, Function<Object[], Object>> repositoryAnswers = new HashMap<>();
+        repositoryAnswers.put("findOpenActions", args -> openActions);
+        repositoryAnswers.put("findOpenActionsWithActionObjects", args -> openActions);
+        repositoryAnswers.put("findAll", args -> {
+            List<Action> result = new ArrayList<>();
+            ((Iterable<?>) args[0]).forEach(id -> result.add(actionsById.get(id)));
+            return result;
+        });
+        repositoryAnswers.put("save", args -> args[0]);
+        repositoryAnswers.put("flush", args -> null);
+        ActionRepository actionRepository = SyntheticData.stub(ActionRepository.class, repositoryAnswers);
+
+        Map<String, Function<Object[], Object>> outboxAnswers = new HashMap<>();
+        outboxAnswers.put("save", args -> args[0]);
+        OutboxService outboxService = new OutboxService(SyntheticData.stub(OutboxMessageRepository.class, outboxAnswers),
+            null, actionRepository, null, SyntheticData.transactionManager(), new JHipsterProperties());
+
+        ActionGridIndex actionGridIndex = new ActionGridIndex(actionRepository, SyntheticData.transactionManager());
+        ActionObjectIndex actionObjectIndex = new ActionObjectIndex(actionRepository, SyntheticData.transactionManager());
+        matchingService = new MatchingService(actionRepository, outboxService, actionGridIndex, actionObjectIndex,
+            Runnable::run, null, new JHipsterProperties(), new EventBroadcaster(Runnable::run, new JHipsterProperties()));
+
+        probes = new ArrayList<>();
+        for (int i = 0; i < PROBES; i++) {
+            probes.add(data.action(i % 2 == 0 ? ActionType.OFFER : ActionType.SEEK));
+        }
+
+        // load the indexes outside of the measurement
+        matchingService.matchActions(probes.get(0));
+        resetMatch(probes.get(0));
+    }
+
+    @Benchmark
+    public Action matchActions() {
+        next = next + 1 == PROBES ? 0 : next + 1;
+        Action probe = probes.get(next);
+        Action match = matchingService.matchActions(probe).getMatch();
+        resetMatch(probe);
+        return match;
+    }
+
+    /**
+     * the repositories are not persisted, so the found match is undone to keep every invocation equal
+     */
+    private static void resetMatch(Action action) {
+        if (action.getMatch() != null) {
+            action.getMatch().setMatch(null);
+            action.setMatch(null);
+        }
+    }
+}
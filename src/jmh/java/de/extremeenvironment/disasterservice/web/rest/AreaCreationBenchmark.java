@@ -0,0 +1,134 @@
+package de.extremeenvironment.disasterservice.web.rest;
+
+import de.extremeenvironment.disasterservice.domain.Area;
+import de.extremeenvironment.disasterservice.domain.Corner;
+import de.extremeenvironment.disasterservice.domain.Ngo;
+import de.extremeenvironment.disasterservice.domain.util.PooledSequenceGenerator;
+import de.extremeenvironment.disasterservice.repository.AreaRepository;
+import de.extremeenvironment.disasterservice.repository.CornerRepository;
+import de.extremeenvironment.disasterservice.repository.NgoRepository;
+import de.extremeenvironment.disasterservice.service.index.AreaIndex;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.LinkedHashSet;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the creation of areas with {@value #CORNERS} corners against an in-memory H2 database, with and without
+ * JDBC batching and pooled id sequences.
+ *
+ * <p>
+ * Every area is created at a new place on a grid, so the overlap check always passes and only the writes are measured.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AreaCreationBenchmark {
+
+    private static final int CORNERS = 500;
+
+    private static final double RADIUS = 0.2;
+
+    // the JDBC batch size and the number of ids reserved per sequence call
+    @Param({"1", "50"})
+    private int batchSize;
+
+    private LocalContainerEntityManagerFactoryBean entityManagerFactory;
+
+    private TransactionTemplate transactionTemplate;
+
+    private AreaResource areaResource;
+
+    private final Random random = new Random(42);
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        // has to be set before the persistence unit reads the id generators
+        PooledSequenceGenerator.setAllocationSize(batchSize);
+
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:areas" + batchSize + ";DB_CLOSE_DELAY=-1");
+
+        Properties jpaProperties = new Properties();
+        jpaProperties.setProperty("hibernate.hbm2ddl.auto", "create-drop");
+        jpaProperties.setProperty("hibernate.jdbc.batch_size", String.valueOf(batchSize));
+        jpaProperties.setProperty("hibernate.order_inserts", "true");
+        jpaProperties.setProperty("hibernate.order_updates", "true");
+
+        entityManagerFactory = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactory.setDataSource(dataSource);
+        entityManagerFactory.setPackagesToScan("de.extremeenvironment.disasterservice.domain");
+        entityManagerFactory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactory.setJpaProperties(jpaProperties);
+        entityManagerFactory.afterPropertiesSet();
+
+        EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory.getObject());
+        JpaRepositoryFactory repositoryFactory = new JpaRepositoryFactory(entityManager);
+        AreaRepository areaRepository = repositoryFactory.getRepository(AreaRepository.class);
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory.getObject());
+        areaResource = new AreaResource(areaRepository, repositoryFactory.getRepository(CornerRepository.class),
+            repositoryFactory.getRepository(NgoRepository.class), new AreaIndex(areaRepository, transactionManager));
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManagerFactory.destroy();
+        PooledSequenceGenerator.setAllocationSize(PooledSequenceGenerator.DEFAULT_ALLOCATION_SIZE);
+    }
+
+    @Benchmark
+    public Long createArea() {
+        Area area = polygon();
+        return transactionTemplate.execute(status -> {
+            try {
+                return areaResource.createArea(area).getBody().getId();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    /**
+     * @return a new area with an ngo, on the next free place of a grid of 0.5 degrees
+     */
+    private Area polygon() {
+        int place = next++;
+        double lat = -80 + (place / 720) % 320 * 0.5;
+        double lon = -180 + place % 720 * 0.5;
+
+        Area area = new Area();
+        // keeps the corners in order, so the polygon does not intersect itself
+        area.setCorners(new LinkedHashSet<>());
+        for (int i = 0; i < CORNERS; i++) {
+            double angle = 2 * Math.PI * i / CORNERS;
+            double r = RADIUS * (0.9 + 0.1 * random.nextDouble());
+
+            Corner corner = new Corner();
+            corner.setLat((float) (lat + Math.sin(angle) * r));
+            corner.setLon((float) (lon + Math.cos(angle) * r));
+            area.getCorners().add(corner);
+        }
+
+        Ngo ngo = new Ngo();
+        ngo.setName("ngo " + place);
+        area.setNgo(ngo);
+        return area;
+    }
+}
@@ -0,0 +1,62 @@
+package de.extremeenvironment.disasterservice.web.rest;
+
+import de.extremeenvironment.disasterservice.benchmark.SyntheticData;
+import de.extremeenvironment.disasterservice.domain.Area;
+import de.extremeenvironment.disasterservice.repository.AreaRepository;
+import de.extremeenvironment.disasterservice.service.index.AreaIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Benchmarks the overlap check of a new area against the existing ones, with an in-memory repository.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AreaResourceBenchmark {
+
+    private static final int PROBES = 64;
+
+    @Param({"1000", "10000", "100000"})
+    private int size;
+
+    private AreaResource areaResource;
+
+    private List<Area> probes;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SyntheticData data = new SyntheticData(42);
+        List<Area> areas = data.areas(size);
+
+        Map<String, Function<Object[], Object>> answers = new HashMap<>();
+        answers.put("findAllWithCorners", args -> areas);
+        AreaRepository areaRepository = SyntheticData.stub(AreaRepository.class, answers);
+        areaResource = new AreaResource(areaRepository, null, null,
+            new AreaIndex(areaRepository, SyntheticData.transactionManager()));
+
+        probes = new ArrayList<>();
+        for (int i = 0; i < PROBES; i++) {
+            float[] center = data.coordinate();
+            probes.add(data.area(center[0], center[1], 0.01));
+        }
+
+        // build the index outside of the measurement
+        checkIsValidArea();
+    }
+
+    @Benchmark
+    public boolean checkIsValidArea() {
+        next = next + 1 == PROBES ? 0 : next + 1;
+        Area probe = probes.get(next);
+        return areaResource.checkIsValidArea(probe, probe.getCorners());
+    }
+}
@@ -1,36 +1,132 @@
 package de.extremeenvironment.disasterservice.client;
 
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import de.extremeenvironment.disasterservice.config.CacheConfiguration;
+import de.extremeenvironment.disasterservice.config.JHipsterProperties;
 import de.extremeenvironment.disasterservice.domain.User;
 import de.extremeenvironment.disasterservice.repository.UserRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.inject.Inject;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Created by on 10.07.16.
  *
+ * <p>
+ * User identities never change, so the user ids of names and the primary keys of user ids are cached in bounded
+ * caches configured like the other local caches ({@value #USERS_BY_NAME} and {@value #USERS_BY_ID}). Concurrent misses
+ * for the same name wait for a single call to the user service. A cache hit returns a new detached user, entities of
+ * one session are never handed to another. Primary keys are only cached once the transaction which found or created
+ * the user has committed.
+ * </p>
+ *
  * @author David Steiman
  */
 @Service
 public class UserService {
+
+    public static final String USERS_BY_NAME = "usersByName";
+
+    public static final String USERS_BY_ID = "usersById";
+
     private UserClient userClient;
 
     private UserRepository userRepository;
 
+    private LoadingCache<String, Long> userIdsByName;
+
+    private Cache<Long, Long> userKeysById;
+
+    private Timer remoteTimer;
+
     @Inject
-    public UserService(UserClient userClient, UserRepository userRepository) {
+    public UserService(UserClient userClient, UserRepository userRepository, JHipsterProperties jHipsterProperties,
+                       MetricRegistry metricRegistry) {
         this.userClient = userClient;
         this.userRepository = userRepository;
+        this.remoteTimer = metricRegistry.timer(MetricRegistry.name("users", "remote"));
+
+        JHipsterProperties.Cache.Limits byName = jHipsterProperties.getCache().getLimits(USERS_BY_NAME);
+        this.userIdsByName = CacheBuilder.newBuilder()
+            .maximumSize(byName.getMaxEntries())
+            .expireAfterWrite(byName.getTimeToLiveSeconds(), TimeUnit.SECONDS)
+            .recordStats()
+            .build(new CacheLoader<String, Long>() {
+                @Override
+                public Long load(String name) {
+                    Timer.Context context = remoteTimer.time();
+                    try {
+                        return userClient.getUserByName(name).getId();
+                    } finally {
+                        context.stop();
+                    }
+                }
+            });
+
+        JHipsterProperties.Cache.Limits byId = jHipsterProperties.getCache().getLimits(USERS_BY_ID);
+        this.userKeysById = CacheBuilder.newBuilder()
+            .maximumSize(byId.getMaxEntries())
+            .expireAfterWrite(byId.getTimeToLiveSeconds(), TimeUnit.SECONDS)
+            .recordStats()
+            .build();
+
+        CacheConfiguration.registerMetrics(metricRegistry, USERS_BY_NAME, userIdsByName);
+        CacheConfiguration.registerMetrics(metricRegistry, USERS_BY_ID, userKeysById);
     }
 
     public User findOrCreateById(Long id) {
-        return userRepository
+        Long key = userKeysById.getIfPresent(id);
+        if (key != null) {
+            User user = new User(id);
+            user.setId(key);
+            return user;
+        }
+
+        User user = userRepository
             .findOneByUserId(id)
-            .orElseGet(() -> userRepository.save(new User(userClient.getUserById(id).getId())));
+            .orElseGet(() -> userRepository.save(new User(getRemoteUserById(id).getId())));
+        cache(id, user.getId());
+        return user;
     }
 
     public User findOrCreateByName(String name) {
-        User user = userClient.getUserByName(name);
-        return findOrCreateById(user.getId());
+        try {
+            return findOrCreateById(userIdsByName.getUnchecked(name));
+        } catch (UncheckedExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    private User getRemoteUserById(Long id) {
+        Timer.Context context = remoteTimer.time();
+        try {
+            return userClient.getUserById(id);
+        } finally {
+            context.stop();
+        }
+    }
+
+    private void cache(Long id, long key) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // a rolled back user must not be handed out again
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    userKeysById.put(id, key);
+                }
+            });
+        } else {
+            userKeysById.put(id, key);
+        }
     }
 }
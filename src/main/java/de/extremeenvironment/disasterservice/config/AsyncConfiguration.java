@@ -37,6 +37,28 @@ public class AsyncConfiguration implements AsyncConfigurer {
         return new ExceptionHandlingAsyncTaskExecutor(executor);
     }
 
+    @Bean(name = "matchingExecutor")
+    public Executor getMatchingExecutor() {
+        log.debug("Creating Matching Task Executor");
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(jHipsterProperties.getMatching().getPoolSize());
+        executor.setMaxPoolSize(jHipsterProperties.getMatching().getPoolSize());
+        executor.setQueueCapacity(jHipsterProperties.getMatching().getQueueCapacity());
+        // a full queue rejects the matching instead of running it on the request thread, it is retried, see MatchingService
+        executor.setThreadNamePrefix("disaster-service-Matching-");
+        return new ExceptionHandlingAsyncTaskExecutor(executor);
+    }
+
+    @Bean(name = "eventExecutor")
+    public Executor getEventExecutor() {
+        log.debug("Creating Event Task Executor");
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(jHipsterProperties.getEvents().getSenderThreads());
+        executor.setMaxPoolSize(jHipsterProperties.getEvents().getSenderThreads());
+        executor.setThreadNamePrefix("disaster-service-Event-");
+        return new ExceptionHandlingAsyncTaskExecutor(executor);
+    }
+
     @Override
     public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
         return new SimpleAsyncUncaughtExceptionHandler();
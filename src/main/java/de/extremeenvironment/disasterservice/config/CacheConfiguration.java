@@ -1,15 +1,22 @@
 package de.extremeenvironment.disasterservice.config;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import net.sf.ehcache.Ehcache;
+import org.hibernate.cache.internal.StandardQueryCache;
+import org.hibernate.cache.spi.UpdateTimestampsCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.data.jpa.EntityManagerFactoryDependsOnPostProcessor;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.cache.ehcache.EhCacheCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import javax.annotation.PreDestroy;
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
 
 @SuppressWarnings("unused")
 @Configuration
@@ -17,19 +24,119 @@ import javax.annotation.PreDestroy;
 @AutoConfigureAfter(value = { MetricsConfiguration.class, DatabaseConfiguration.class })
 public class CacheConfiguration {
 
+    public static final String DISASTER_TYPES = "disasterTypes";
+
+    public static final String CATEGORIES = "categories";
+
+    public static final String ACTION_OBJECTS = "actionObjects";
+
+    public static final String NGOS = "ngos";
+
+    /**
+     * the cached results of queries, e.g. of the lookups of reference data
+     */
+    public static final String QUERIES = "queries";
+
+    /**
+     * the Spring caches of the reference data lists, see {@code ReferenceDataService}
+     */
+    public static final String DISASTER_TYPE_LIST = "disasterTypeList";
+
+    public static final String CATEGORY_LIST = "categoryList";
+
+    public static final String ACTION_OBJECT_LIST = "actionObjectList";
+
     private final Logger log = LoggerFactory.getLogger(CacheConfiguration.class);
 
-    private CacheManager cacheManager;
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    @Inject
+    private MetricRegistry metricRegistry;
+
+    private net.sf.ehcache.CacheManager cacheManager;
 
-    @PreDestroy
-    public void destroy() {
-        log.info("Closing Cache Manager");
+    /**
+     * creates the regions of the Hibernate second-level cache and the Spring caches in the Ehcache singleton, which the
+     * {@code SingletonEhCacheRegionFactory} of the persistence unit uses as well
+     */
+    @PostConstruct
+    public void init() {
+        log.debug("Starting Ehcache");
+        cacheManager = net.sf.ehcache.CacheManager.create();
+        addCache(DISASTER_TYPES, DISASTER_TYPES);
+        addCache(CATEGORIES, CATEGORIES);
+        addCache(ACTION_OBJECTS, ACTION_OBJECTS);
+        addCache(NGOS, NGOS);
+        addCache(StandardQueryCache.class.getName(), QUERIES);
+        addCache(DISASTER_TYPE_LIST, DISASTER_TYPE_LIST);
+        addCache(CATEGORY_LIST, CATEGORY_LIST);
+        addCache(ACTION_OBJECT_LIST, ACTION_OBJECT_LIST);
+
+        // cached query results are only valid as long as the update timestamps of their tables are kept
+        if (!cacheManager.cacheExists(UpdateTimestampsCache.REGION_NAME)) {
+            net.sf.ehcache.config.CacheConfiguration timestamps = new net.sf.ehcache.config.CacheConfiguration()
+                .name(UpdateTimestampsCache.REGION_NAME)
+                .eternal(true)
+                .maxEntriesLocalHeap(0);
+            cacheManager.addCache(new net.sf.ehcache.Cache(timestamps));
+        }
     }
 
     @Bean
     public CacheManager cacheManager() {
-        log.debug("No cache");
-        cacheManager = new NoOpCacheManager();
-        return cacheManager;
+        log.debug("Starting Spring Cache");
+        EhCacheCacheManager ehCacheManager = new EhCacheCacheManager(cacheManager);
+        // values are put and evicted once the transaction commits
+        ehCacheManager.setTransactionAware(true);
+        return ehCacheManager;
+    }
+
+    /**
+     * adds a bounded cache, which evicts entries least recently used first and expires them after their time to live,
+     * with the limits and metrics of the given {@code jhipster.cache} entry
+     */
+    private void addCache(String cacheName, String name) {
+        if (!cacheManager.cacheExists(cacheName)) {
+            JHipsterProperties.Cache.Limits limits = jHipsterProperties.getCache().getLimits(name);
+            net.sf.ehcache.config.CacheConfiguration configuration = new net.sf.ehcache.config.CacheConfiguration()
+                .name(cacheName)
+                .maxEntriesLocalHeap(limits.getMaxEntries().intValue())
+                .timeToLiveSeconds(limits.getTimeToLiveSeconds())
+                .memoryStoreEvictionPolicy("LRU");
+            cacheManager.addCache(new net.sf.ehcache.Cache(configuration));
+        }
+        registerMetrics(metricRegistry, name, cacheManager.getEhcache(cacheName));
+    }
+
+    /**
+     * exports the hits, misses, evictions and size of an Ehcache cache
+     */
+    public static void registerMetrics(MetricRegistry metricRegistry, String name, Ehcache cache) {
+        metricRegistry.register(MetricRegistry.name("cache", name, "hits"), (Gauge<Long>) () -> cache.getStatistics().cacheHitCount());
+        metricRegistry.register(MetricRegistry.name("cache", name, "misses"), (Gauge<Long>) () -> cache.getStatistics().cacheMissCount());
+        metricRegistry.register(MetricRegistry.name("cache", name, "evictions"), (Gauge<Long>) () -> cache.getStatistics().cacheEvictedCount());
+        metricRegistry.register(MetricRegistry.name("cache", name, "size"), (Gauge<Long>) () -> (long) cache.getSize());
+    }
+
+    /**
+     * exports the hits, misses, evictions and size of a Guava cache which records its stats
+     */
+    public static void registerMetrics(MetricRegistry metricRegistry, String name, com.google.common.cache.Cache<?, ?> cache) {
+        metricRegistry.register(MetricRegistry.name("cache", name, "hits"), (Gauge<Long>) () -> cache.stats().hitCount());
+        metricRegistry.register(MetricRegistry.name("cache", name, "misses"), (Gauge<Long>) () -> cache.stats().missCount());
+        metricRegistry.register(MetricRegistry.name("cache", name, "evictions"), (Gauge<Long>) () -> cache.stats().evictionCount());
+        metricRegistry.register(MetricRegistry.name("cache", name, "size"), (Gauge<Long>) cache::size);
+    }
+
+    /**
+     * the persistence unit looks up its cache regions while it starts, so it has to wait for their limits and metrics
+     */
+    @Configuration
+    public static class HibernateCacheDependencyConfiguration extends EntityManagerFactoryDependsOnPostProcessor {
+
+        public HibernateCacheDependencyConfiguration() {
+            super("cacheConfiguration");
+        }
     }
 }
@@ -1,6 +1,8 @@
 package de.extremeenvironment.disasterservice.config;
 
+import de.extremeenvironment.disasterservice.config.datasource.ReplicaRoutingDataSource;
 import de.extremeenvironment.disasterservice.config.liquibase.AsyncSpringLiquibase;
+import de.extremeenvironment.disasterservice.domain.util.PooledSequenceGenerator;
 
 import com.codahale.metrics.MetricRegistry;
 import com.fasterxml.jackson.datatype.hibernate4.Hibernate4Module;
@@ -11,6 +13,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.jpa.EntityManagerFactoryDependsOnPostProcessor;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceBuilder;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
 import org.springframework.boot.autoconfigure.liquibase.LiquibaseProperties;
@@ -18,16 +22,21 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.ApplicationContextException;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Profile;
 import org.springframework.core.env.Environment;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.sql.DataSource;
 import java.sql.SQLException;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
 
 @Configuration
 @EnableJpaRepositories("de.extremeenvironment.disasterservice.repository")
@@ -35,18 +44,23 @@ import java.util.Arrays;
 @EnableTransactionManagement
 public class DatabaseConfiguration {
 
+    private static final String NOT_CLOUD = "#{!environment.acceptsProfiles('" + Constants.SPRING_PROFILE_CLOUD + "') && !environment.acceptsProfiles('" + Constants.SPRING_PROFILE_HEROKU + "')}";
+
     private final Logger log = LoggerFactory.getLogger(DatabaseConfiguration.class);
 
     @Inject
     private Environment env;
 
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
     @Autowired(required = false)
     private MetricRegistry metricRegistry;
 
     @Bean(destroyMethod = "close")
-    @ConditionalOnExpression("#{!environment.acceptsProfiles('" + Constants.SPRING_PROFILE_CLOUD + "') && !environment.acceptsProfiles('" + Constants.SPRING_PROFILE_HEROKU + "')}")
+    @ConditionalOnExpression(NOT_CLOUD)
     @ConfigurationProperties(prefix = "spring.datasource.hikari")
-    public DataSource dataSource(DataSourceProperties dataSourceProperties) {
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
         log.debug("Configuring Datasource");
         if (dataSourceProperties.getUrl() == null) {
             log.error("Your database connection pool configuration is incorrect! The application" +
@@ -70,6 +84,47 @@ public class DatabaseConfiguration {
         return hikariDataSource;
     }
 
+    /**
+     * The pool of the read replica, configured with the Hikari settings below "spring.datasource.replica", e.g.
+     * "spring.datasource.replica.jdbc-url". It uses the credentials of the primary database unless they are set.
+     * Its connections are read-only.
+     *
+     * @return the replica pool
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnExpression(NOT_CLOUD)
+    @ConditionalOnProperty(prefix = "spring.datasource.replica", name = "jdbc-url")
+    @ConfigurationProperties(prefix = "spring.datasource.replica")
+    public HikariDataSource replicaDataSource(DataSourceProperties dataSourceProperties) {
+        log.debug("Configuring replica Datasource");
+        HikariDataSource hikariDataSource = new HikariDataSource();
+        hikariDataSource.setUsername(dataSourceProperties.getUsername());
+        hikariDataSource.setPassword(dataSourceProperties.getPassword());
+        hikariDataSource.setPoolName(ReplicaRoutingDataSource.REPLICA);
+        hikariDataSource.setReadOnly(true);
+        if (metricRegistry != null) {
+            hikariDataSource.setMetricRegistry(metricRegistry);
+        }
+        return hikariDataSource;
+    }
+
+    /**
+     * Sends read-only transactions to the replica, if one is configured, and everything else to the primary database.
+     *
+     * @return the DataSource of the application
+     */
+    @Bean(destroyMethod = "")
+    @Primary
+    @ConditionalOnExpression(NOT_CLOUD)
+    public DataSource dataSource(@Named("primaryDataSource") HikariDataSource primaryDataSource,
+                                 @Named("replicaDataSource") Optional<HikariDataSource> replicaDataSource) {
+        if (!replicaDataSource.isPresent()) {
+            return primaryDataSource;
+        }
+        log.info("Routing read-only transactions to the replica {}", replicaDataSource.get().getJdbcUrl());
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource.get()));
+    }
+
     /**
      * Open the TCP port for the H2 database, so it is available remotely.
      *
@@ -93,6 +148,11 @@ public class DatabaseConfiguration {
         liquibase.setContexts(liquibaseProperties.getContexts());
         liquibase.setDefaultSchema(liquibaseProperties.getDefaultSchema());
         liquibase.setDropFirst(liquibaseProperties.isDropFirst());
+
+        // the increment of the sequences and the ids reserved by Hibernate have to match
+        int idAllocationSize = jHipsterProperties.getDatabase().getIdAllocationSize();
+        liquibase.setChangeLogParameters(Collections.singletonMap("idAllocationSize", String.valueOf(idAllocationSize)));
+        PooledSequenceGenerator.setAllocationSize(idAllocationSize);
         if (env.acceptsProfiles(Constants.SPRING_PROFILE_NO_LIQUIBASE)) {
             liquibase.setShouldRun(false);
         } else {
@@ -107,4 +167,16 @@ public class DatabaseConfiguration {
     public Hibernate4Module hibernate4Module() {
         return new Hibernate4Module();
     }
+
+    /**
+     * the persistence unit configures the id generators, so it has to wait for the allocation size set with the
+     * {@link #liquibase} bean
+     */
+    @Configuration
+    public static class IdAllocationDependencyConfiguration extends EntityManagerFactoryDependsOnPostProcessor {
+
+        public IdAllocationDependencyConfiguration() {
+            super("liquibase");
+        }
+    }
 }
@@ -14,6 +14,7 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.scheduling.annotation.Scheduled;
 
 import javax.inject.Inject;
+import java.util.Arrays;
 
 /**
  * Created by linus on 25.06.16.
@@ -160,18 +161,8 @@ public class DummyDataConfiguration {
             ActionObject ao11 = new ActionObject();
             ao11.setName("Schrottflinte");
             ao11.setCategory(category2);
-            actionObjectRepository.save(ao);
-            actionObjectRepository.save(ao1);
-            actionObjectRepository.save(ao2);
-            actionObjectRepository.save(ao3);
-            actionObjectRepository.save(ao4);
-            actionObjectRepository.save(ao5);
-            actionObjectRepository.save(ao6);
-            actionObjectRepository.save(ao7);
-            actionObjectRepository.save(ao8);
-            actionObjectRepository.save(ao9);
-            actionObjectRepository.save(ao10);
-            actionObjectRepository.save(ao11);
+            // one batch of inserts
+            actionObjectRepository.save(Arrays.asList(ao, ao1, ao2, ao3, ao4, ao5, ao6, ao7, ao8, ao9, ao10, ao11));
             actionObjectRepository.flush();
 
             Disaster disaster = new Disaster();
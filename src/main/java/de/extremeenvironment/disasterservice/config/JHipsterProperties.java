@@ -4,6 +4,9 @@ package de.extremeenvironment.disasterservice.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.web.cors.CorsConfiguration;
 
+import java.util.HashMap;
+import java.util.Map;
+
 
 /**
  * Properties specific to JHipster.
@@ -33,6 +36,18 @@ public class JHipsterProperties {
 
     private final Ribbon ribbon = new Ribbon();
 
+    private final Matching matching = new Matching();
+
+    private final Likes likes = new Likes();
+
+    private final Events events = new Events();
+
+    private final Outbox outbox = new Outbox();
+
+    private final Database database = new Database();
+
+    private final Index index = new Index();
+
     public Async getAsync() {
         return async;
     }
@@ -69,6 +84,30 @@ public class JHipsterProperties {
         return ribbon;
     }
 
+    public Matching getMatching() {
+        return matching;
+    }
+
+    public Likes getLikes() {
+        return likes;
+    }
+
+    public Events getEvents() {
+        return events;
+    }
+
+    public Outbox getOutbox() {
+        return outbox;
+    }
+
+    public Database getDatabase() {
+        return database;
+    }
+
+    public Index getIndex() {
+        return index;
+    }
+
     public static class Async {
 
         private int corePoolSize = 2;
@@ -128,6 +167,10 @@ public class JHipsterProperties {
 
         private int timeToLiveSeconds = 3600;
 
+        private long maxEntries = 1000;
+
+        private final Map<String, Limits> caches = new HashMap<>();
+
         public int getTimeToLiveSeconds() {
             return timeToLiveSeconds;
         }
@@ -135,6 +178,61 @@ public class JHipsterProperties {
         public void setTimeToLiveSeconds(int timeToLiveSeconds) {
             this.timeToLiveSeconds = timeToLiveSeconds;
         }
+
+        public long getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(long maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public Map<String, Limits> getCaches() {
+            return caches;
+        }
+
+        /**
+         * @return the limits of a single cache, falling back to the default limits
+         */
+        public Limits getLimits(String cacheName) {
+            Limits limits = new Limits();
+            limits.setTimeToLiveSeconds(timeToLiveSeconds);
+            limits.setMaxEntries(maxEntries);
+
+            Limits configured = caches.get(cacheName);
+            if (configured != null) {
+                if (configured.getTimeToLiveSeconds() != null) {
+                    limits.setTimeToLiveSeconds(configured.getTimeToLiveSeconds());
+                }
+                if (configured.getMaxEntries() != null) {
+                    limits.setMaxEntries(configured.getMaxEntries());
+                }
+            }
+            return limits;
+        }
+
+        public static class Limits {
+
+            private Integer timeToLiveSeconds;
+
+            private Long maxEntries;
+
+            public Integer getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(Integer timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+
+            public Long getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(Long maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+        }
     }
 
     public static class Mail {
@@ -563,4 +661,263 @@ public class JHipsterProperties {
         }
     }
 
+    public static class Matching {
+
+        private boolean async = true;
+
+        private int poolSize = 1;
+
+        private int queueCapacity = 10000;
+
+        private long maxAwaitMillis = 30000;
+
+        private long retryIntervalMillis = 1000;
+
+        private final Batch batch = new Batch();
+
+        public boolean isAsync() {
+            return async;
+        }
+
+        public void setAsync(boolean async) {
+            this.async = async;
+        }
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public void setPoolSize(int poolSize) {
+            this.poolSize = poolSize;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public long getMaxAwaitMillis() {
+            return maxAwaitMillis;
+        }
+
+        public void setMaxAwaitMillis(long maxAwaitMillis) {
+            this.maxAwaitMillis = maxAwaitMillis;
+        }
+
+        public long getRetryIntervalMillis() {
+            return retryIntervalMillis;
+        }
+
+        public void setRetryIntervalMillis(long retryIntervalMillis) {
+            this.retryIntervalMillis = retryIntervalMillis;
+        }
+
+        public Batch getBatch() {
+            return batch;
+        }
+
+        public static class Batch {
+
+            private boolean enabled = false;
+
+            private long intervalMillis = 10000;
+
+            private int parallelism = Runtime.getRuntime().availableProcessors();
+
+            private int maxAssignmentSize = 500;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public long getIntervalMillis() {
+                return intervalMillis;
+            }
+
+            public void setIntervalMillis(long intervalMillis) {
+                this.intervalMillis = intervalMillis;
+            }
+
+            public int getParallelism() {
+                return parallelism;
+            }
+
+            public void setParallelism(int parallelism) {
+                this.parallelism = parallelism;
+            }
+
+            public int getMaxAssignmentSize() {
+                return maxAssignmentSize;
+            }
+
+            public void setMaxAssignmentSize(int maxAssignmentSize) {
+                this.maxAssignmentSize = maxAssignmentSize;
+            }
+        }
+    }
+
+    public static class Likes {
+
+        private long flushIntervalMillis = 1000;
+
+        private int batchSize = 500;
+
+        public long getFlushIntervalMillis() {
+            return flushIntervalMillis;
+        }
+
+        public void setFlushIntervalMillis(long flushIntervalMillis) {
+            this.flushIntervalMillis = flushIntervalMillis;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+
+    public static class Events {
+
+        private int bufferSize = 100;
+
+        private long timeoutMillis = 1800000;
+
+        private long heartbeatMillis = 30000;
+
+        private int senderThreads = 2;
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public long getTimeoutMillis() {
+            return timeoutMillis;
+        }
+
+        public void setTimeoutMillis(long timeoutMillis) {
+            this.timeoutMillis = timeoutMillis;
+        }
+
+        public long getHeartbeatMillis() {
+            return heartbeatMillis;
+        }
+
+        public void setHeartbeatMillis(long heartbeatMillis) {
+            this.heartbeatMillis = heartbeatMillis;
+        }
+
+        public int getSenderThreads() {
+            return senderThreads;
+        }
+
+        public void setSenderThreads(int senderThreads) {
+            this.senderThreads = senderThreads;
+        }
+    }
+
+
+    public static class Outbox {
+
+        private long intervalMillis = 1000;
+
+        private int batchSize = 100;
+
+        private long initialBackoffMillis = 1000;
+
+        private long maxBackoffMillis = 300000;
+
+        private int maxAttempts = 20;
+
+        private long leaseMillis = 60000;
+
+        public long getIntervalMillis() {
+            return intervalMillis;
+        }
+
+        public void setIntervalMillis(long intervalMillis) {
+            this.intervalMillis = intervalMillis;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getInitialBackoffMillis() {
+            return initialBackoffMillis;
+        }
+
+        public void setInitialBackoffMillis(long initialBackoffMillis) {
+            this.initialBackoffMillis = initialBackoffMillis;
+        }
+
+        public long getMaxBackoffMillis() {
+            return maxBackoffMillis;
+        }
+
+        public void setMaxBackoffMillis(long maxBackoffMillis) {
+            this.maxBackoffMillis = maxBackoffMillis;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public long getLeaseMillis() {
+            return leaseMillis;
+        }
+
+        public void setLeaseMillis(long leaseMillis) {
+            this.leaseMillis = leaseMillis;
+        }
+    }
+
+    public static class Database {
+
+        private int idAllocationSize = 50;
+
+        public int getIdAllocationSize() {
+            return idAllocationSize;
+        }
+
+        public void setIdAllocationSize(int idAllocationSize) {
+            this.idAllocationSize = idAllocationSize;
+        }
+    }
+
+    public static class Index {
+
+        private long syncIntervalMillis = 10000;
+
+        public long getSyncIntervalMillis() {
+            return syncIntervalMillis;
+        }
+
+        public void setSyncIntervalMillis(long syncIntervalMillis) {
+            this.syncIntervalMillis = syncIntervalMillis;
+        }
+    }
+
 }
@@ -0,0 +1,4 @@
+/**
+ * DataSource routing between the primary database and its read replica.
+ */
+package de.extremeenvironment.disasterservice.config.datasource;
@@ -10,6 +10,9 @@ import java.util.Set;
 import java.util.Objects;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import com.fasterxml.jackson.databind.deser.std.NumberDeserializers;
 import de.extremeenvironment.disasterservice.domain.enumeration.ActionType;
 
@@ -23,7 +26,9 @@ public class Action extends AbstractAuditingEntity implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "actionSequence")
+    @GenericGenerator(name = "actionSequence", strategy = "de.extremeenvironment.disasterservice.domain.util.PooledSequenceGenerator",
+        parameters = @Parameter(name = "sequence_name", value = "action_sequence"))
     private Long id;
 
     @NotNull
@@ -51,7 +56,7 @@ public class Action extends AbstractAuditingEntity implements Serializable {
     @Column(name = "description")
     private String description;
 
-    @Column(name="like_counter")
+    @Column(name = "like_counter", updatable = false)
     private Long likeCounter;
 
     @ManyToOne(fetch=FetchType.EAGER)
@@ -61,18 +66,20 @@ public class Action extends AbstractAuditingEntity implements Serializable {
     @JoinColumn(name = "user_id")
     private User user;
 
-    @ManyToMany(fetch=FetchType.EAGER)
+    @ManyToMany
+    @BatchSize(size = 100)
     @JoinTable(name = "action_action_object",
                joinColumns = @JoinColumn(name="actions_id", referencedColumnName="ID"),
                inverseJoinColumns = @JoinColumn(name="action_objects_id", referencedColumnName="ID"))
     private Set<ActionObject> actionObjects = new HashSet<>();
 
-    @OneToOne(fetch=FetchType.EAGER)
+    @OneToOne(fetch = FetchType.LAZY)
     @JsonIgnore
     @JoinColumn(unique = true)
     private Action match;
 
-    @ManyToMany(fetch=FetchType.EAGER)
+    @ManyToMany
+    @BatchSize(size = 100)
     @JsonIgnore
     @JoinTable(name = "action_rejected_matches",
         joinColumns = @JoinColumn(name = "actions_id", referencedColumnName = "ID"),
@@ -191,14 +198,15 @@ public class Action extends AbstractAuditingEntity implements Serializable {
         if (this == o) {
             return true;
         }
-        if (o == null || getClass() != o.getClass()) {
+        // lazy associations hold proxies, which are subclasses and only answer through their getters
+        if (!(o instanceof Action)) {
             return false;
         }
         Action action = (Action) o;
-        if(action.id == null || id == null) {
+        if(action.getId() == null || getId() == null) {
             return false;
         }
-        return Objects.equals(id, action.id);
+        return Objects.equals(getId(), action.getId());
     }
 
     @Override
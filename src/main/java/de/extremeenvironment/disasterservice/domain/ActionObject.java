@@ -3,6 +3,12 @@ package de.extremeenvironment.disasterservice.domain;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.annotations.ApiModel;
 
+import de.extremeenvironment.disasterservice.config.CacheConfiguration;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
 import javax.persistence.*;
 import java.io.Serializable;
 import java.util.HashSet;
@@ -17,19 +23,22 @@ import java.util.Objects;
     + "was in einer Aktion angeboten/gesucht wird                             "
     + "")
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = CacheConfiguration.ACTION_OBJECTS)
 @Table(name = "action_object")
 public class ActionObject implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "actionObjectSequence")
+    @GenericGenerator(name = "actionObjectSequence", strategy = "de.extremeenvironment.disasterservice.domain.util.PooledSequenceGenerator",
+        parameters = @Parameter(name = "sequence_name", value = "action_object_sequence"))
     private Long id;
 
     @Column(name = "name")
     private String name;
 
-    @ManyToMany(mappedBy = "actionObjects",fetch = FetchType.EAGER,cascade = CascadeType.REMOVE)
+    @ManyToMany(mappedBy = "actionObjects",cascade = CascadeType.REMOVE)
     @JsonIgnore
     private Set<Action> actions = new HashSet<>();
 
@@ -2,6 +2,9 @@ package de.extremeenvironment.disasterservice.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
 import javax.persistence.*;
 import java.io.Serializable;
 import java.util.HashSet;
@@ -18,16 +21,18 @@ public class Area implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "areaSequence")
+    @GenericGenerator(name = "areaSequence", strategy = "de.extremeenvironment.disasterservice.domain.util.PooledSequenceGenerator",
+        parameters = @Parameter(name = "sequence_name", value = "area_sequence"))
     private Long id;
 
-    @OneToMany(mappedBy = "area",fetch=FetchType.EAGER,cascade = CascadeType.ALL)
+    @OneToMany(mappedBy = "area",cascade = CascadeType.ALL)
     private Set<Corner> corners = new HashSet<>();
 
     @OneToOne(mappedBy = "area")
     private Ngo ngo;
 
-    @OneToMany(mappedBy = "area",fetch=FetchType.EAGER,cascade = CascadeType.REMOVE)
+    @OneToMany(mappedBy = "area",cascade = CascadeType.REMOVE)
     @JsonIgnore
     private Set<Disaster> disasters = new HashSet<>();
 
@@ -87,7 +92,6 @@ public class Area implements Serializable {
     public String toString() {
         return "Area{" +
             "id=" + id +
-            "corners=" + corners +
             "Ngo=" + ngo +
             '}';
     }
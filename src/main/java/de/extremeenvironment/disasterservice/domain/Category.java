@@ -2,6 +2,12 @@ package de.extremeenvironment.disasterservice.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
+import de.extremeenvironment.disasterservice.config.CacheConfiguration;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
 import javax.persistence.*;
 import java.io.Serializable;
 import java.util.HashSet;
@@ -12,19 +18,22 @@ import java.util.Objects;
  * A Category.
  */
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = CacheConfiguration.CATEGORIES)
 @Table(name = "category")
 public class Category implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "categorySequence")
+    @GenericGenerator(name = "categorySequence", strategy = "de.extremeenvironment.disasterservice.domain.util.PooledSequenceGenerator",
+        parameters = @Parameter(name = "sequence_name", value = "category_sequence"))
     private Long id;
 
     @Column(name = "name")
     private String name;
 
-    @OneToMany(mappedBy = "category",fetch=FetchType.EAGER,cascade = CascadeType.REMOVE)
+    @OneToMany(mappedBy = "category",cascade = CascadeType.REMOVE)
     @JsonIgnore
     private Set<ActionObject> actionObjects = new HashSet<>();
 
@@ -3,6 +3,9 @@ package de.extremeenvironment.disasterservice.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
 import java.io.Serializable;
@@ -18,7 +21,9 @@ public class Corner implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cornerSequence")
+    @GenericGenerator(name = "cornerSequence", strategy = "de.extremeenvironment.disasterservice.domain.util.PooledSequenceGenerator",
+        parameters = @Parameter(name = "sequence_name", value = "corner_sequence"))
     private Long id;
 
     @Column(name = "lat")
@@ -2,6 +2,12 @@ package de.extremeenvironment.disasterservice.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
+import de.extremeenvironment.disasterservice.config.CacheConfiguration;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
 import javax.persistence.*;
 import java.io.Serializable;
 import java.util.HashSet;
@@ -12,19 +18,22 @@ import java.util.Objects;
  * A DisasterType.
  */
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = CacheConfiguration.DISASTER_TYPES)
 @Table(name = "disaster_type")
 public class DisasterType implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "disasterTypeSequence")
+    @GenericGenerator(name = "disasterTypeSequence", strategy = "de.extremeenvironment.disasterservice.domain.util.PooledSequenceGenerator",
+        parameters = @Parameter(name = "sequence_name", value = "disaster_type_sequence"))
     private Long id;
 
     @Column(name = "name")
     private String name;
 
-    @OneToMany(mappedBy = "disasterType",fetch=FetchType.EAGER,cascade = CascadeType.REMOVE)
+    @OneToMany(mappedBy = "disasterType",cascade = CascadeType.REMOVE)
     @JsonIgnore
     private Set<Disaster> disasters = new HashSet<>();
 
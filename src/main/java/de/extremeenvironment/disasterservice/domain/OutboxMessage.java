@@ -0,0 +1,197 @@
+package de.extremeenvironment.disasterservice.domain;
+
+import de.extremeenvironment.disasterservice.domain.enumeration.OutboxMessageType;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+import java.util.Objects;
+
+/**
+ * A OutboxMessage, a call to the message service which has not been delivered yet.
+ */
+@Entity
+@Table(name = "outbox_message")
+public class OutboxMessage implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outboxMessageSequence")
+    @GenericGenerator(name = "outboxMessageSequence", strategy = "de.extremeenvironment.disasterservice.domain.util.PooledSequenceGenerator",
+        parameters = @Parameter(name = "sequence_name", value = "outbox_message_sequence"))
+    private Long id;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "message_type", nullable = false)
+    private OutboxMessageType messageType;
+
+    @Column(name = "disaster_id")
+    private Long disasterId;
+
+    @Column(name = "action_id")
+    private Long actionId;
+
+    @Column(name = "conversation_id")
+    private Long conversationId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @NotNull
+    @Column(name = "next_attempt_date", nullable = false)
+    private ZonedDateTime nextAttemptDate = ZonedDateTime.now();
+
+    @Column(name = "last_error")
+    private String lastError;
+
+    @Column(name = "dead_letter", nullable = false)
+    private boolean deadLetter;
+
+    public OutboxMessage() {
+    }
+
+    public OutboxMessage(OutboxMessageType messageType, Long disasterId, Long userId) {
+        this.messageType = messageType;
+        this.disasterId = disasterId;
+        this.userId = userId;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public OutboxMessageType getMessageType() {
+        return messageType;
+    }
+
+    public void setMessageType(OutboxMessageType messageType) {
+        this.messageType = messageType;
+    }
+
+    /**
+     * @return the id of the disaster, not set for the messages of matches
+     */
+    public Long getDisasterId() {
+        return disasterId;
+    }
+
+    public void setDisasterId(Long disasterId) {
+        this.disasterId = disasterId;
+    }
+
+    /**
+     * @return the id of the matched action, only set for MATCH_CONVERSATION
+     */
+    public Long getActionId() {
+        return actionId;
+    }
+
+    public void setActionId(Long actionId) {
+        this.actionId = actionId;
+    }
+
+    /**
+     * @return the id of the conversation of a match, only set for its ADD_MEMBER messages
+     */
+    public Long getConversationId() {
+        return conversationId;
+    }
+
+    public void setConversationId(Long conversationId) {
+        this.conversationId = conversationId;
+    }
+
+    /**
+     * @return the user id of the user service, only set for ADD_MEMBER
+     */
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public ZonedDateTime getNextAttemptDate() {
+        return nextAttemptDate;
+    }
+
+    public void setNextAttemptDate(ZonedDateTime nextAttemptDate) {
+        this.nextAttemptDate = nextAttemptDate;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    /**
+     * @return whether the message failed too often and waits for a manual replay
+     */
+    public boolean isDeadLetter() {
+        return deadLetter;
+    }
+
+    public void setDeadLetter(boolean deadLetter) {
+        this.deadLetter = deadLetter;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        OutboxMessage outboxMessage = (OutboxMessage) o;
+        if (outboxMessage.id == null || id == null) {
+            return false;
+        }
+        return Objects.equals(id, outboxMessage.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return "OutboxMessage{" +
+            "id=" + id +
+            ", messageType='" + messageType + "'" +
+            ", disasterId='" + disasterId + "'" +
+            ", actionId='" + actionId + "'" +
+            ", conversationId='" + conversationId + "'" +
+            ", userId='" + userId + "'" +
+            ", attempts='" + attempts + "'" +
+            ", nextAttemptDate='" + nextAttemptDate + "'" +
+            ", deadLetter='" + deadLetter + "'" +
+            '}';
+    }
+}
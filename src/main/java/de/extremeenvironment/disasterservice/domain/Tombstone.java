@@ -0,0 +1,96 @@
+package de.extremeenvironment.disasterservice.domain;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+import java.util.Objects;
+
+/**
+ * A Tombstone, recording the deletion of an entity for the delta sync.
+ */
+@Entity
+@Table(name = "tombstone")
+public class Tombstone implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tombstoneSequence")
+    @GenericGenerator(name = "tombstoneSequence", strategy = "de.extremeenvironment.disasterservice.domain.util.PooledSequenceGenerator",
+        parameters = @Parameter(name = "sequence_name", value = "tombstone_sequence"))
+    private Long id;
+
+    @Column(name = "entity_name", length = 50, nullable = false)
+    private String entityName;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Column(name = "deleted_date", nullable = false)
+    private ZonedDateTime deletedDate;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getEntityName() {
+        return entityName;
+    }
+
+    public void setEntityName(String entityName) {
+        this.entityName = entityName;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(Long entityId) {
+        this.entityId = entityId;
+    }
+
+    public ZonedDateTime getDeletedDate() {
+        return deletedDate;
+    }
+
+    public void setDeletedDate(ZonedDateTime deletedDate) {
+        this.deletedDate = deletedDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Tombstone tombstone = (Tombstone) o;
+        if (tombstone.id == null || id == null) {
+            return false;
+        }
+        return Objects.equals(id, tombstone.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return "Tombstone{" +
+            "id=" + id +
+            ", entityName='" + entityName + "'" +
+            ", entityId='" + entityId + "'" +
+            ", deletedDate='" + deletedDate + "'" +
+            '}';
+    }
+}
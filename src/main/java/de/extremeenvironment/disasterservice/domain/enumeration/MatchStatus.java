@@ -0,0 +1,8 @@
+package de.extremeenvironment.disasterservice.domain.enumeration;
+
+/**
+ * The MatchStatus enumeration.
+ */
+public enum MatchStatus {
+    PENDING, MATCHED, UNMATCHED
+}
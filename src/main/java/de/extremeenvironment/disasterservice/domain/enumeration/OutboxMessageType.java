@@ -0,0 +1,8 @@
+package de.extremeenvironment.disasterservice.domain.enumeration;
+
+/**
+ * The OutboxMessageType enumeration.
+ */
+public enum OutboxMessageType {
+    DISASTER_CONVERSATION, MATCH_CONVERSATION, ADD_MEMBER
+}
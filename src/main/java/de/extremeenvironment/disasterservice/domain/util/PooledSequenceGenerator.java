@@ -0,0 +1,43 @@
+package de.extremeenvironment.disasterservice.domain.util;
+
+import org.hibernate.MappingException;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * Generates ids from a sequence which reserves a block of ids per call ("pooled-lo").
+ *
+ * <p>
+ * A call of the sequence returns the first id of a block of {@link #getAllocationSize()} ids, the rest of the block is
+ * handed out without a round trip, so inserts can be batched. The increment of the sequences has to equal the
+ * allocation size, both are set from {@code jhipster.database.idAllocationSize} by the DatabaseConfiguration before
+ * the persistence unit starts. Entities pass the name of their sequence as "sequence_name".
+ * </p>
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+    public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    private static volatile int allocationSize = DEFAULT_ALLOCATION_SIZE;
+
+    public static int getAllocationSize() {
+        return allocationSize;
+    }
+
+    public static void setAllocationSize(int allocationSize) {
+        if (allocationSize < 1) {
+            throw new IllegalArgumentException("The id allocation size must be positive: " + allocationSize);
+        }
+        PooledSequenceGenerator.allocationSize = allocationSize;
+    }
+
+    @Override
+    public void configure(Type type, Properties params, Dialect dialect) throws MappingException {
+        params.setProperty(INCREMENT_PARAM, String.valueOf(allocationSize));
+        params.setProperty(OPT_PARAM, allocationSize > 1 ? "pooled-lo" : "none");
+        super.configure(type, params, dialect);
+    }
+}
@@ -1,11 +1,61 @@
 package de.extremeenvironment.disasterservice.repository;
 
+import de.extremeenvironment.disasterservice.config.CacheConfiguration;
 import de.extremeenvironment.disasterservice.domain.ActionObject;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import javax.persistence.QueryHint;
+import java.util.List;
 
 /**
  * Spring Data JPA repository for the ActionObject entity.
+ *
+ * <p>
+ * Action objects are kept in the second-level cache, the lookups in the query cache.
+ * Every save and delete evicts the cached list of action objects, see {@code ReferenceDataService}.
+ * </p>
  */
 public interface ActionObjectRepository extends JpaRepository<ActionObject,Long> {
 
+    @Override
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    List<ActionObject> findAll();
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfiguration.ACTION_OBJECT_LIST, allEntries = true)
+    <S extends ActionObject> S save(S entity);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfiguration.ACTION_OBJECT_LIST, allEntries = true)
+    <S extends ActionObject> List<S> save(Iterable<S> entities);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfiguration.ACTION_OBJECT_LIST, allEntries = true)
+    <S extends ActionObject> S saveAndFlush(S entity);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfiguration.ACTION_OBJECT_LIST, allEntries = true)
+    void delete(Long id);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfiguration.ACTION_OBJECT_LIST, allEntries = true)
+    void delete(ActionObject entity);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfiguration.ACTION_OBJECT_LIST, allEntries = true)
+    void delete(Iterable<? extends ActionObject> entities);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfiguration.ACTION_OBJECT_LIST, allEntries = true)
+    void deleteAll();
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfiguration.ACTION_OBJECT_LIST, allEntries = true)
+    void deleteInBatch(Iterable<ActionObject> entities);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfiguration.ACTION_OBJECT_LIST, allEntries = true)
+    void deleteAllInBatch();
 }
@@ -4,11 +4,14 @@ import de.extremeenvironment.disasterservice.domain.Action;
 
 import de.extremeenvironment.disasterservice.domain.User;
 import de.extremeenvironment.disasterservice.domain.enumeration.ActionType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,19 +24,53 @@ public interface ActionRepository extends JpaRepository<Action,Long> {
     @Query("select action from Action action where action.user.login = ?#{principal.username}")
     List<Action> findByUserIsCurrentUser();*/
 
-    @Query("select distinct action from Action action left join fetch action.actionObjects left join fetch action.rejectedMatches")
+    @Query("select distinct action from Action action left join fetch action.actionObjects")
     List<Action> findAllWithEagerRelationships();
 
-    @Query("select action from Action action left join fetch action.actionObjects left join fetch action.rejectedMatches where action.id =:id")
+    @Query("select action from Action action left join fetch action.actionObjects where action.id =:id")
     Action findOneWithEagerRelationships(@Param("id") Long id);
 
+    @Query("select action from Action action where action.disaster is not null and action.actionType in :actionTypes and (action.isExpired is null or action.isExpired = false)")
+    List<Action> findNotExpiredInDisasters(@Param("actionTypes") Collection<ActionType> actionTypes);
+
+    /**
+     * lists the ids of a page of actions, pages start after the last id of the previous page
+     */
+    @Query("select action.id from Action action where action.id > :after order by action.id")
+    List<Long> findIdsAfter(@Param("after") Long after, Pageable pageable);
+
+    @Query("select action from Action action where action.disaster.id = :disasterId and action.actionType in :actionTypes and action.id > :after order by action.id")
+    List<Action> findByDisasterIdAfter(@Param("disasterId") Long disasterId, @Param("actionTypes") Collection<ActionType> actionTypes,
+                                       @Param("after") Long after, Pageable pageable);
+
+    /**
+     * lists the ids of the actions created or updated after the change (since, lastId), the oldest change first
+     */
+    @Query("select action.id from Action action where action.lastModifiedDate >= :since" +
+        " and (action.lastModifiedDate > :since or action.id > :lastId) order by action.lastModifiedDate, action.id")
+    List<Long> findIdsModifiedSince(@Param("since") ZonedDateTime since, @Param("lastId") Long lastId, Pageable pageable);
+
+    /**
+     * lists a page of actions of a disaster as [id, lat, lon], pages start after the last id of the previous page
+     */
+    @Query("select action.id, action.lat, action.lon from Action action where action.disaster.id = :disasterId and action.actionType in :actionTypes and action.id > :after order by action.id")
+    List<Object[]> findPointsByDisasterIdAfter(@Param("disasterId") Long disasterId, @Param("actionTypes") Collection<ActionType> actionTypes,
+                                               @Param("after") Long after, Pageable pageable);
+
+    /**
+     * @param ids the ids of the actions, must not be empty
+     */
+    @Query("select distinct action from Action action left join fetch action.actionObjects where action.id in :ids")
+    List<Action> findAllWithEagerRelationships(@Param("ids") Collection<Long> ids);
+
     List<Action> findByIsExpired(boolean expired);
 
     List<Action> findByUserId(Long id);
 
     List<Action> findByDisasterId(Long id);
 
-    List<Action> findByDisasterIdAndActionType(Long id,ActionType actionType);
+    @Query("select distinct action from Action action left join fetch action.actionObjects where action.disaster.id = :id and action.actionType = :actionType")
+    List<Action> findByDisasterIdAndActionType(@Param("id") Long id, @Param("actionType") ActionType actionType);
 
     Optional<Action> findActionById(Long id);
 
@@ -42,9 +79,23 @@ public interface ActionRepository extends JpaRepository<Action,Long> {
 
     List<Action> findActionByActionType(ActionType actionType);
 
-    @Query("select action from Action action where  action.user.id=:id and action.actionType=:actionType")
+    @Query("select distinct action from Action action left join fetch action.actionObjects where action.user.id=:id and action.actionType=:actionType")
     List<Action> findByActionType(@Param("id") Long id, @Param("actionType") ActionType actionType );
 
+    @Query("select action from Action action where action.match is null and action.actionType in :actionTypes and (action.isExpired is null or action.isExpired = false)")
+    List<Action> findOpenActions(@Param("actionTypes") Collection<ActionType> actionTypes);
+
+    @Query("select distinct action from Action action left join fetch action.actionObjects where action.match is null and action.actionType in :actionTypes and (action.isExpired is null or action.isExpired = false)")
+    List<Action> findOpenActionsWithActionObjects(@Param("actionTypes") Collection<ActionType> actionTypes);
+
+    /**
+     * lists the ids of the actions of a disaster with the most likes first, reading along the index
+     * "idx_action_disaster_type_likes" on (disaster_id, action_type, like_counter, id), so only the requested page is
+     * touched and ties need no extra sort
+     */
+    @Query("select action.id from Action action where action.disaster.id = :disasterId and action.actionType = :actionType order by action.likeCounter desc, action.id desc")
+    List<Long> findMostLikedIds(@Param("disasterId") Long disasterId, @Param("actionType") ActionType actionType, Pageable pageable);
+
 
 
 
@@ -2,8 +2,11 @@ package de.extremeenvironment.disasterservice.repository;
 
 import de.extremeenvironment.disasterservice.domain.Area;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -12,4 +15,22 @@ import java.util.List;
 @SuppressWarnings("unused")
 public interface AreaRepository extends JpaRepository<Area,Long> {
 
+    @Query("select distinct area from Area area left join fetch area.corners")
+    List<Area> findAllWithCorners();
+
+    /**
+     * lists the ids of a page of areas, pages start after the last id of the previous page
+     */
+    @Query("select area.id from Area area where area.id > :after order by area.id")
+    List<Long> findIdsAfter(@Param("after") Long after, Pageable pageable);
+
+    @Query("select area from Area area left join fetch area.corners where area.id = :id")
+    Area findOneWithCorners(@Param("id") Long id);
+
+    /**
+     * @param ids the ids of the areas, must not be empty
+     */
+    @Query("select distinct area from Area area left join fetch area.corners where area.id in :ids")
+    List<Area> findAllWithCorners(@Param("ids") Collection<Long> ids);
+
 }
@@ -1,15 +1,62 @@
 package de.extremeenvironment.disasterservice.repository;
 
+import de.extremeenvironment.disasterservice.config.CacheConfiguration;
 import de.extremeenvironment.disasterservice.domain.Category;
 
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.data.jpa.repository.*;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 
 /**
  * Spring Data JPA repository for the Category entity.
+ *
+ * <p>
+ * Categories are kept in the second-level cache, the lookups in the query cache.
+ * Every save and delete evicts the cached lists of categories and of action objects, see {@code ReferenceDataService}.
+ * </p>
  */
 @SuppressWarnings("unused")
 public interface CategoryRepository extends JpaRepository<Category,Long> {
 
+    @Override
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    List<Category> findAll();
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfiguration.CATEGORY_LIST, CacheConfiguration.ACTION_OBJECT_LIST}, allEntries = true)
+    <S extends Category> S save(S entity);
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfiguration.CATEGORY_LIST, CacheConfiguration.ACTION_OBJECT_LIST}, allEntries = true)
+    <S extends Category> List<S> save(Iterable<S> entities);
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfiguration.CATEGORY_LIST, CacheConfiguration.ACTION_OBJECT_LIST}, allEntries = true)
+    <S extends Category> S saveAndFlush(S entity);
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfiguration.CATEGORY_LIST, CacheConfiguration.ACTION_OBJECT_LIST}, allEntries = true)
+    void delete(Long id);
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfiguration.CATEGORY_LIST, CacheConfiguration.ACTION_OBJECT_LIST}, allEntries = true)
+    void delete(Category entity);
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfiguration.CATEGORY_LIST, CacheConfiguration.ACTION_OBJECT_LIST}, allEntries = true)
+    void delete(Iterable<? extends Category> entities);
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfiguration.CATEGORY_LIST, CacheConfiguration.ACTION_OBJECT_LIST}, allEntries = true)
+    void deleteAll();
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfiguration.CATEGORY_LIST, CacheConfiguration.ACTION_OBJECT_LIST}, allEntries = true)
+    void deleteInBatch(Iterable<Category> entities);
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfiguration.CATEGORY_LIST, CacheConfiguration.ACTION_OBJECT_LIST}, allEntries = true)
+    void deleteAllInBatch();
 }
@@ -2,8 +2,11 @@ package de.extremeenvironment.disasterservice.repository;
 
 import de.extremeenvironment.disasterservice.domain.Disaster;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 
+import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,4 +20,33 @@ public interface DisasterRepository extends JpaRepository<Disaster,Long> {
 
     List<Disaster> findByIsExpired(boolean isExpired);
 
+    @Query("select disaster from Disaster disaster where disaster.isExpired is null or disaster.isExpired = false")
+    List<Disaster> findActiveDisasters();
+
+    /**
+     * lists a page of disasters, pages start after the last id of the previous page
+     */
+    @Query("select disaster from Disaster disaster where disaster.id > :after order by disaster.id")
+    List<Disaster> findAllAfter(@Param("after") Long after, Pageable pageable);
+
+    /**
+     * lists a page of disasters as [id, lat, lon], pages start after the last id of the previous page
+     */
+    @Query("select disaster.id, disaster.lat, disaster.lon from Disaster disaster where disaster.id > :after order by disaster.id")
+    List<Object[]> findPointsAfter(@Param("after") Long after, Pageable pageable);
+
+    /**
+     * lists the disasters created or updated after the change (since, lastId), the oldest change first
+     */
+    @Query("select disaster from Disaster disaster where disaster.lastModifiedDate >= :since" +
+        " and (disaster.lastModifiedDate > :since or disaster.id > :lastId) order by disaster.lastModifiedDate, disaster.id")
+    List<Disaster> findModifiedSince(@Param("since") ZonedDateTime since, @Param("lastId") Long lastId, Pageable pageable);
+
+    /**
+     * lists the ids of the disasters created or updated after the change (since, lastId), the oldest change first
+     */
+    @Query("select disaster.id from Disaster disaster where disaster.lastModifiedDate >= :since" +
+        " and (disaster.lastModifiedDate > :since or disaster.id > :lastId) order by disaster.lastModifiedDate, disaster.id")
+    List<Long> findIdsModifiedSince(@Param("since") ZonedDateTime since, @Param("lastId") Long lastId, Pageable pageable);
+
 }
@@ -1,21 +1,69 @@
 package de.extremeenvironment.disasterservice.repository;
 
+import de.extremeenvironment.disasterservice.config.CacheConfiguration;
 import de.extremeenvironment.disasterservice.domain.DisasterType;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import javax.persistence.QueryHint;
+import java.util.List;
 import java.util.Optional;
 
 /**
  * Spring Data JPA repository for the DisasterType entity.
+ *
+ * <p>
+ * Disaster types are kept in the second-level cache, the lookups in the query cache.
+ * Every save and delete evicts the cached list of disaster types, see {@code ReferenceDataService}.
+ * </p>
  */
 
 public interface DisasterTypeRepository extends JpaRepository<DisasterType,Long> {
 
-   Optional<DisasterType> findById(Long id);
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    Optional<DisasterType> findById(Long id);
 
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     Optional<DisasterType> findByName(String name);
 
     @Override
-    void delete(DisasterType disasterType);
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    List<DisasterType> findAll();
 
+    @Override
+    @CacheEvict(cacheNames = CacheConfiguration.DISASTER_TYPE_LIST, allEntries = true)
+    <S extends DisasterType> S save(S entity);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfiguration.DISASTER_TYPE_LIST, allEntries = true)
+    <S extends DisasterType> List<S> save(Iterable<S> entities);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfiguration.DISASTER_TYPE_LIST, allEntries = true)
+    <S extends DisasterType> S saveAndFlush(S entity);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfiguration.DISASTER_TYPE_LIST, allEntries = true)
+    void delete(Long id);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfiguration.DISASTER_TYPE_LIST, allEntries = true)
+    void delete(DisasterType entity);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfiguration.DISASTER_TYPE_LIST, allEntries = true)
+    void delete(Iterable<? extends DisasterType> entities);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfiguration.DISASTER_TYPE_LIST, allEntries = true)
+    void deleteAll();
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfiguration.DISASTER_TYPE_LIST, allEntries = true)
+    void deleteInBatch(Iterable<DisasterType> entities);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfiguration.DISASTER_TYPE_LIST, allEntries = true)
+    void deleteAllInBatch();
 }
@@ -5,13 +5,24 @@ import de.extremeenvironment.disasterservice.domain.Ngo;
 
 import org.springframework.data.jpa.repository.*;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * Spring Data JPA repository for the Ngo entity.
+ *
+ * <p>
+ * Ngos are kept in the second-level cache, the lookups in the query cache.
+ * </p>
  */
 @SuppressWarnings("unused")
 public interface NgoRepository extends JpaRepository<Ngo,Long> {
+
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     Optional<Ngo> findById(Long id);
+
+    @Override
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    List<Ngo> findAll();
 }
@@ -0,0 +1,37 @@
+package de.extremeenvironment.disasterservice.repository;
+
+import de.extremeenvironment.disasterservice.domain.OutboxMessage;
+import de.extremeenvironment.disasterservice.domain.enumeration.OutboxMessageType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * Spring Data JPA repository for the OutboxMessage entity.
+ */
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage,Long> {
+
+    /**
+     * lists the messages due for delivery in the order they were written, dead letters are left out
+     */
+    @Query("select message from OutboxMessage message where message.deadLetter = false and message.nextAttemptDate <= :now order by message.id")
+    List<OutboxMessage> findDue(@Param("now") ZonedDateTime now, Pageable pageable);
+
+    /**
+     * claims a due message by moving its next attempt to the end of the lease, only one instance succeeds
+     *
+     * @return 1 if the message has been claimed, 0 if it is not due anymore
+     */
+    @Modifying
+    @Query("update OutboxMessage message set message.nextAttemptDate = :leaseEnd where message.id = :id and message.nextAttemptDate <= :now")
+    int claim(@Param("id") Long id, @Param("now") ZonedDateTime now, @Param("leaseEnd") ZonedDateTime leaseEnd);
+
+    List<OutboxMessage> findByDisasterId(Long disasterId);
+
+    List<OutboxMessage> findByDeadLetterTrueOrderById();
+
+    long countByDisasterIdAndMessageTypeAndDeadLetter(Long disasterId, OutboxMessageType messageType, boolean deadLetter);
+}
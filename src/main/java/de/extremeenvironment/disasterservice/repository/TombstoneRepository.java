@@ -0,0 +1,22 @@
+package de.extremeenvironment.disasterservice.repository;
+
+import de.extremeenvironment.disasterservice.domain.Tombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * Spring Data JPA repository for the Tombstone entity.
+ */
+public interface TombstoneRepository extends JpaRepository<Tombstone,Long> {
+
+    /**
+     * lists the tombstones written after the deletion (since, lastId), the oldest deletion first
+     */
+    @Query("select tombstone from Tombstone tombstone where tombstone.deletedDate >= :since" +
+        " and (tombstone.deletedDate > :since or tombstone.id > :lastId) order by tombstone.deletedDate, tombstone.id")
+    List<Tombstone> findDeletedSince(@Param("since") ZonedDateTime since, @Param("lastId") Long lastId, Pageable pageable);
+}
@@ -0,0 +1,176 @@
+package de.extremeenvironment.disasterservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.*;
+
+/**
+ * Exports all actions of a disaster as NDJSON or CSV.
+ *
+ * <p>
+ * The actions are read with a forward-only cursor of {@value #FETCH_SIZE} rows and written while scrolling, one row
+ * per action and action object ordered by action, so only the action being written is held in memory. The rows are
+ * scalar projections and the persistence context is cleared every {@value #FETCH_SIZE} rows, so exports of any size
+ * run in constant memory.
+ * </p>
+ */
+@Service
+public class ActionExportService {
+
+    public static final int FETCH_SIZE = 500;
+
+    static final String[] COLUMNS = {"id", "actionType", "title", "description", "lat", "lon", "date", "isExpired",
+        "likeCounter", "userId", "matchId", "actionObjects"};
+
+    private static final String EXPORT_QUERY = "select action.id, action.actionType, action.title, action.description, "
+        + "action.lat, action.lon, action.date, action.isExpired, action.likeCounter, owner.userId, matchedAction.id, actionObject.name, "
+        + "action.lastModifiedDate "
+        + "from Action action left join action.user owner left join action.match matchedAction left join action.actionObjects actionObject "
+        + "where action.disaster.id = :disasterId order by action.id";
+
+    // indexes in a row
+    private static final int LIKE_COUNTER = 8;
+
+    private static final int ACTION_OBJECT = COLUMNS.length - 1;
+
+    private static final int LAST_MODIFIED_DATE = COLUMNS.length;
+
+    public enum Format {
+        NDJSON("application/x-ndjson"), CSV("text/csv");
+
+        private final String contentType;
+
+        Format(String contentType) {
+            this.contentType = contentType;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+    }
+
+    private final Logger log = LoggerFactory.getLogger(ActionExportService.class);
+
+    private EntityManager entityManager;
+
+    private LikeCounterService likeCounterService;
+
+    private ObjectMapper objectMapper;
+
+    @Inject
+    public ActionExportService(EntityManager entityManager, LikeCounterService likeCounterService, ObjectMapper objectMapper) {
+        this.entityManager = entityManager;
+        this.likeCounterService = likeCounterService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * writes all actions of a disaster to a stream
+     *
+     * @param disasterId the id of the disaster
+     * @param format     the format of the export
+     * @param out        the stream to write to, it is flushed but not closed
+     * @return the number of exported actions
+     */
+    @Transactional(readOnly = true)
+    public long export(Long disasterId, Format format, OutputStream out) throws IOException {
+        Session session = entityManager.unwrap(Session.class);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writeCsv(Arrays.asList((Object[]) COLUMNS), writer);
+        }
+
+        ScrollableResults results = session.createQuery(EXPORT_QUERY)
+            .setParameter("disasterId", disasterId)
+            .setFetchSize(FETCH_SIZE)
+            .setReadOnly(true)
+            .scroll(ScrollMode.FORWARD_ONLY);
+
+        long actions = 0;
+        try {
+            Object[] current = null;
+            List<String> actionObjects = new ArrayList<>();
+            int rows = 0;
+            while (results.next()) {
+                Object[] row = results.get();
+                if (current != null && !current[0].equals(row[0])) {
+                    write(current, actionObjects, format, writer);
+                    actionObjects.clear();
+                    actions++;
+                }
+                current = row;
+                if (row[ACTION_OBJECT] != null) {
+                    actionObjects.add((String) row[ACTION_OBJECT]);
+                }
+                if (++rows % FETCH_SIZE == 0) {
+                    session.clear();
+                }
+            }
+            if (current != null) {
+                write(current, actionObjects, format, writer);
+                actions++;
+            }
+        } finally {
+            results.close();
+        }
+
+        writer.flush();
+        log.debug("Exported {} actions of disaster {}", actions, disasterId);
+        return actions;
+    }
+
+    private void write(Object[] row, List<String> actionObjects, Format format, Writer writer) throws IOException {
+        List<Object> values = new ArrayList<>(Arrays.asList(row).subList(0, ACTION_OBJECT));
+        long pendingLikes = likeCounterService.getPendingLikes((Long) row[0], (ZonedDateTime) row[LAST_MODIFIED_DATE]);
+        if (pendingLikes != 0) {
+            long likes = row[LIKE_COUNTER] == null ? 0 : (Long) row[LIKE_COUNTER];
+            values.set(LIKE_COUNTER, likes + pendingLikes);
+        }
+
+        if (format == Format.CSV) {
+            values.add(String.join(";", actionObjects));
+            writeCsv(values, writer);
+        } else {
+            Map<String, Object> json = new LinkedHashMap<>();
+            for (int i = 0; i < ACTION_OBJECT; i++) {
+                Object value = values.get(i);
+                json.put(COLUMNS[i], value == null || value instanceof Number || value instanceof Boolean ? value : value.toString());
+            }
+            json.put(COLUMNS[ACTION_OBJECT], actionObjects);
+            writer.write(objectMapper.writeValueAsString(json));
+            writer.write('\n');
+        }
+    }
+
+    private static void writeCsv(List<Object> values, Writer writer) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = values.get(i);
+            if (value != null) {
+                writer.write(escapeCsv(value.toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private static String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -1,9 +1,9 @@
 package de.extremeenvironment.disasterservice.service;
 
-import de.extremeenvironment.disasterservice.client.MessageClient;
 import de.extremeenvironment.disasterservice.domain.Action;
 import de.extremeenvironment.disasterservice.domain.ActionObject;
 import de.extremeenvironment.disasterservice.domain.Disaster;
+import de.extremeenvironment.disasterservice.domain.User;
 import de.extremeenvironment.disasterservice.domain.enumeration.ActionType;
 import de.extremeenvironment.disasterservice.repository.ActionRepository;
 import de.extremeenvironment.disasterservice.repository.DisasterRepository;
@@ -11,13 +11,17 @@ import de.extremeenvironment.disasterservice.repository.DisasterTypeRepository;
 import de.extremeenvironment.disasterservice.repository.UserRepository;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import javax.inject.Inject;
 import java.time.Duration;
 import java.time.Period;
 import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -27,7 +31,6 @@ import java.util.Set;
 @Service
 public class ActionService {
 
-    private static final int MAX_TRIES = 5;
     ActionRepository actionRepository;
 
     UserRepository userRepository;
@@ -36,40 +39,71 @@ public class ActionService {
 
     DisasterTypeRepository disasterTypeRepository;
 
-    MessageClient messageClient;
+    OutboxService outboxService;
+
+    DisasterService disasterService;
 
     @Inject
     public ActionService(ActionRepository actionRepository, UserRepository userRepository,
-     DisasterRepository disasterRepository, DisasterTypeRepository disasterTypeRepository, MessageClient messageClient) {
+     DisasterRepository disasterRepository, DisasterTypeRepository disasterTypeRepository, OutboxService outboxService,
+     DisasterService disasterService) {
         this.actionRepository = actionRepository;
         this.userRepository = userRepository;
         this.disasterRepository = disasterRepository;
         this.disasterTypeRepository = disasterTypeRepository;
-        this.messageClient = messageClient;
+        this.outboxService = outboxService;
+        this.disasterService = disasterService;
     }
 
+    /**
+     * saves an action and queues adding its user to the conversation of its disaster, see OutboxService
+     *
+     * @param action the action
+     * @return the saved action
+     */
+    @Transactional
     public Action save(Action action) {
         Disaster disaster;
         Action result = actionRepository.save(action);
 
-        int counter = 0;
-
-        if (action.getDisaster() != null
+        if (action.getUser() != null
+            && action.getDisaster() != null
             && action.getDisaster().getId() != null
             && (disaster = disasterRepository.findOne(action.getDisaster().getId())) != null) {
-            while (counter++ < MAX_TRIES) {
-                try {
-                    messageClient.addMember(action.getUser(), disaster.getConversationId());
-                } catch (Exception e) {
-                    if (counter + 1 == MAX_TRIES) {
-                        actionRepository.delete(action);
-                        actionRepository.flush();
-                        throw e;
-                    }
-                }
+            outboxService.addMember(action.getUser(), disaster);
+        }
+
+        return result;
+    }
+
+    /**
+     * saves the actions of one user in one transaction and queues adding the user to the conversation of every
+     * disaster once, see OutboxService. Seeks and knowledge without a disaster get the nearest one, missing disasters
+     * are created within the same transaction, once per position.
+     *
+     * @param actions the actions, their given disasters have to exist
+     * @param user    the user of the actions
+     * @return the saved actions
+     */
+    @Transactional
+    public List<Action> saveAll(List<Action> actions, User user) {
+        Map<List<Float>, Disaster> disastersByPosition = new HashMap<>();
+        for (Action action : actions) {
+            action.setUser(user);
+            if (action.getDisaster() == null && action.getActionType() != ActionType.OFFER) {
+                action.setDisaster(disastersByPosition.computeIfAbsent(Arrays.asList(action.getLat(), action.getLon()),
+                    position -> disasterService.findOrCreateDisaster(action.getLat(), action.getLon())));
             }
         }
+        List<Action> result = actionRepository.save(actions);
 
+        Set<Long> disasterIds = new HashSet<>();
+        for (Action action : result) {
+            Disaster disaster = action.getDisaster();
+            if (disaster != null && disaster.getId() != null && disasterIds.add(disaster.getId())) {
+                outboxService.addMember(user, disaster);
+            }
+        }
         return result;
     }
 
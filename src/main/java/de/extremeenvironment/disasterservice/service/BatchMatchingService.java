@@ -0,0 +1,383 @@
+package de.extremeenvironment.disasterservice.service;
+
+import de.extremeenvironment.disasterservice.config.JHipsterProperties;
+import de.extremeenvironment.disasterservice.domain.Action;
+import de.extremeenvironment.disasterservice.domain.enumeration.ActionType;
+import de.extremeenvironment.disasterservice.repository.ActionRepository;
+import de.extremeenvironment.disasterservice.service.index.ActionGridIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Matches all open offers and seeks at once.
+ *
+ * <p>
+ * The open actions are partitioned by disaster and every partition is solved as a min-cost assignment on the
+ * same score the single matching uses, so the result no longer depends on the order the actions were created in.
+ * Offers are not tied to a disaster, they join the partitions of every disaster with a seek in matching distance,
+ * and partitions sharing an offer are solved together.
+ * Partitions are solved in parallel and all matches are saved in one transaction. Groups of competing actions
+ * larger than {@code jhipster.matching.batch.maxAssignmentSize} are matched greedily, shortest distance first.
+ * </p>
+ */
+@Service
+public class BatchMatchingService {
+
+    private final Logger log = LoggerFactory.getLogger(BatchMatchingService.class);
+
+    private ActionRepository actionRepository;
+
+    private ActionGridIndex actionGridIndex;
+
+    private MatchingService matchingService;
+
+    private TransactionTemplate transactionTemplate;
+
+    private JHipsterProperties jHipsterProperties;
+
+    private ForkJoinPool forkJoinPool;
+
+    private EventBroadcaster eventBroadcaster;
+
+    @Inject
+    public BatchMatchingService(ActionRepository actionRepository, ActionGridIndex actionGridIndex,
+                                MatchingService matchingService, PlatformTransactionManager transactionManager,
+                                JHipsterProperties jHipsterProperties, EventBroadcaster eventBroadcaster) {
+        this.actionRepository = actionRepository;
+        this.actionGridIndex = actionGridIndex;
+        this.matchingService = matchingService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jHipsterProperties = jHipsterProperties;
+        this.forkJoinPool = new ForkJoinPool(jHipsterProperties.getMatching().getBatch().getParallelism());
+        this.eventBroadcaster = eventBroadcaster;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        forkJoinPool.shutdown();
+    }
+
+    @Scheduled(initialDelayString = "${jhipster.matching.batch.intervalMillis:10000}",
+        fixedDelayString = "${jhipster.matching.batch.intervalMillis:10000}")
+    public void scheduledMatching() {
+        if (jHipsterProperties.getMatching().getBatch().isEnabled()) {
+            matchAll();
+        }
+    }
+
+    /**
+     * matches all open offers and seeks
+     *
+     * @return the number of new matches
+     */
+    public synchronized int matchAll() {
+        long start = System.currentTimeMillis();
+        Set<Long> pendingActionIds = matchingService.getPendingActionIds();
+
+        Collection<List<Candidate>> partitions = transactionTemplate.execute(status -> {
+            Map<Long, List<Candidate>> byDisaster = new HashMap<>();
+            List<Candidate> offersWithoutDisaster = new ArrayList<>();
+            for (Action action : actionRepository.findOpenActionsWithActionObjects(Arrays.asList(ActionType.OFFER, ActionType.SEEK))) {
+                if (action.getLat() != null && action.getLon() != null) {
+                    if (action.getDisaster() == null && action.getActionType() == ActionType.OFFER) {
+                        offersWithoutDisaster.add(new Candidate(action));
+                    } else {
+                        Long disasterId = action.getDisaster() == null ? null : action.getDisaster().getId();
+                        byDisaster.computeIfAbsent(disasterId, d -> new ArrayList<>()).add(new Candidate(action));
+                    }
+                }
+            }
+            return partition(byDisaster, offersWithoutDisaster);
+        });
+
+        List<long[]> pairs;
+        try {
+            pairs = forkJoinPool.submit(() -> partitions.parallelStream()
+                .flatMap(partition -> solve(partition).stream())
+                .collect(Collectors.toList())
+            ).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Batch matching failed", e.getCause());
+        }
+
+        List<Action[]> matches = transactionTemplate.execute(status -> {
+            List<Action[]> saved = new ArrayList<>();
+            for (long[] pair : pairs) {
+                Action seek = actionRepository.findOne(pair[0]);
+                Action offer = actionRepository.findOne(pair[1]);
+                // skip actions which have been matched or changed since they were read
+                if (seek == null || offer == null || seek.getMatch() != null || offer.getMatch() != null
+                    || seek.isIsExpired() || offer.isIsExpired()) {
+                    continue;
+                }
+                seek.setMatch(offer);
+                offer.setMatch(seek);
+                saved.add(new Action[]{actionRepository.save(seek), actionRepository.save(offer)});
+                eventBroadcaster.publishMatch(seek, offer);
+                matchingService.createConversation(seek, offer);
+            }
+            return saved;
+        });
+
+        Map<Long, Action> matchById = new HashMap<>();
+        for (Action[] match : matches) {
+            matchById.put(match[0].getId(), match[1]);
+            matchById.put(match[1].getId(), match[0]);
+        }
+        pendingActionIds.forEach(id -> matchingService.completePending(id, matchById.get(id)));
+
+        log.info("Batch matching of {} disasters found {} matches in {} ms",
+            partitions.size(), matches.size(), System.currentTimeMillis() - start);
+        return matches.size();
+    }
+
+    /**
+     * adds every offer without a disaster to the partitions of the disasters with a seek in matching distance and
+     * merges the partitions it joins, so no offer is assigned in two partitions
+     *
+     * @param byDisaster            the open actions with a disaster and the seeks without one, by disaster id
+     * @param offersWithoutDisaster the open offers without a disaster
+     * @return the partitions
+     */
+    private Collection<List<Candidate>> partition(Map<Long, List<Candidate>> byDisaster, List<Candidate> offersWithoutDisaster) {
+        Map<Long, Long> disasterBySeek = new HashMap<>();
+        byDisaster.forEach((disasterId, candidates) -> candidates.stream()
+            .filter(candidate -> candidate.actionType == ActionType.SEEK)
+            .forEach(seek -> disasterBySeek.put(seek.id, disasterId)));
+
+        Map<Long, Long> parent = new HashMap<>();
+        byDisaster.keySet().forEach(disasterId -> parent.put(disasterId, disasterId));
+
+        Map<Long, List<Candidate>> offersByDisaster = new HashMap<>();
+        for (Candidate offer : offersWithoutDisaster) {
+            Long joined = null;
+            for (Long candidateId : actionGridIndex.findCandidates(offer.lat, offer.lon, MatchingService.MAX_MATCH_DISTANCE)) {
+                if (!disasterBySeek.containsKey(candidateId)) {
+                    continue;
+                }
+                Long disasterId = disasterBySeek.get(candidateId);
+                if (joined == null) {
+                    joined = disasterId;
+                    offersByDisaster.computeIfAbsent(disasterId, d -> new ArrayList<>()).add(offer);
+                } else {
+                    union(parent, joined, disasterId);
+                }
+            }
+        }
+
+        Map<Long, List<Candidate>> merged = new HashMap<>();
+        byDisaster.forEach((disasterId, candidates) ->
+            merged.computeIfAbsent(find(parent, disasterId), d -> new ArrayList<>()).addAll(candidates));
+        offersByDisaster.forEach((disasterId, offers) -> merged.get(find(parent, disasterId)).addAll(offers));
+        return merged.values();
+    }
+
+    /**
+     * @param partition the open actions of one or more disasters
+     * @return pairs of seek and offer ids
+     */
+    private List<long[]> solve(List<Candidate> partition) {
+        List<Candidate> seeks = new ArrayList<>();
+        List<Candidate> offers = new ArrayList<>();
+        Map<Long, List<Integer>> offersByObject = new HashMap<>();
+        for (Candidate candidate : partition) {
+            if (candidate.actionType == ActionType.SEEK) {
+                seeks.add(candidate);
+            } else {
+                candidate.objectIds.forEach(objectId ->
+                    offersByObject.computeIfAbsent(objectId, o -> new ArrayList<>()).add(offers.size()));
+                offers.add(candidate);
+            }
+        }
+
+        // feasible edges, components of seeks and offers are connected by them
+        List<Edge> edges = new ArrayList<>();
+        int[] parent = new int[seeks.size() + offers.size()];
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+        }
+
+        for (int s = 0; s < seeks.size(); s++) {
+            Candidate seek = seeks.get(s);
+            Set<Integer> offerIndexes = new HashSet<>();
+            seek.objectIds.forEach(objectId -> offerIndexes.addAll(offersByObject.getOrDefault(objectId, Collections.emptyList())));
+
+            for (int o : offerIndexes) {
+                Candidate offer = offers.get(o);
+                if (Objects.equals(seek.userId, offer.userId) || seek.rejectedIds.contains(offer.id)
+                    || offer.rejectedIds.contains(seek.id)) {
+                    continue;
+                }
+                float distance = DisasterService.getDistance(seek.lat, seek.lon, offer.lat, offer.lon);
+                if (distance > MatchingService.MAX_MATCH_DISTANCE) {
+                    continue;
+                }
+                float score = seek.createdDate == null ? distance
+                    : DisasterService.getDistance(seek.lat, seek.lon, offer.lat, offer.lon, seek.createdDate);
+                edges.add(new Edge(s, o, score));
+                union(parent, s, seeks.size() + o);
+            }
+        }
+
+        Map<Integer, List<Edge>> edgesByComponent = new HashMap<>();
+        edges.forEach(edge -> edgesByComponent.computeIfAbsent(find(parent, edge.seek), c -> new ArrayList<>()).add(edge));
+
+        List<long[]> pairs = new ArrayList<>();
+        for (List<Edge> component : edgesByComponent.values()) {
+            for (Edge edge : assign(component)) {
+                pairs.add(new long[]{seeks.get(edge.seek).id, offers.get(edge.offer).id});
+            }
+        }
+        return pairs;
+    }
+
+    /**
+     * @param edges the feasible edges of one connected component
+     * @return the chosen edges, no seek or offer is contained twice
+     */
+    private List<Edge> assign(List<Edge> edges) {
+        List<Integer> seekIndexes = edges.stream().map(edge -> edge.seek).distinct().collect(Collectors.toList());
+        List<Integer> offerIndexes = edges.stream().map(edge -> edge.offer).distinct().collect(Collectors.toList());
+
+        if (Math.max(seekIndexes.size(), offerIndexes.size()) > jHipsterProperties.getMatching().getBatch().getMaxAssignmentSize()) {
+            return assignGreedily(edges);
+        }
+
+        boolean seeksAsRows = seekIndexes.size() <= offerIndexes.size();
+        List<Integer> rows = seeksAsRows ? seekIndexes : offerIndexes;
+        List<Integer> columns = seeksAsRows ? offerIndexes : seekIndexes;
+        Map<Integer, Integer> rowByIndex = new HashMap<>();
+        Map<Integer, Integer> columnByIndex = new HashMap<>();
+        for (int i = 0; i < rows.size(); i++) {
+            rowByIndex.put(rows.get(i), i);
+        }
+        for (int i = 0; i < columns.size(); i++) {
+            columnByIndex.put(columns.get(i), i);
+        }
+
+        // missing edges cost nothing and mean "not matched", real edges are shifted below zero
+        double offset = MatchingService.MAX_MATCH_DISTANCE + 1;
+        double[][] cost = new double[rows.size()][columns.size()];
+        Edge[][] edgeAt = new Edge[rows.size()][columns.size()];
+        for (Edge edge : edges) {
+            int row = rowByIndex.get(seeksAsRows ? edge.seek : edge.offer);
+            int column = columnByIndex.get(seeksAsRows ? edge.offer : edge.seek);
+            cost[row][column] = edge.score - offset;
+            edgeAt[row][column] = edge;
+        }
+
+        int[] assignment = MinCostAssignment.solve(cost);
+        List<Edge> result = new ArrayList<>();
+        for (int row = 0; row < assignment.length; row++) {
+            Edge edge = edgeAt[row][assignment[row]];
+            if (edge != null) {
+                result.add(edge);
+            }
+        }
+        return result;
+    }
+
+    private List<Edge> assignGreedily(List<Edge> edges) {
+        List<Edge> sorted = new ArrayList<>(edges);
+        sorted.sort(Comparator.comparingDouble(edge -> edge.score));
+
+        Set<Integer> matchedSeeks = new HashSet<>();
+        Set<Integer> matchedOffers = new HashSet<>();
+        List<Edge> result = new ArrayList<>();
+        for (Edge edge : sorted) {
+            if (!matchedSeeks.contains(edge.seek) && !matchedOffers.contains(edge.offer)) {
+                matchedSeeks.add(edge.seek);
+                matchedOffers.add(edge.offer);
+                result.add(edge);
+            }
+        }
+        return result;
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        parent[find(parent, a)] = find(parent, b);
+    }
+
+    private static Long find(Map<Long, Long> parent, Long disasterId) {
+        Long root = disasterId;
+        while (!Objects.equals(parent.get(root), root)) {
+            root = parent.get(root);
+        }
+        return root;
+    }
+
+    private static void union(Map<Long, Long> parent, Long a, Long b) {
+        parent.put(find(parent, a), find(parent, b));
+    }
+
+    /**
+     * the state of an open action needed for matching, detached from the persistence context
+     */
+    private static class Candidate {
+
+        private final Long id;
+
+        private final ActionType actionType;
+
+        private final float lat;
+
+        private final float lon;
+
+        private final Long userId;
+
+        private final ZonedDateTime createdDate;
+
+        private final Set<Long> objectIds = new HashSet<>();
+
+        private final Set<Long> rejectedIds = new HashSet<>();
+
+        Candidate(Action action) {
+            this.id = action.getId();
+            this.actionType = action.getActionType();
+            this.lat = action.getLat();
+            this.lon = action.getLon();
+            this.userId = action.getUser() == null ? null : action.getUser().getId();
+            this.createdDate = action.getCreatedDate();
+            action.getActionObjects().forEach(actionObject -> objectIds.add(actionObject.getId()));
+            action.getRejectedMatches().forEach(rejected -> rejectedIds.add(rejected.getId()));
+        }
+    }
+
+    private static class Edge {
+
+        private final int seek;
+
+        private final int offer;
+
+        private final float score;
+
+        Edge(int seek, int offer, float score) {
+            this.seek = seek;
+            this.offer = offer;
+            this.score = score;
+        }
+    }
+}
@@ -1,14 +1,16 @@
 package de.extremeenvironment.disasterservice.service;
 
 
-import de.extremeenvironment.disasterservice.client.Conversation;
-import de.extremeenvironment.disasterservice.client.MessageClient;
 import de.extremeenvironment.disasterservice.domain.Action;
 import de.extremeenvironment.disasterservice.domain.Disaster;
+import de.extremeenvironment.disasterservice.repository.AreaRepository;
 import de.extremeenvironment.disasterservice.repository.DisasterRepository;
+import de.extremeenvironment.disasterservice.service.index.AreaIndex;
+import de.extremeenvironment.disasterservice.service.index.DisasterGridIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import javax.inject.Inject;
 import java.time.Duration;
@@ -21,39 +23,48 @@ import java.util.List;
 @Service
 public class DisasterService {
 
-    private static final int MAX_TRIES = 10;
+    private static final float MAX_DISASTER_DISTANCE = 15000; // meters
+
     private final Logger log = LoggerFactory.getLogger(DisasterService.class);
 
     private DisasterRepository disasterRepository;
 
-    private MessageClient messageClient;
+    private OutboxService outboxService;
+
+    private DisasterGridIndex disasterGridIndex;
+
+    private AreaRepository areaRepository;
+
+    private AreaIndex areaIndex;
+
+    private EventBroadcaster eventBroadcaster;
 
     @Inject
-    public DisasterService(DisasterRepository disasterRepository, MessageClient messageClient) {
+    public DisasterService(DisasterRepository disasterRepository, OutboxService outboxService, DisasterGridIndex disasterGridIndex,
+                           AreaRepository areaRepository, AreaIndex areaIndex, EventBroadcaster eventBroadcaster) {
         this.disasterRepository = disasterRepository;
-        this.messageClient = messageClient;
+        this.outboxService = outboxService;
+        this.disasterGridIndex = disasterGridIndex;
+        this.areaRepository = areaRepository;
+        this.areaIndex = areaIndex;
+        this.eventBroadcaster = eventBroadcaster;
     }
 
+    @Transactional
     public Disaster createDisaster(Disaster disaster) {
+        if (disaster.getArea() == null && disaster.getLat() != null && disaster.getLon() != null) {
+            // the most specific area covering the disaster
+            areaIndex.findContaining(disaster.getLat(), disaster.getLon()).stream()
+                .findFirst()
+                .map(areaRepository::findOne)
+                .ifPresent(disaster::setArea);
+        }
         disaster = disasterRepository.save(disaster);
 
-        int counter = 0;
-        while (counter++ < MAX_TRIES) {
-            try {
-                Conversation conversation = messageClient.addConversation(Conversation.forDisaster(disaster));
-                disaster.setConversationId(conversation.getId());
-                disasterRepository.save(disaster);
-            } catch (Exception e) {
-                if (counter + 1 == MAX_TRIES) {
-                    log.error("could not create conversation, deleting disaster: {}:{}",
-                        e.getClass().toString(),
-                        e.getMessage());
-                    disasterRepository.delete(disaster);
-                    throw e;
-                }
-            }
-        }
+        // the conversation is created in the background, see OutboxService
+        outboxService.createConversation(disaster);
 
+        eventBroadcaster.publishDisaster(disaster);
         log.debug("Created Information for Disaster: {}", disaster);
 
         return disaster;
@@ -69,7 +80,7 @@ public class DisasterService {
 
     /**
      * @param disaster
-     * @return the nearest disaster of an action location, in a radius of 15000km
+     * @return the nearest disaster of an action location, in a radius of 15km
      */
     public Disaster getDisasterForDisaster(Disaster disaster) {
         return getDisasterByPosition(disaster.getLon(), disaster.getLat());
@@ -79,26 +90,35 @@ public class DisasterService {
         return getDisasterByPosition(action.getLon(), action.getLat());
     }
 
+    /**
+     * @param lat the latitude of the position
+     * @param lon the longitude of the position
+     * @return the nearest disaster of the position, or a new one at the position if there is none
+     */
+    @Transactional
+    public Disaster findOrCreateDisaster(float lat, float lon) {
+        Disaster nearestDisaster = getDisasterByPosition(lon, lat);
+        if (nearestDisaster != null) {
+            return nearestDisaster;
+        }
+
+        Disaster disaster = new Disaster();
+        disaster.setLat(lat);
+        disaster.setLon(lon);
+        return createDisaster(disaster);
+    }
+
+    /**
+     * @param lon the longitude of the position
+     * @param lat the latitude of the position
+     * @return the nearest disaster which is not expired, in a radius of 15km, or null if there is none
+     */
     public Disaster getDisasterByPosition(float lon, float lat) {
-        float distance = 15000;
-        Disaster disasterReturn = null;
-
-        List<Disaster> disasterList = disasterRepository.findAll();
-
-        for (int i = 0; i < disasterList.size(); i++) {
-            Disaster disaster = disasterList.get(i);
-            Float disasterLon = disaster.getLon();
-            Float disasterLat = disaster.getLat();
-            float distanceBetween = getDistance(lat, lon, disasterLat, disasterLon);
-            if (distanceBetween < 15000) {
-                if (distanceBetween < distance) {
-                    distance = distanceBetween;
-                    disasterReturn = disaster;
-                }
-            }
+        // pending changes have to reach the index before it is queried
+        disasterRepository.flush();
 
-        }
-        return disasterReturn;
+        Long disasterId = disasterGridIndex.findNearest(lat, lon, MAX_DISASTER_DISTANCE);
+        return disasterId == null ? null : disasterRepository.findOne(disasterId);
     }
 
 
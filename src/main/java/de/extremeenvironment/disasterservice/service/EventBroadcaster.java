@@ -0,0 +1,252 @@
+package de.extremeenvironment.disasterservice.service;
+
+import de.extremeenvironment.disasterservice.config.JHipsterProperties;
+import de.extremeenvironment.disasterservice.domain.Action;
+import de.extremeenvironment.disasterservice.domain.Disaster;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes matches, new disasters and likes to subscribed clients as server-sent events.
+ *
+ * <p>
+ * Publishing only appends the event to a bounded buffer of {@code jhipster.events.bufferSize} events per subscriber,
+ * the events are sent by the event executor, so a slow client never blocks the publishing thread. Events published
+ * within a transaction are dispatched after its commit. A subscriber whose buffer is full is disconnected, the client
+ * is expected to reconnect and catch up with the delta sync.
+ * </p>
+ */
+@Service
+public class EventBroadcaster {
+
+    public static final String MATCH = "match";
+
+    public static final String MATCH_REJECTED = "matchRejected";
+
+    public static final String DISASTER = "disaster";
+
+    public static final String LIKES = "likes";
+
+    private static final Event HEARTBEAT = new Event(null, null, null);
+
+    private final Logger log = LoggerFactory.getLogger(EventBroadcaster.class);
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private Executor eventExecutor;
+
+    private JHipsterProperties jHipsterProperties;
+
+    @Inject
+    public EventBroadcaster(@Named("eventExecutor") Executor eventExecutor, JHipsterProperties jHipsterProperties) {
+        this.eventExecutor = eventExecutor;
+        this.jHipsterProperties = jHipsterProperties;
+    }
+
+    /**
+     * subscribes a user to all events for everyone and the events for the user
+     *
+     * @param userId the id of the user
+     * @return the emitter to return from the request
+     */
+    public SseEmitter subscribe(long userId) {
+        SseEmitter emitter = new SseEmitter(jHipsterProperties.getEvents().getTimeoutMillis());
+        Subscriber subscriber = new Subscriber(userId, emitter, jHipsterProperties.getEvents().getBufferSize());
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        log.debug("User {} subscribed, {} subscribers", userId, subscribers.size());
+        return emitter;
+    }
+
+    /**
+     * @return the number of connected subscribers
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * tells the users of two matched actions about their match
+     */
+    public void publishMatch(Action action, Action match) {
+        publishToUser(action, MATCH, actionData(action.getId(), "matchId", match.getId()));
+        publishToUser(match, MATCH, actionData(match.getId(), "matchId", action.getId()));
+    }
+
+    /**
+     * tells the users of two actions that their match has been rejected
+     */
+    public void publishMatchRejected(Action action, Action match) {
+        publishToUser(action, MATCH_REJECTED, actionData(action.getId(), "matchId", match.getId()));
+        publishToUser(match, MATCH_REJECTED, actionData(match.getId(), "matchId", action.getId()));
+    }
+
+    /**
+     * tells everyone about a new disaster
+     */
+    public void publishDisaster(Disaster disaster) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("id", disaster.getId());
+        data.put("lat", disaster.getLat());
+        data.put("lon", disaster.getLon());
+        data.put("title", disaster.getTitle());
+        publish(new Event(null, DISASTER, data));
+    }
+
+    /**
+     * tells everyone about new likes of actions with a single event, so a flush of many actions takes one place in
+     * the buffers of the subscribers
+     *
+     * @param added the number of likes added since the last event by the id of the action
+     */
+    public void publishLikes(Map<Long, Long> added) {
+        if (added.isEmpty()) {
+            return;
+        }
+        List<Map<String, Object>> data = new ArrayList<>(added.size());
+        added.forEach((actionId, likes) -> data.add(actionData(actionId, "added", likes)));
+        publish(new Event(null, LIKES, data));
+    }
+
+    /**
+     * keeps idle connections open and detects disconnected clients
+     */
+    @Scheduled(fixedDelayString = "${jhipster.events.heartbeatMillis:30000}")
+    public void heartbeat() {
+        dispatch(HEARTBEAT);
+    }
+
+    private void publishToUser(Action action, String name, Map<String, Object> data) {
+        if (action.getUser() != null) {
+            publish(new Event(action.getUser().getUserId(), name, data));
+        }
+    }
+
+    private void publish(Event event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    dispatch(event);
+                }
+            });
+        } else {
+            dispatch(event);
+        }
+    }
+
+    private void dispatch(Event event) {
+        for (Subscriber subscriber : subscribers) {
+            if (event.userId != null && event.userId != subscriber.userId) {
+                continue;
+            }
+            if (!subscriber.buffer.offer(event)) {
+                log.debug("Disconnecting user {}, the event buffer is full", subscriber.userId);
+                disconnect(subscriber);
+                continue;
+            }
+            schedule(subscriber);
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.sending.compareAndSet(false, true)) {
+            try {
+                eventExecutor.execute(() -> send(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.sending.set(false);
+                disconnect(subscriber);
+            }
+        }
+    }
+
+    private void send(Subscriber subscriber) {
+        try {
+            Event event;
+            while ((event = subscriber.buffer.poll()) != null) {
+                if (event == HEARTBEAT) {
+                    subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+                } else {
+                    subscriber.emitter.send(SseEmitter.event().name(event.name).data(event.data));
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Could not send event to user {}: {}", subscriber.userId, e.getMessage());
+            disconnect(subscriber);
+            return;
+        } finally {
+            subscriber.sending.set(false);
+        }
+
+        // an event may have been added after the last poll
+        if (!subscriber.buffer.isEmpty()) {
+            schedule(subscriber);
+        }
+    }
+
+    private void disconnect(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            try {
+                subscriber.emitter.complete();
+            } catch (IllegalStateException e) {
+                log.debug("Emitter of user {} is already completed", subscriber.userId);
+            }
+        }
+    }
+
+    private static Map<String, Object> actionData(Long actionId, String key, Object value) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("actionId", actionId);
+        data.put(key, value);
+        return data;
+    }
+
+    /**
+     * an event for one user or, without a user id, for everyone
+     */
+    private static class Event {
+
+        private final Long userId;
+
+        private final String name;
+
+        private final Object data;
+
+        Event(Long userId, String name, Object data) {
+            this.userId = userId;
+            this.name = name;
+            this.data = data;
+        }
+    }
+
+    private static class Subscriber {
+
+        private final long userId;
+
+        private final SseEmitter emitter;
+
+        private final BlockingQueue<Event> buffer;
+
+        // at most one thread sends to an emitter at a time
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        Subscriber(long userId, SseEmitter emitter, int bufferSize) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+}
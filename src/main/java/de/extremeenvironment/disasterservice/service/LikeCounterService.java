@@ -0,0 +1,194 @@
+package de.extremeenvironment.disasterservice.service;
+
+import de.extremeenvironment.disasterservice.config.JHipsterProperties;
+import de.extremeenvironment.disasterservice.domain.Action;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Counts the likes of actions in memory and writes them to the database in batches.
+ *
+ * <p>
+ * Likes are added to a {@link LongAdder} per action and flushed every {@code jhipster.likes.flushIntervalMillis}
+ * as relative updates of the column "like_counter", so concurrent likes are never lost. Likes which are not flushed
+ * yet are added when a like counter is read. The column is not updatable through the entity, so saving an action
+ * can't overwrite the flushed counter. A flush also sets the last modified date, so the delta sync picks up new
+ * likes, and publishes the added likes of all actions as one event.
+ * </p>
+ *
+ * <p>
+ * The likes of the last flush are kept until the next one. A row whose last modified date is not before the date
+ * the flush wrote has been read after its commit and already contains them, so they are only added to older rows.
+ * This way a like is counted exactly once while the flush commits. The flush never moves a last modified date
+ * back, otherwise the sync cursor could pass over a change committed after the flush started.
+ * </p>
+ */
+@Service
+public class LikeCounterService {
+
+    private static final String UPDATE_SQL = "update action set like_counter = coalesce(like_counter, 0) + ?, last_modified_date = greatest(last_modified_date, ?) where id = ?";
+
+    private final Logger log = LoggerFactory.getLogger(LikeCounterService.class);
+
+    // likes and reads only hold the read lock, a flush swaps the maps under the write lock
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    private volatile Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+
+    // the likes of the last flush and the last modified date it wrote
+    private volatile Map<Long, LongAdder> flushed = Collections.emptyMap();
+
+    private volatile ZonedDateTime flushedDate;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate transactionTemplate;
+
+    private JHipsterProperties jHipsterProperties;
+
+    private EventBroadcaster eventBroadcaster;
+
+    @Inject
+    public LikeCounterService(DataSource dataSource, PlatformTransactionManager transactionManager,
+                              JHipsterProperties jHipsterProperties, EventBroadcaster eventBroadcaster) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jHipsterProperties = jHipsterProperties;
+        this.eventBroadcaster = eventBroadcaster;
+    }
+
+    /**
+     * adds a like to an action
+     *
+     * @param actionId the id of the action
+     */
+    public void like(Long actionId) {
+        swapLock.readLock().lock();
+        try {
+            pending.computeIfAbsent(actionId, id -> new LongAdder()).increment();
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param actionId         the id of the action
+     * @param lastModifiedDate the last modified date of the row the like counter has been read from
+     * @return the number of likes of the action which are not contained in that row
+     */
+    public long getPendingLikes(Long actionId, ZonedDateTime lastModifiedDate) {
+        swapLock.readLock().lock();
+        try {
+            long likes = sum(pending.get(actionId));
+            if (flushedDate == null || lastModifiedDate == null || lastModifiedDate.isBefore(flushedDate)) {
+                likes += sum(flushed.get(actionId));
+            }
+            return likes;
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * adds the likes which are not written to the database yet to the like counter of an action, the action should
+     * be detached, otherwise a later read in the same session adds them again
+     *
+     * @param action the action
+     * @return the action
+     */
+    public Action applyPendingLikes(Action action) {
+        long pendingLikes = getPendingLikes(action.getId(), action.getLastModifiedDate());
+        if (pendingLikes != 0) {
+            long likes = action.getLikeCounter() == null ? 0 : action.getLikeCounter();
+            action.setLikeCounter(likes + pendingLikes);
+        }
+        return action;
+    }
+
+    @Scheduled(initialDelayString = "${jhipster.likes.flushIntervalMillis:1000}",
+        fixedDelayString = "${jhipster.likes.flushIntervalMillis:1000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * writes all pending likes to the database
+     *
+     * @return the number of updated actions
+     */
+    public synchronized int flush() {
+        // millis survive the round trip through every database
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        Map<Long, LongAdder> swapped;
+        swapLock.writeLock().lock();
+        try {
+            if (pending.isEmpty()) {
+                return 0;
+            }
+            swapped = pending;
+            flushed = swapped;
+            flushedDate = ZonedDateTime.ofInstant(now, ZoneId.systemDefault());
+            pending = new ConcurrentHashMap<>();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+
+        List<Object[]> updates = new ArrayList<>(swapped.size());
+        swapped.forEach((actionId, likes) -> updates.add(new Object[]{likes.sum(), actionId}));
+
+        Timestamp timestamp = Timestamp.from(now);
+        try {
+            transactionTemplate.execute(status ->
+                jdbcTemplate.batchUpdate(UPDATE_SQL, updates, jHipsterProperties.getLikes().getBatchSize(),
+                    (ps, update) -> {
+                        ps.setLong(1, (Long) update[0]);
+                        ps.setTimestamp(2, timestamp);
+                        ps.setLong(3, (Long) update[1]);
+                    }));
+            log.debug("Flushed likes of {} actions", updates.size());
+            Map<Long, Long> added = new LinkedHashMap<>();
+            updates.forEach(update -> added.put((Long) update[1], (Long) update[0]));
+            eventBroadcaster.publishLikes(added);
+        } catch (RuntimeException e) {
+            log.warn("Could not flush likes of {} actions, retrying with the next flush", updates.size(), e);
+            swapLock.writeLock().lock();
+            try {
+                swapped.forEach((actionId, likes) ->
+                    pending.computeIfAbsent(actionId, id -> new LongAdder()).add(likes.sum()));
+                flushed = Collections.emptyMap();
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+            return 0;
+        }
+        return updates.size();
+    }
+
+    private static long sum(LongAdder adder) {
+        return adder == null ? 0 : adder.sum();
+    }
+}
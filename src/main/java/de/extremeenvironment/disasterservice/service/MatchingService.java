@@ -0,0 +1,340 @@
+package de.extremeenvironment.disasterservice.service;
+
+import de.extremeenvironment.disasterservice.config.JHipsterProperties;
+import de.extremeenvironment.disasterservice.domain.Action;
+import de.extremeenvironment.disasterservice.domain.enumeration.ActionType;
+import de.extremeenvironment.disasterservice.domain.enumeration.MatchStatus;
+import de.extremeenvironment.disasterservice.repository.ActionRepository;
+import de.extremeenvironment.disasterservice.service.index.ActionGridIndex;
+import de.extremeenvironment.disasterservice.service.index.ActionObjectIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Matches offers and seeks.
+ *
+ * <p>
+ * Saved actions are submitted to a bounded matching executor, so requests do not wait for the candidate search.
+ * The conversations of matches are opened through the {@link OutboxService}. The pending result of an action can be
+ * awaited with {@link #awaitMatch(Long, long)}. With {@code jhipster.matching.async} disabled the matching runs in the
+ * submitting thread, with {@code jhipster.matching.batch.enabled} it is left to the {@link BatchMatchingService}.
+ * Matching never runs on the request thread in async mode: while the queue is full, submitted actions are rejected
+ * and stay pending, they are submitted again every {@code jhipster.matching.retryIntervalMillis}.
+ * </p>
+ */
+@Service
+public class MatchingService {
+
+    public static final float MAX_MATCH_DISTANCE = 100_000F; // meters
+
+    private final Logger log = LoggerFactory.getLogger(MatchingService.class);
+
+    private final Map<Long, CompletableFuture<Action>> pendingMatches = new ConcurrentHashMap<>();
+
+    // matchings rejected by the full queue, sorted by action id
+    private final Map<Long, CompletableFuture<Action>> rejectedMatches = new ConcurrentSkipListMap<>();
+
+    private ActionRepository actionRepository;
+
+    private OutboxService outboxService;
+
+    private ActionGridIndex actionGridIndex;
+
+    private ActionObjectIndex actionObjectIndex;
+
+    private Executor matchingExecutor;
+
+    private TransactionTemplate transactionTemplate;
+
+    private JHipsterProperties jHipsterProperties;
+
+    private EventBroadcaster eventBroadcaster;
+
+    @Inject
+    public MatchingService(ActionRepository actionRepository, OutboxService outboxService,
+                           ActionGridIndex actionGridIndex, ActionObjectIndex actionObjectIndex,
+                           @Named("matchingExecutor") Executor matchingExecutor,
+                           PlatformTransactionManager transactionManager, JHipsterProperties jHipsterProperties,
+                           EventBroadcaster eventBroadcaster) {
+        this.actionRepository = actionRepository;
+        this.outboxService = outboxService;
+        this.actionGridIndex = actionGridIndex;
+        this.actionObjectIndex = actionObjectIndex;
+        this.matchingExecutor = matchingExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jHipsterProperties = jHipsterProperties;
+        this.eventBroadcaster = eventBroadcaster;
+    }
+
+    /**
+     * queues a saved action for matching. If a transaction is active, the action is queued after its commit.
+     *
+     * @param actionId the id of the action
+     * @return the status of the matching right after submitting
+     */
+    public MatchStatus submit(Long actionId) {
+        return submitAll(Collections.singletonList(actionId)).get(actionId);
+    }
+
+    /**
+     * queues saved actions for matching in a single pass in the order of their ids. Every action is matched in a
+     * transaction of its own, so a failing action leaves the others matched. If a transaction is active, the actions
+     * are queued after its commit.
+     *
+     * @param actionIds the ids of the actions
+     * @return the status of the matching of every action right after submitting
+     */
+    public Map<Long, MatchStatus> submitAll(Collection<Long> actionIds) {
+        Map<Long, CompletableFuture<Action>> futures = new TreeMap<>();
+        for (Long actionId : actionIds) {
+            CompletableFuture<Action> future = new CompletableFuture<>();
+            pendingMatches.put(actionId, future);
+            futures.put(actionId, future);
+        }
+
+        if (jHipsterProperties.getMatching().getBatch().isEnabled()) {
+            // picked up by the next run of the BatchMatchingService
+            return getMatchStatus(futures);
+        } else if (!jHipsterProperties.getMatching().isAsync()) {
+            match(futures);
+        } else if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    execute(futures);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        futures.forEach((actionId, future) -> {
+                            pendingMatches.remove(actionId, future);
+                            future.cancel(false);
+                        });
+                    }
+                }
+            });
+        } else {
+            execute(futures);
+        }
+
+        return getMatchStatus(futures);
+    }
+
+    /**
+     * submits the matchings rejected by the full queue again, those rejected once more are kept for the next run
+     */
+    @Scheduled(initialDelayString = "${jhipster.matching.retryIntervalMillis:1000}",
+        fixedDelayString = "${jhipster.matching.retryIntervalMillis:1000}")
+    public void resubmitRejected() {
+        Map<Long, CompletableFuture<Action>> futures = new TreeMap<>();
+        rejectedMatches.forEach((actionId, future) -> {
+            if (rejectedMatches.remove(actionId, future)) {
+                futures.put(actionId, future);
+            }
+        });
+        if (!futures.isEmpty()) {
+            log.debug("Submitting rejected matchings of actions {} again", futures.keySet());
+            execute(futures);
+        }
+    }
+
+    /**
+     * waits for a pending matching of an action to finish
+     *
+     * @param actionId      the id of the action
+     * @param timeoutMillis how long to wait at most, capped by {@code jhipster.matching.maxAwaitMillis}
+     * @return PENDING if the matching did not finish in time, otherwise the current status of the action
+     * @throws InterruptedException if the waiting thread was interrupted
+     */
+    public MatchStatus awaitMatch(Long actionId, long timeoutMillis) throws InterruptedException {
+        CompletableFuture<Action> future = pendingMatches.get(actionId);
+        if (future != null) {
+            try {
+                future.get(Math.min(timeoutMillis, jHipsterProperties.getMatching().getMaxAwaitMillis()), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                return MatchStatus.PENDING;
+            } catch (ExecutionException | CancellationException e) {
+                log.debug("Matching of action {} failed: {}", actionId, e.getMessage());
+            }
+        }
+
+        return actionRepository.findActionById(actionId)
+            .map(action -> action.getMatch() != null ? MatchStatus.MATCHED : MatchStatus.UNMATCHED)
+            .orElse(MatchStatus.UNMATCHED);
+    }
+
+    /**
+     * removes a match from actions and queues both of them for matching again
+     *
+     * @param a the action the match shall be removed from, it is read again within the transaction
+     * @return the saved action
+     */
+    public Action rejectMatch(Action a) {
+        Action[] rejected = transactionTemplate.execute(status -> {
+            Action action = actionRepository.findOneWithEagerRelationships(a.getId());
+            Action otherAction = action.getMatch();
+            otherAction.addRejectedMatch(action);
+            otherAction.setMatch(null);
+            otherAction = actionRepository.save(otherAction);
+
+            action.addRejectedMatch(otherAction);
+            action.setMatch(null);
+            eventBroadcaster.publishMatchRejected(action, otherAction);
+            return new Action[]{actionRepository.save(action), otherAction};
+        });
+
+        submit(rejected[1].getId());
+        submit(rejected[0].getId());
+
+        return rejected[0];
+    }
+
+    /**
+     * checks whether a match is available for a specific action
+     *
+     * @param a the action for which a match shall be found
+     * @return the action
+     */
+    public Action matchActions(Action a) {
+        if (a.getMatch() != null || a.getActionType() == ActionType.KNOWLEDGE || (a.isIsExpired())) {
+            return a;
+        }
+
+        // pending changes have to reach the indexes before they are queried
+        actionRepository.flush();
+
+        Set<Long> candidateIds = actionObjectIndex.findCandidates(
+            ActionObjectIndex.getMatchingType(a.getActionType()), a.getActionObjects());
+        if (!candidateIds.isEmpty()) {
+            candidateIds.retainAll(actionGridIndex.findCandidates(a.getLat(), a.getLon(), MAX_MATCH_DISTANCE));
+        }
+        candidateIds.remove(a.getId());
+
+        Set<Action> possibleMatches = new HashSet<>(actionRepository.findAll(candidateIds));
+
+        possibleMatches.remove(a);
+        possibleMatches.removeAll(a.getRejectedMatches());
+
+        Action bestMatch = null;
+        Float bestMatchDist = Float.MAX_VALUE;
+
+        for (Action act : possibleMatches) {
+            if (act.getMatch() != null || act.isIsExpired()) {
+                continue;
+            }
+
+            Float matchDist = DisasterService.getDistance(a.getLat(), a.getLon(), act.getLat(), act.getLon(), (a.getActionType().equals(ActionType.SEEK) ? a.getCreatedDate() : act.getCreatedDate()));
+
+            if (!Collections.disjoint(a.getActionObjects(), act.getActionObjects()) && matchDist <= MAX_MATCH_DISTANCE && matchDist < bestMatchDist && a.getActionType() != act.getActionType() && a.getUser() != act.getUser()) { //check if a is in act's rejectedMatches shouldnt be necessary
+                bestMatchDist = matchDist;
+                bestMatch = act;
+            }
+        }
+
+        a.setMatch(bestMatch);
+        actionRepository.save(a);
+
+        if (bestMatch != null) {
+            bestMatch.setMatch(a);
+            actionRepository.save(bestMatch);
+            eventBroadcaster.publishMatch(a, bestMatch);
+
+            createConversation(a, bestMatch);
+        }
+
+        return a;
+    }
+
+    /**
+     * queues a conversation between the users of two matched actions, in the transaction of the match
+     *
+     * @param a     the action
+     * @param match the action it has been matched with
+     */
+    void createConversation(Action a, Action match) {
+        outboxService.createConversation(a, match);
+    }
+
+    /**
+     * @return the ids of all actions whose matching has been submitted but not finished yet
+     */
+    Set<Long> getPendingActionIds() {
+        return new HashSet<>(pendingMatches.keySet());
+    }
+
+    /**
+     * finishes the pending matching of an action which has been matched outside of this service
+     *
+     * @param actionId the id of the action
+     * @param match    the matched action, null if no match has been found
+     */
+    void completePending(Long actionId, Action match) {
+        CompletableFuture<Action> future = pendingMatches.remove(actionId);
+        if (future != null) {
+            future.complete(match);
+        }
+    }
+
+    private void execute(Map<Long, CompletableFuture<Action>> futures) {
+        try {
+            matchingExecutor.execute(() -> match(futures));
+        } catch (RejectedExecutionException e) {
+            log.warn("Matching queue is full, actions {} are submitted again later", futures.keySet());
+            rejectedMatches.putAll(futures);
+        }
+    }
+
+    private void match(Map<Long, CompletableFuture<Action>> futures) {
+        RuntimeException failure = null;
+        // the futures are sorted by action id
+        for (Map.Entry<Long, CompletableFuture<Action>> entry : futures.entrySet()) {
+            Long actionId = entry.getKey();
+            try {
+                Action match = transactionTemplate.execute(status -> actionRepository.findActionById(actionId)
+                    .map(action -> matchActions(action).getMatch())
+                    .orElse(null));
+                entry.getValue().complete(match);
+            } catch (RuntimeException e) {
+                entry.getValue().completeExceptionally(e);
+                log.error("Matching of action {} failed", actionId, e);
+                if (failure == null) {
+                    failure = e;
+                }
+            } finally {
+                pendingMatches.remove(actionId, entry.getValue());
+            }
+        }
+
+        if (failure != null && !jHipsterProperties.getMatching().isAsync()) {
+            throw failure;
+        }
+    }
+
+    private Map<Long, MatchStatus> getMatchStatus(Map<Long, CompletableFuture<Action>> futures) {
+        Map<Long, MatchStatus> statusById = new LinkedHashMap<>();
+        futures.forEach((actionId, future) -> statusById.put(actionId, getMatchStatus(future)));
+        return statusById;
+    }
+
+    private MatchStatus getMatchStatus(CompletableFuture<Action> future) {
+        if (!future.isDone()) {
+            return MatchStatus.PENDING;
+        }
+        if (future.isCompletedExceptionally()) {
+            return MatchStatus.UNMATCHED;
+        }
+        return future.getNow(null) != null ? MatchStatus.MATCHED : MatchStatus.UNMATCHED;
+    }
+}
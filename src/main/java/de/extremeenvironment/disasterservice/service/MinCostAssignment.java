@@ -0,0 +1,86 @@
+package de.extremeenvironment.disasterservice.service;
+
+import java.util.Arrays;
+
+/**
+ * Solves the rectangular assignment problem with the Hungarian method in O(n² m).
+ */
+final class MinCostAssignment {
+
+    private MinCostAssignment() {
+    }
+
+    /**
+     * assigns every row to a distinct column, so that the sum of the costs is minimal
+     *
+     * @param cost the cost matrix, with at most as many rows as columns
+     * @return the column assigned to each row
+     */
+    static int[] solve(double[][] cost) {
+        int n = cost.length;
+        int m = n == 0 ? 0 : cost[0].length;
+        if (n > m) {
+            throw new IllegalArgumentException("more rows than columns: " + n + " > " + m);
+        }
+
+        // 1-based potentials and assignment, column 0 is a virtual column
+        double[] u = new double[n + 1];
+        double[] v = new double[m + 1];
+        int[] rowOfColumn = new int[m + 1];
+        int[] way = new int[m + 1];
+        double[] minv = new double[m + 1];
+        boolean[] used = new boolean[m + 1];
+
+        for (int row = 1; row <= n; row++) {
+            rowOfColumn[0] = row;
+            int column = 0;
+            Arrays.fill(minv, Double.POSITIVE_INFINITY);
+            Arrays.fill(used, false);
+
+            do {
+                used[column] = true;
+                int currentRow = rowOfColumn[column];
+                double delta = Double.POSITIVE_INFINITY;
+                int nextColumn = 0;
+
+                for (int j = 1; j <= m; j++) {
+                    if (!used[j]) {
+                        double reduced = cost[currentRow - 1][j - 1] - u[currentRow] - v[j];
+                        if (reduced < minv[j]) {
+                            minv[j] = reduced;
+                            way[j] = column;
+                        }
+                        if (minv[j] < delta) {
+                            delta = minv[j];
+                            nextColumn = j;
+                        }
+                    }
+                }
+
+                for (int j = 0; j <= m; j++) {
+                    if (used[j]) {
+                        u[rowOfColumn[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minv[j] -= delta;
+                    }
+                }
+                column = nextColumn;
+            } while (rowOfColumn[column] != 0);
+
+            do {
+                int previousColumn = way[column];
+                rowOfColumn[column] = rowOfColumn[previousColumn];
+                column = previousColumn;
+            } while (column != 0);
+        }
+
+        int[] columnOfRow = new int[n];
+        for (int j = 1; j <= m; j++) {
+            if (rowOfColumn[j] != 0) {
+                columnOfRow[rowOfColumn[j] - 1] = j - 1;
+            }
+        }
+        return columnOfRow;
+    }
+}
@@ -0,0 +1,309 @@
+package de.extremeenvironment.disasterservice.service;
+
+import de.extremeenvironment.disasterservice.client.Conversation;
+import de.extremeenvironment.disasterservice.client.MessageClient;
+import de.extremeenvironment.disasterservice.config.JHipsterProperties;
+import de.extremeenvironment.disasterservice.domain.Action;
+import de.extremeenvironment.disasterservice.domain.Disaster;
+import de.extremeenvironment.disasterservice.domain.OutboxMessage;
+import de.extremeenvironment.disasterservice.domain.User;
+import de.extremeenvironment.disasterservice.domain.enumeration.OutboxMessageType;
+import de.extremeenvironment.disasterservice.repository.ActionRepository;
+import de.extremeenvironment.disasterservice.repository.DisasterRepository;
+import de.extremeenvironment.disasterservice.repository.OutboxMessageRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.inject.Inject;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Delivers the calls to the message service in the background.
+ *
+ * <p>
+ * Callers write an {@link OutboxMessage} in their own transaction, so the message exists exactly when the disaster
+ * or match does and requests never wait for the message service. Every {@code jhipster.outbox.intervalMillis} up to
+ * {@code jhipster.outbox.batchSize} due messages are delivered in the order they were written, each in its own
+ * transaction. A failed message is retried with exponential backoff and parked as a dead letter after
+ * {@code jhipster.outbox.maxAttempts} attempts, until it is replayed with {@link #replay(Long)}. Delivery is at least
+ * once, a crash between the call and the commit repeats the call.
+ * </p>
+ *
+ * <p>
+ * Before a message is delivered it is claimed in a transaction of its own, which moves its next attempt
+ * {@code jhipster.outbox.leaseMillis} ahead only if it is still due. Of several instances dispatching at the same time
+ * only one claims a message, the others skip it. A message whose instance dies is due again when the lease ends.
+ * Adding a member to a conversation which is still waiting in the outbox is not a failure, the message is deferred
+ * without counting an attempt. If the conversation is a dead letter, the member is parked as well and replayed with it.
+ * The conversation of a match adds its members with messages of their own once it has been created.
+ * </p>
+ */
+@Service
+public class OutboxService {
+
+    private static final int MAX_ERROR_LENGTH = 255;
+
+    private enum Delivery {
+        DELIVERED, DEFERRED, PARKED
+    }
+
+    private final Logger log = LoggerFactory.getLogger(OutboxService.class);
+
+    private OutboxMessageRepository outboxMessageRepository;
+
+    private DisasterRepository disasterRepository;
+
+    private ActionRepository actionRepository;
+
+    private MessageClient messageClient;
+
+    private TransactionTemplate transactionTemplate;
+
+    private JHipsterProperties jHipsterProperties;
+
+    @Inject
+    public OutboxService(OutboxMessageRepository outboxMessageRepository, DisasterRepository disasterRepository,
+                         ActionRepository actionRepository, MessageClient messageClient,
+                         PlatformTransactionManager transactionManager, JHipsterProperties jHipsterProperties) {
+        this.outboxMessageRepository = outboxMessageRepository;
+        this.disasterRepository = disasterRepository;
+        this.actionRepository = actionRepository;
+        this.messageClient = messageClient;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jHipsterProperties = jHipsterProperties;
+    }
+
+    /**
+     * queues the creation of the public conversation of a saved disaster
+     *
+     * @param disaster the disaster
+     */
+    public void createConversation(Disaster disaster) {
+        outboxMessageRepository.save(new OutboxMessage(OutboxMessageType.DISASTER_CONVERSATION, disaster.getId(), null));
+    }
+
+    /**
+     * queues adding a user to the public conversation of a disaster, which may not exist yet
+     *
+     * @param user     the user
+     * @param disaster the disaster
+     */
+    public void addMember(User user, Disaster disaster) {
+        outboxMessageRepository.save(new OutboxMessage(OutboxMessageType.ADD_MEMBER, disaster.getId(), user.getUserId()));
+    }
+
+    /**
+     * queues the creation of the conversation of two matched actions, their users are added once it exists
+     *
+     * @param action the action
+     * @param match  the action it has been matched with
+     */
+    public void createConversation(Action action, Action match) {
+        OutboxMessage message = new OutboxMessage(OutboxMessageType.MATCH_CONVERSATION, null, null);
+        message.setActionId(match.getId());
+        outboxMessageRepository.save(message);
+    }
+
+    /**
+     * @return the messages which failed too often, in the order they were written
+     */
+    public List<OutboxMessage> getDeadLetters() {
+        return outboxMessageRepository.findByDeadLetterTrueOrderById();
+    }
+
+    /**
+     * makes a dead letter due again with a fresh count of attempts. The creation of the conversation of a disaster
+     * is replayed together with the members parked behind it.
+     *
+     * @param id the id of the message
+     * @return false if there is no dead letter with the id
+     */
+    public boolean replay(Long id) {
+        return transactionTemplate.execute(status -> {
+            OutboxMessage message = outboxMessageRepository.findOne(id);
+            if (message == null || !message.isDeadLetter()) {
+                return false;
+            }
+            revive(message);
+            if (message.getMessageType() == OutboxMessageType.DISASTER_CONVERSATION) {
+                outboxMessageRepository.findByDisasterId(message.getDisasterId()).stream()
+                    .filter(member -> member.isDeadLetter() && member.getMessageType() == OutboxMessageType.ADD_MEMBER)
+                    .forEach(this::revive);
+            }
+            log.info("Replaying {}", message);
+            return true;
+        });
+    }
+
+    @Scheduled(initialDelayString = "${jhipster.outbox.intervalMillis:1000}",
+        fixedDelayString = "${jhipster.outbox.intervalMillis:1000}")
+    public void scheduledDispatch() {
+        dispatch();
+    }
+
+    /**
+     * delivers the due messages
+     *
+     * @return the number of delivered messages
+     */
+    public synchronized int dispatch() {
+        // read from the primary database, a replica may still return delivered messages
+        List<OutboxMessage> due = transactionTemplate.execute(status -> outboxMessageRepository.findDue(ZonedDateTime.now(),
+            new PageRequest(0, jHipsterProperties.getOutbox().getBatchSize())));
+
+        int delivered = 0;
+        for (OutboxMessage message : due) {
+            if (!claim(message)) {
+                log.debug("Skipping {}, another instance claimed it", message);
+                continue;
+            }
+            try {
+                Delivery delivery = transactionTemplate.execute(status -> {
+                    Delivery result = deliver(message);
+                    if (result == Delivery.DELIVERED) {
+                        outboxMessageRepository.delete(message.getId());
+                    }
+                    return result;
+                });
+                if (delivery == Delivery.DELIVERED) {
+                    delivered++;
+                } else if (delivery == Delivery.DEFERRED) {
+                    defer(message);
+                } else {
+                    park(message, message.getAttempts(), "The conversation of disaster " + message.getDisasterId() + " is a dead letter");
+                }
+            } catch (RuntimeException e) {
+                postpone(message, e);
+            }
+        }
+
+        if (!due.isEmpty()) {
+            log.debug("Delivered {} of {} outbox messages", delivered, due.size());
+        }
+        return delivered;
+    }
+
+    private boolean claim(OutboxMessage message) {
+        ZonedDateTime now = ZonedDateTime.now();
+        ZonedDateTime leaseEnd = now.plus(jHipsterProperties.getOutbox().getLeaseMillis(), ChronoUnit.MILLIS);
+        return transactionTemplate.execute(status -> outboxMessageRepository.claim(message.getId(), now, leaseEnd) == 1);
+    }
+
+    private Delivery deliver(OutboxMessage message) {
+        switch (message.getMessageType()) {
+            case DISASTER_CONVERSATION:
+                return createDisasterConversation(message);
+            case MATCH_CONVERSATION:
+                return createMatchConversation(message);
+            case ADD_MEMBER:
+                return addMember(message);
+            default:
+                throw new IllegalArgumentException("Unknown message type " + message.getMessageType());
+        }
+    }
+
+    private Delivery createDisasterConversation(OutboxMessage message) {
+        Disaster disaster = disasterRepository.findOne(message.getDisasterId());
+        if (disaster == null) {
+            log.debug("Dropping {}, the disaster has been deleted", message);
+        } else if (disaster.getConversationId() == null) {
+            Conversation conversation = messageClient.addConversation(Conversation.forDisaster(disaster));
+            disaster.setConversationId(conversation.getId());
+            disasterRepository.save(disaster);
+        }
+        return Delivery.DELIVERED;
+    }
+
+    private Delivery createMatchConversation(OutboxMessage message) {
+        Action match = actionRepository.findOne(message.getActionId());
+        if (match == null || match.getMatch() == null) {
+            log.debug("Dropping {}, the match has been removed", message);
+            return Delivery.DELIVERED;
+        }
+
+        Conversation conversation = messageClient.addConversation(
+            new Conversation(null, true, match.getDescription() + " Conversation", "match", match.getId())
+        );
+        for (Action action : new Action[]{match, match.getMatch()}) {
+            OutboxMessage addMember = new OutboxMessage(OutboxMessageType.ADD_MEMBER, null, action.getUser().getUserId());
+            addMember.setConversationId(conversation.getId());
+            outboxMessageRepository.save(addMember);
+        }
+        return Delivery.DELIVERED;
+    }
+
+    private Delivery addMember(OutboxMessage message) {
+        if (message.getConversationId() != null) {
+            messageClient.addMember(new User(message.getUserId()), message.getConversationId());
+            return Delivery.DELIVERED;
+        }
+
+        Disaster disaster = disasterRepository.findOne(message.getDisasterId());
+        if (disaster == null) {
+            log.debug("Dropping {}, the disaster has been deleted", message);
+            return Delivery.DELIVERED;
+        }
+        if (disaster.getConversationId() == null) {
+            if (outboxMessageRepository.countByDisasterIdAndMessageTypeAndDeadLetter(disaster.getId(),
+                OutboxMessageType.DISASTER_CONVERSATION, false) > 0) {
+                return Delivery.DEFERRED;
+            }
+            if (outboxMessageRepository.countByDisasterIdAndMessageTypeAndDeadLetter(disaster.getId(),
+                OutboxMessageType.DISASTER_CONVERSATION, true) > 0) {
+                return Delivery.PARKED;
+            }
+            throw new IllegalStateException("The conversation of disaster " + disaster.getId() + " does not exist");
+        }
+        messageClient.addMember(new User(message.getUserId()), disaster.getConversationId());
+        return Delivery.DELIVERED;
+    }
+
+    private void defer(OutboxMessage message) {
+        message.setNextAttemptDate(ZonedDateTime.now().plus(jHipsterProperties.getOutbox().getInitialBackoffMillis(), ChronoUnit.MILLIS));
+        outboxMessageRepository.save(message);
+        log.debug("Deferred {}, the conversation does not exist yet", message);
+    }
+
+    private void postpone(OutboxMessage message, RuntimeException e) {
+        JHipsterProperties.Outbox outbox = jHipsterProperties.getOutbox();
+        int attempts = message.getAttempts() + 1;
+        if (attempts >= outbox.getMaxAttempts()) {
+            log.error("Could not deliver {} after {} attempts", message, attempts, e);
+            park(message, attempts, String.valueOf(e.getMessage()));
+            return;
+        }
+
+        long backoff = Math.min(outbox.getInitialBackoffMillis() << Math.min(attempts - 1, 30), outbox.getMaxBackoffMillis());
+        message.setAttempts(attempts);
+        message.setNextAttemptDate(ZonedDateTime.now().plus(backoff, ChronoUnit.MILLIS));
+        message.setLastError(truncate(String.valueOf(e.getMessage())));
+        outboxMessageRepository.save(message);
+        log.warn("Could not deliver {}, retrying in {} ms: {}", message, backoff, e.getMessage());
+    }
+
+    private void park(OutboxMessage message, int attempts, String error) {
+        message.setAttempts(attempts);
+        message.setDeadLetter(true);
+        message.setLastError(truncate(error));
+        outboxMessageRepository.save(message);
+        log.error("Parked {} as dead letter: {}", message, error);
+    }
+
+    private void revive(OutboxMessage message) {
+        message.setDeadLetter(false);
+        message.setAttempts(0);
+        message.setNextAttemptDate(ZonedDateTime.now());
+        outboxMessageRepository.save(message);
+    }
+
+    private static String truncate(String error) {
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+}
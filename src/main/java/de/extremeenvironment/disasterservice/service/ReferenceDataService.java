@@ -0,0 +1,68 @@
+package de.extremeenvironment.disasterservice.service;
+
+import de.extremeenvironment.disasterservice.config.CacheConfiguration;
+import de.extremeenvironment.disasterservice.repository.ActionObjectRepository;
+import de.extremeenvironment.disasterservice.repository.CategoryRepository;
+import de.extremeenvironment.disasterservice.repository.DisasterTypeRepository;
+import de.extremeenvironment.disasterservice.web.rest.dto.ActionObjectDTO;
+import de.extremeenvironment.disasterservice.web.rest.dto.CategoryDTO;
+import de.extremeenvironment.disasterservice.web.rest.dto.DisasterTypeDTO;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import javax.inject.Inject;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Reads the lists of reference data, cached in the Spring caches of {@link CacheConfiguration}.
+ *
+ * <p>
+ * The caches hold unmodifiable lists of immutable DTOs, never managed entities, so a cached list is shared safely by
+ * all requests. The repositories evict the lists when their entities are saved or deleted. Those evictions only happen
+ * once the transaction commits, so inside a transaction the lists are neither cached nor read from the cache, and a
+ * transaction always sees its own writes.
+ * </p>
+ */
+@Service
+public class ReferenceDataService {
+
+    private static final String NO_TRANSACTION =
+        "!T(org.springframework.transaction.support.TransactionSynchronizationManager).isActualTransactionActive()";
+
+    private DisasterTypeRepository disasterTypeRepository;
+
+    private CategoryRepository categoryRepository;
+
+    private ActionObjectRepository actionObjectRepository;
+
+    @Inject
+    public ReferenceDataService(DisasterTypeRepository disasterTypeRepository, CategoryRepository categoryRepository,
+                                ActionObjectRepository actionObjectRepository) {
+        this.disasterTypeRepository = disasterTypeRepository;
+        this.categoryRepository = categoryRepository;
+        this.actionObjectRepository = actionObjectRepository;
+    }
+
+    @Cacheable(cacheNames = CacheConfiguration.DISASTER_TYPE_LIST, condition = NO_TRANSACTION)
+    public List<DisasterTypeDTO> getAllDisasterTypes() {
+        return Collections.unmodifiableList(disasterTypeRepository.findAll().stream()
+            .map(DisasterTypeDTO::new)
+            .collect(Collectors.toList()));
+    }
+
+    @Cacheable(cacheNames = CacheConfiguration.CATEGORY_LIST, condition = NO_TRANSACTION)
+    public List<CategoryDTO> getAllCategories() {
+        return Collections.unmodifiableList(categoryRepository.findAll().stream()
+            .map(CategoryDTO::new)
+            .collect(Collectors.toList()));
+    }
+
+    @Cacheable(cacheNames = CacheConfiguration.ACTION_OBJECT_LIST, condition = NO_TRANSACTION)
+    public List<ActionObjectDTO> getAllActionObjects() {
+        return Collections.unmodifiableList(actionObjectRepository.findAll().stream()
+            .map(ActionObjectDTO::new)
+            .collect(Collectors.toList()));
+    }
+}
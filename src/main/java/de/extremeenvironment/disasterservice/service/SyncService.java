@@ -0,0 +1,111 @@
+package de.extremeenvironment.disasterservice.service;
+
+import de.extremeenvironment.disasterservice.domain.Action;
+import de.extremeenvironment.disasterservice.domain.Disaster;
+import de.extremeenvironment.disasterservice.domain.Tombstone;
+import de.extremeenvironment.disasterservice.repository.ActionRepository;
+import de.extremeenvironment.disasterservice.repository.DisasterRepository;
+import de.extremeenvironment.disasterservice.repository.TombstoneRepository;
+import de.extremeenvironment.disasterservice.web.rest.dto.SyncDTO;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.inject.Inject;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.*;
+
+/**
+ * Collects the actions and disasters changed since an instant, together with the tombstones of deleted ones.
+ *
+ * <p>
+ * Every kind of change is limited to {@value #MAX_CHANGES} entries, ordered by (date, id). When a limit is reached the
+ * sync is not complete and "until" is the date of the last change that could be returned, together with the id of
+ * that change for every kind which stopped at "until". The next sync continues after (until, id), so any number of
+ * changes sharing one date is returned page by page. Otherwise "until" lies {@link #OVERLAP} before the start of
+ * the sync, so changes of transactions which were still running are sent with the next sync. Clients have to apply
+ * changes idempotently, as changes at the boundaries are sent twice.
+ * </p>
+ *
+ * <p>
+ * The changes are read from the primary database. A lagging replica could miss changes committed before "until"
+ * by more than {@link #OVERLAP}, which would never be sent.
+ * </p>
+ */
+@Service
+public class SyncService {
+
+    public static final int MAX_CHANGES = 1000;
+
+    static final Duration OVERLAP = Duration.ofSeconds(10);
+
+    private ActionRepository actionRepository;
+
+    private DisasterRepository disasterRepository;
+
+    private TombstoneRepository tombstoneRepository;
+
+    private LikeCounterService likeCounterService;
+
+    @Inject
+    public SyncService(ActionRepository actionRepository, DisasterRepository disasterRepository,
+                       TombstoneRepository tombstoneRepository, LikeCounterService likeCounterService) {
+        this.actionRepository = actionRepository;
+        this.disasterRepository = disasterRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.likeCounterService = likeCounterService;
+    }
+
+    /**
+     * @param since           the "until" of the previous sync
+     * @param lastActionId    the "lastActionId" of the previous sync
+     * @param lastDisasterId  the "lastDisasterId" of the previous sync
+     * @param lastTombstoneId the "lastTombstoneId" of the previous sync
+     * @return the changes after the cursor
+     */
+    @Transactional
+    public SyncDTO getChangesSince(ZonedDateTime since, long lastActionId, long lastDisasterId, long lastTombstoneId) {
+        ZonedDateTime until = ZonedDateTime.now().minus(OVERLAP);
+        Pageable pageable = new PageRequest(0, MAX_CHANGES);
+
+        List<Long> actionIds = actionRepository.findIdsModifiedSince(since, lastActionId, pageable);
+        List<Action> actions = actionIds.isEmpty() ? new ArrayList<>()
+            : actionRepository.findAllWithEagerRelationships(actionIds);
+        actions.sort(Comparator.comparing(Action::getLastModifiedDate).thenComparing(Action::getId));
+        actions.forEach(likeCounterService::applyPendingLikes);
+        Action lastAction = actions.size() == MAX_CHANGES ? actions.get(actions.size() - 1) : null;
+
+        List<Disaster> disasters = disasterRepository.findModifiedSince(since, lastDisasterId, pageable);
+        Disaster lastDisaster = disasters.size() == MAX_CHANGES ? disasters.get(disasters.size() - 1) : null;
+
+        List<Tombstone> deleted = tombstoneRepository.findDeletedSince(since, lastTombstoneId, pageable);
+        Tombstone lastTombstone = deleted.size() == MAX_CHANGES ? deleted.get(deleted.size() - 1) : null;
+
+        boolean complete = lastAction == null && lastDisaster == null && lastTombstone == null;
+        if (lastAction != null) {
+            until = min(until, lastAction.getLastModifiedDate());
+        }
+        if (lastDisaster != null) {
+            until = min(until, lastDisaster.getLastModifiedDate());
+        }
+        if (lastTombstone != null) {
+            until = min(until, lastTombstone.getDeletedDate());
+        }
+        // never move backwards, even if the clock of the client is ahead
+        if (until.isBefore(since)) {
+            until = since;
+        }
+
+        // kinds which stopped later than "until" start again at "until"
+        return new SyncDTO(actions, disasters, deleted, until, complete,
+            lastAction != null && lastAction.getLastModifiedDate().isEqual(until) ? lastAction.getId() : 0L,
+            lastDisaster != null && lastDisaster.getLastModifiedDate().isEqual(until) ? lastDisaster.getId() : 0L,
+            lastTombstone != null && lastTombstone.getDeletedDate().isEqual(until) ? lastTombstone.getId() : 0L);
+    }
+
+    private static ZonedDateTime min(ZonedDateTime a, ZonedDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
@@ -0,0 +1,74 @@
+package de.extremeenvironment.disasterservice.service;
+
+import de.extremeenvironment.disasterservice.domain.Action;
+import de.extremeenvironment.disasterservice.domain.Disaster;
+import de.extremeenvironment.disasterservice.domain.Tombstone;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.io.Serializable;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes a tombstone for every deleted action and disaster, so the delta sync can report deletions.
+ *
+ * <p>
+ * The tombstone is inserted with plain JDBC on the connection of the deleting transaction, so it is only
+ * visible when the deletion commits. Its id is taken from the pooled tombstone sequence like the ids of all entities.
+ * </p>
+ */
+@Component
+public class TombstoneEventListener implements PostDeleteEventListener {
+
+    private static final long serialVersionUID = 1L;
+
+    static final List<Class<?>> TRACKED = Arrays.asList(Action.class, Disaster.class);
+
+    private static final String INSERT_SQL = "insert into tombstone (id, entity_name, entity_id, deleted_date) values (?, ?, ?, ?)";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Inject
+    public TombstoneEventListener(EntityManagerFactory entityManagerFactory, DataSource dataSource) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @PostConstruct
+    public void register() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        Class<?> entityClass = event.getPersister().getMappedClass();
+        if (!(event.getId() instanceof Long) || !TRACKED.contains(entityClass)) {
+            return;
+        }
+        Serializable id = event.getSession().getFactory().getIdentifierGenerator(Tombstone.class.getName())
+            .generate(event.getSession(), null);
+        jdbcTemplate.update(INSERT_SQL, id, entityClass.getSimpleName(), event.getId(), Timestamp.from(Instant.now()));
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+}
@@ -0,0 +1,161 @@
+package de.extremeenvironment.disasterservice.service.index;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Base class for in-memory indexes over persisted entities.
+ *
+ * <p>
+ * Indexes are kept current by the {@link EntityIndexEventListener}, which forwards every insert, update
+ * and delete of an entity of the indexed type. The index is loaded lazily from the database on first use,
+ * and entities touched by a rolled back transaction are re-read before the next lookup. Changes of other instances
+ * are marked dirty by the {@link EntityIndexSynchronizer}.
+ * </p>
+ *
+ * <p>
+ * Loads always read from the primary database within a read-write transaction, a replica may lag behind the
+ * changes the index has been told about. A lookup within a read-only transaction loads in a new transaction.
+ * Dirty entities stay dirty until they have been read, or marked again, after they were marked.
+ * </p>
+ *
+ * @param <T> the indexed entity type
+ */
+public abstract class AbstractEntityIndex<T> {
+
+    private final Class<T> entityClass;
+
+    // the mark of the latest markDirty call of every dirty id
+    private final Map<Long, Long> dirtyIds = new ConcurrentHashMap<>();
+
+    private final AtomicLong marks = new AtomicLong();
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TransactionTemplate newTransactionTemplate;
+
+    private volatile boolean loaded = false;
+
+    protected AbstractEntityIndex(Class<T> entityClass, PlatformTransactionManager transactionManager) {
+        this.entityClass = entityClass;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public Class<T> getEntityClass() {
+        return entityClass;
+    }
+
+    /**
+     * @param entity the entity which has been inserted or updated
+     */
+    public void onSave(T entity) {
+        Long id = getId(entity);
+        if (id == null) {
+            return;
+        }
+        if (isInitialized(entity)) {
+            put(entity);
+        } else {
+            // loading lazy associations while the session is flushed is not safe, so re-read it on next use
+            markDirty(Collections.singleton(id));
+        }
+    }
+
+    /**
+     * @param id the id of the entity which has been deleted
+     */
+    public void onDelete(Long id) {
+        remove(id);
+    }
+
+    /**
+     * marks entities whose indexed state may differ from the database, e.g. after a rollback
+     *
+     * @param ids the ids of the entities to re-read
+     */
+    public void markDirty(Collection<Long> ids) {
+        Long mark = marks.incrementAndGet();
+        ids.forEach(id -> dirtyIds.put(id, mark));
+    }
+
+    /**
+     * drops the whole index, it is loaded again on next use
+     */
+    public void invalidate() {
+        loaded = false;
+    }
+
+    /**
+     * loads the index if necessary and re-reads dirty entities. Has to be called before every lookup.
+     */
+    protected void refresh() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    Map<Long, Long> dirty = new HashMap<>(dirtyIds);
+                    clear();
+                    readFromPrimary(this::loadAll).forEach(this::onSave);
+                    dirty.forEach(dirtyIds::remove);
+                    loaded = true;
+                }
+            }
+        }
+
+        if (!dirtyIds.isEmpty()) {
+            Map<Long, Long> dirty = new HashMap<>(dirtyIds);
+            List<T> entities = readFromPrimary(() -> load(dirty.keySet()));
+            dirty.keySet().forEach(this::remove);
+            entities.forEach(this::onSave);
+            // ids marked again meanwhile are read once more
+            dirty.forEach(dirtyIds::remove);
+        }
+    }
+
+    private <R> R readFromPrimary(Supplier<R> reader) {
+        TransactionTemplate template = TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+            ? newTransactionTemplate : transactionTemplate;
+        return template.execute(status -> reader.get());
+    }
+
+    protected abstract Long getId(T entity);
+
+    /**
+     * @return whether the lazy associations the index reads are loaded
+     */
+    protected boolean isInitialized(T entity) {
+        return true;
+    }
+
+    /**
+     * @return all entities which shall be part of a freshly loaded index
+     */
+    protected abstract List<T> loadAll();
+
+    /**
+     * @param ids the ids of the entities
+     * @return the current state of the given entities, deleted entities are omitted
+     */
+    protected abstract List<T> load(Collection<Long> ids);
+
+    /**
+     * adds or updates an entity. Implementations remove the entity if it no longer qualifies for the index.
+     */
+    protected abstract void put(T entity);
+
+    protected abstract void remove(Long id);
+
+    protected abstract void clear();
+}
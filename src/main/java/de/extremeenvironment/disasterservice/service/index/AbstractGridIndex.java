@@ -0,0 +1,161 @@
+package de.extremeenvironment.disasterservice.service.index;
+
+import de.extremeenvironment.disasterservice.service.DisasterService;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Base class for spatial indexes over entities with a position.
+ *
+ * <p>
+ * Entities are bucketed into cells of {@value #CELL_SIZE} degrees latitude and longitude, so a radius query only
+ * has to look at the cells intersecting the bounding box of the radius.
+ * </p>
+ *
+ * @param <T> the indexed entity type
+ */
+public abstract class AbstractGridIndex<T> extends AbstractEntityIndex<T> {
+
+    static final double CELL_SIZE = 0.5;
+
+    private static final double EARTH_RADIUS = 6371000; //meters
+
+    private static final int LON_CELLS = (int) Math.round(360 / CELL_SIZE);
+
+    private final Map<Long, Set<Long>> idsByCell = new ConcurrentHashMap<>();
+
+    private final Map<Long, float[]> positionById = new ConcurrentHashMap<>();
+
+    protected AbstractGridIndex(Class<T> entityClass, PlatformTransactionManager transactionManager) {
+        super(entityClass, transactionManager);
+    }
+
+    /**
+     * finds all indexed entities which may lie within a radius around a coordinate. The result is a superset,
+     * the caller still has to check the exact distance.
+     *
+     * @param lat    the latitude of the center
+     * @param lon    the longitude of the center
+     * @param radius the radius in meters
+     * @return the ids of the candidates
+     */
+    public Set<Long> findCandidates(float lat, float lon, double radius) {
+        refresh();
+
+        double latDelta = Math.toDegrees(radius / EARTH_RADIUS);
+        double minLat = Math.max(-90, lat - latDelta);
+        double maxLat = Math.min(90, lat + latDelta);
+
+        double maxAbsLat = Math.max(Math.abs(minLat), Math.abs(maxLat));
+        double lonDelta = maxAbsLat >= 90 ? 180 : Math.toDegrees(radius / (EARTH_RADIUS * Math.cos(Math.toRadians(maxAbsLat))));
+
+        int minLatCell = latCell(minLat);
+        int maxLatCell = latCell(maxLat);
+        int minLonCell;
+        int maxLonCell;
+        if (lonDelta >= 180) {
+            minLonCell = 0;
+            maxLonCell = LON_CELLS - 1;
+        } else {
+            minLonCell = (int) Math.floor((lon - lonDelta) / CELL_SIZE);
+            maxLonCell = (int) Math.floor((lon + lonDelta) / CELL_SIZE);
+        }
+
+        Set<Long> result = new HashSet<>();
+        for (int latCell = minLatCell; latCell <= maxLatCell; latCell++) {
+            for (int lonCell = minLonCell; lonCell <= maxLonCell; lonCell++) {
+                Set<Long> ids = idsByCell.get(cellKey(latCell, Math.floorMod(lonCell, LON_CELLS)));
+                if (ids != null) {
+                    result.addAll(ids);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * finds the indexed entity closest to a coordinate
+     *
+     * @param lat    the latitude of the center
+     * @param lon    the longitude of the center
+     * @param radius the radius in meters the entity has to lie within
+     * @return the id of the nearest entity, or null if there is none within the radius
+     */
+    public Long findNearest(float lat, float lon, double radius) {
+        Long nearestId = null;
+        float nearestDistance = Float.MAX_VALUE;
+
+        for (Long id : findCandidates(lat, lon, radius)) {
+            float[] position = positionById.get(id);
+            if (position == null) {
+                continue;
+            }
+            float distance = DisasterService.getDistance(lat, lon, position[0], position[1]);
+            if (distance < radius && (distance < nearestDistance || distance == nearestDistance && id < nearestId)) {
+                nearestDistance = distance;
+                nearestId = id;
+            }
+        }
+
+        return nearestId;
+    }
+
+    /**
+     * @return whether the entity shall be part of the index
+     */
+    protected abstract boolean isIndexed(T entity);
+
+    protected abstract float getLat(T entity);
+
+    protected abstract float getLon(T entity);
+
+    @Override
+    protected synchronized void put(T entity) {
+        Long id = getId(entity);
+        remove(id);
+
+        if (!isIndexed(entity)) {
+            return;
+        }
+
+        float[] position = new float[]{getLat(entity), getLon(entity)};
+        positionById.put(id, position);
+        idsByCell.computeIfAbsent(cellKey(position), c -> ConcurrentHashMap.newKeySet()).add(id);
+    }
+
+    @Override
+    protected synchronized void remove(Long id) {
+        float[] position = positionById.remove(id);
+        if (position != null) {
+            idsByCell.computeIfPresent(cellKey(position), (c, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    @Override
+    protected synchronized void clear() {
+        idsByCell.clear();
+        positionById.clear();
+    }
+
+    private static long cellKey(float[] position) {
+        return cellKey(latCell(position[0]), lonCell(position[1]));
+    }
+
+    private static int latCell(double lat) {
+        return (int) Math.floor(lat / CELL_SIZE);
+    }
+
+    private static int lonCell(double lon) {
+        return Math.floorMod((int) Math.floor(lon / CELL_SIZE), LON_CELLS);
+    }
+
+    private static long cellKey(int latCell, int lonCell) {
+        return ((long) latCell << 32) | (lonCell & 0xffffffffL);
+    }
+}
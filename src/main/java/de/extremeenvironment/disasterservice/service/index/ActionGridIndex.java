@@ -0,0 +1,68 @@
+package de.extremeenvironment.disasterservice.service.index;
+
+import de.extremeenvironment.disasterservice.domain.Action;
+import de.extremeenvironment.disasterservice.domain.enumeration.ActionType;
+import de.extremeenvironment.disasterservice.repository.ActionRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.inject.Inject;
+import java.util.*;
+
+/**
+ * Spatial index of all open actions, i.e. offers and seeks which are neither matched nor expired.
+ */
+@Component
+public class ActionGridIndex extends AbstractGridIndex<Action> {
+
+    private static final List<ActionType> INDEXED_TYPES = Arrays.asList(ActionType.OFFER, ActionType.SEEK);
+
+    private ActionRepository actionRepository;
+
+    @Inject
+    public ActionGridIndex(ActionRepository actionRepository, PlatformTransactionManager transactionManager) {
+        super(Action.class, transactionManager);
+        this.actionRepository = actionRepository;
+    }
+
+    @Override
+    protected Long getId(Action action) {
+        return action.getId();
+    }
+
+    @Override
+    protected List<Action> loadAll() {
+        return actionRepository.findOpenActions(INDEXED_TYPES);
+    }
+
+    @Override
+    protected List<Action> load(Collection<Long> ids) {
+        return actionRepository.findAll(ids);
+    }
+
+    @Override
+    protected boolean isIndexed(Action action) {
+        return isOpen(action);
+    }
+
+    @Override
+    protected float getLat(Action action) {
+        return action.getLat();
+    }
+
+    @Override
+    protected float getLon(Action action) {
+        return action.getLon();
+    }
+
+    /**
+     * @return whether the action can still be matched
+     */
+    static boolean isOpen(Action action) {
+        return INDEXED_TYPES.contains(action.getActionType())
+            && action.getMatch() == null
+            && !action.isIsExpired()
+            && action.getLat() != null
+            && action.getLon() != null;
+    }
+}
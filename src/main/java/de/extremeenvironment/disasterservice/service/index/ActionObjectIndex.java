@@ -0,0 +1,135 @@
+package de.extremeenvironment.disasterservice.service.index;
+
+import de.extremeenvironment.disasterservice.domain.Action;
+import de.extremeenvironment.disasterservice.domain.ActionObject;
+import de.extremeenvironment.disasterservice.domain.enumeration.ActionType;
+import de.extremeenvironment.disasterservice.repository.ActionRepository;
+import org.hibernate.Hibernate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.inject.Inject;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Inverted index from action objects to the open offers and seeks containing them, partitioned by action type.
+ */
+@Component
+public class ActionObjectIndex extends AbstractEntityIndex<Action> {
+
+    private static final List<ActionType> INDEXED_TYPES = Arrays.asList(ActionType.OFFER, ActionType.SEEK);
+
+    private final Map<ActionType, Map<Long, Set<Long>>> actionIdsByObject = new EnumMap<>(ActionType.class);
+
+    private final Map<Long, Set<Long>> objectIdsByAction = new ConcurrentHashMap<>();
+
+    private final Map<Long, ActionType> typeByAction = new ConcurrentHashMap<>();
+
+    private ActionRepository actionRepository;
+
+    @Inject
+    public ActionObjectIndex(ActionRepository actionRepository, PlatformTransactionManager transactionManager) {
+        super(Action.class, transactionManager);
+        this.actionRepository = actionRepository;
+        INDEXED_TYPES.forEach(type -> actionIdsByObject.put(type, new ConcurrentHashMap<>()));
+    }
+
+    /**
+     * finds the open actions of the given type which share at least one action object with the given ones
+     *
+     * @param actionType    the type of the wanted actions
+     * @param actionObjects the action objects of which at least one has to be contained
+     * @return the ids of the actions
+     */
+    public Set<Long> findCandidates(ActionType actionType, Collection<ActionObject> actionObjects) {
+        refresh();
+
+        Map<Long, Set<Long>> postings = actionIdsByObject.get(actionType);
+        Set<Long> result = new HashSet<>();
+        if (postings == null) {
+            return result;
+        }
+
+        for (ActionObject actionObject : actionObjects) {
+            Set<Long> ids = postings.get(actionObject.getId());
+            if (ids != null) {
+                result.addAll(ids);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @return the type of actions the given type can be matched with, or null if it can't be matched at all
+     */
+    public static ActionType getMatchingType(ActionType actionType) {
+        if (actionType == ActionType.SEEK) {
+            return ActionType.OFFER;
+        }
+        if (actionType == ActionType.OFFER) {
+            return ActionType.SEEK;
+        }
+        return null;
+    }
+
+    @Override
+    protected Long getId(Action action) {
+        return action.getId();
+    }
+
+    @Override
+    protected boolean isInitialized(Action action) {
+        return Hibernate.isInitialized(action.getActionObjects());
+    }
+
+    @Override
+    protected List<Action> loadAll() {
+        return actionRepository.findOpenActionsWithActionObjects(INDEXED_TYPES);
+    }
+
+    @Override
+    protected List<Action> load(Collection<Long> ids) {
+        return actionRepository.findAllWithEagerRelationships(ids);
+    }
+
+    @Override
+    protected synchronized void put(Action action) {
+        remove(action.getId());
+
+        if (!ActionGridIndex.isOpen(action)) {
+            return;
+        }
+
+        Set<Long> objectIds = new HashSet<>();
+        action.getActionObjects().forEach(actionObject -> objectIds.add(actionObject.getId()));
+
+        Map<Long, Set<Long>> postings = actionIdsByObject.get(action.getActionType());
+        objectIds.forEach(objectId -> postings.computeIfAbsent(objectId, o -> ConcurrentHashMap.newKeySet()).add(action.getId()));
+        objectIdsByAction.put(action.getId(), objectIds);
+        typeByAction.put(action.getId(), action.getActionType());
+    }
+
+    @Override
+    protected synchronized void remove(Long id) {
+        Set<Long> objectIds = objectIdsByAction.remove(id);
+        ActionType actionType = typeByAction.remove(id);
+        if (objectIds == null || actionType == null) {
+            return;
+        }
+
+        Map<Long, Set<Long>> postings = actionIdsByObject.get(actionType);
+        objectIds.forEach(objectId -> postings.computeIfPresent(objectId, (o, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        }));
+    }
+
+    @Override
+    protected synchronized void clear() {
+        actionIdsByObject.values().forEach(Map::clear);
+        objectIdsByAction.clear();
+        typeByAction.clear();
+    }
+}
@@ -0,0 +1,180 @@
+package de.extremeenvironment.disasterservice.service.index;
+
+import com.vividsolutions.jts.geom.*;
+import com.vividsolutions.jts.geom.impl.CoordinateArraySequence;
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
+import com.vividsolutions.jts.geom.prep.PreparedGeometryFactory;
+import com.vividsolutions.jts.index.strtree.STRtree;
+import de.extremeenvironment.disasterservice.domain.Area;
+import de.extremeenvironment.disasterservice.domain.Corner;
+import de.extremeenvironment.disasterservice.repository.AreaRepository;
+import org.hibernate.Hibernate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.inject.Inject;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Spatial index of the polygons of all areas.
+ *
+ * <p>
+ * The polygons are kept as prepared geometries in an STR-tree of their envelopes. An STR-tree can't be changed
+ * once it is built, so it is rebuilt on the next lookup after an area has been changed.
+ * </p>
+ */
+@Component
+public class AreaIndex extends AbstractEntityIndex<Area> {
+
+    private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+
+    private final Map<Long, PreparedGeometry> geometryById = new ConcurrentHashMap<>();
+
+    private volatile STRtree tree;
+
+    private AreaRepository areaRepository;
+
+    @Inject
+    public AreaIndex(AreaRepository areaRepository, PlatformTransactionManager transactionManager) {
+        super(Area.class, transactionManager);
+        this.areaRepository = areaRepository;
+    }
+
+    /**
+     * finds the areas intersecting a polygon
+     *
+     * @param polygon        the polygon
+     * @param excludedAreaId the id of an area to leave out, may be null
+     * @return the ids and polygons of the intersecting areas
+     */
+    public Map<Long, Geometry> findIntersecting(Polygon polygon, Long excludedAreaId) {
+        Map<Long, Geometry> result = new HashMap<>();
+        for (Object item : getTree().query(polygon.getEnvelopeInternal())) {
+            IndexedArea area = (IndexedArea) item;
+            if (!area.id.equals(excludedAreaId) && area.geometry.intersects(polygon)) {
+                result.put(area.id, area.geometry.getGeometry());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * finds the areas covering a coordinate, including their boundary
+     *
+     * @param lat the latitude of the coordinate
+     * @param lon the longitude of the coordinate
+     * @return the ids of the areas, smallest area first
+     */
+    public List<Long> findContaining(float lat, float lon) {
+        Point point = GEOMETRY_FACTORY.createPoint(new Coordinate(lat, lon));
+
+        List<IndexedArea> containing = new ArrayList<>();
+        for (Object item : getTree().query(point.getEnvelopeInternal())) {
+            IndexedArea area = (IndexedArea) item;
+            if (area.geometry.covers(point)) {
+                containing.add(area);
+            }
+        }
+        containing.sort(Comparator.comparingDouble(area -> area.geometry.getGeometry().getArea()));
+
+        List<Long> result = new ArrayList<>();
+        containing.forEach(area -> result.add(area.id));
+        return result;
+    }
+
+    /**
+     * converts the corners of an area into a closed polygon, in the order of the given collection
+     *
+     * @param corners the corners
+     * @return the polygon
+     */
+    public static Polygon toPolygon(Collection<Corner> corners) {
+        List<Coordinate> coordinates = new ArrayList<>();
+        corners.forEach(c -> coordinates.add(new Coordinate(c.getLat(), c.getLon())));
+        coordinates.add(new Coordinate(coordinates.get(0)));
+
+        CoordinateSequence cs = new CoordinateArraySequence(coordinates.toArray(new Coordinate[0]));
+        LinearRing shell = new LinearRing(cs, GEOMETRY_FACTORY);
+
+        return new Polygon(shell, null, GEOMETRY_FACTORY);
+    }
+
+    @Override
+    protected Long getId(Area area) {
+        return area.getId();
+    }
+
+    @Override
+    protected boolean isInitialized(Area area) {
+        return Hibernate.isInitialized(area.getCorners());
+    }
+
+    @Override
+    protected List<Area> loadAll() {
+        return areaRepository.findAllWithCorners();
+    }
+
+    @Override
+    protected List<Area> load(Collection<Long> ids) {
+        return areaRepository.findAllWithCorners(ids);
+    }
+
+    @Override
+    protected synchronized void put(Area area) {
+        remove(area.getId());
+
+        // areas need at least three corners to form a polygon
+        if (area.getCorners().size() < 3) {
+            return;
+        }
+        geometryById.put(area.getId(), PreparedGeometryFactory.prepare(toPolygon(new ArrayList<>(area.getCorners()))));
+        tree = null;
+    }
+
+    @Override
+    protected synchronized void remove(Long id) {
+        if (geometryById.remove(id) != null) {
+            tree = null;
+        }
+    }
+
+    @Override
+    protected synchronized void clear() {
+        geometryById.clear();
+        tree = null;
+    }
+
+    private STRtree getTree() {
+        refresh();
+
+        STRtree current = tree;
+        if (current == null) {
+            synchronized (this) {
+                current = tree;
+                if (current == null) {
+                    current = new STRtree();
+                    for (Map.Entry<Long, PreparedGeometry> entry : geometryById.entrySet()) {
+                        Geometry geometry = entry.getValue().getGeometry();
+                        current.insert(geometry.getEnvelopeInternal(), new IndexedArea(entry.getKey(), entry.getValue()));
+                    }
+                    current.build();
+                    tree = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static class IndexedArea {
+
+        private final Long id;
+
+        private final PreparedGeometry geometry;
+
+        IndexedArea(Long id, PreparedGeometry geometry) {
+            this.id = id;
+            this.geometry = geometry;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package de.extremeenvironment.disasterservice.service.index;
+
+import de.extremeenvironment.disasterservice.domain.Disaster;
+import de.extremeenvironment.disasterservice.repository.DisasterRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.inject.Inject;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Spatial index of all disasters which are not expired.
+ */
+@Component
+public class DisasterGridIndex extends AbstractGridIndex<Disaster> {
+
+    private DisasterRepository disasterRepository;
+
+    @Inject
+    public DisasterGridIndex(DisasterRepository disasterRepository, PlatformTransactionManager transactionManager) {
+        super(Disaster.class, transactionManager);
+        this.disasterRepository = disasterRepository;
+    }
+
+    @Override
+    protected Long getId(Disaster disaster) {
+        return disaster.getId();
+    }
+
+    @Override
+    protected List<Disaster> loadAll() {
+        return disasterRepository.findActiveDisasters();
+    }
+
+    @Override
+    protected List<Disaster> load(Collection<Long> ids) {
+        return disasterRepository.findAll(ids);
+    }
+
+    @Override
+    protected boolean isIndexed(Disaster disaster) {
+        return !Boolean.TRUE.equals(disaster.isIsExpired())
+            && disaster.getLat() != null
+            && disaster.getLon() != null;
+    }
+
+    @Override
+    protected float getLat(Disaster disaster) {
+        return disaster.getLat();
+    }
+
+    @Override
+    protected float getLon(Disaster disaster) {
+        return disaster.getLon();
+    }
+}
@@ -0,0 +1,128 @@
+package de.extremeenvironment.disasterservice.service.index;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import javax.persistence.EntityManagerFactory;
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Forwards Hibernate insert, update and delete events to the in-memory entity indexes.
+ *
+ * <p>
+ * Changes are applied immediately, so lookups later in the same transaction already see them.
+ * When the transaction does not commit, the touched entities are marked dirty and re-read from the database.
+ * </p>
+ */
+@Component
+public class EntityIndexEventListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Logger log = LoggerFactory.getLogger(EntityIndexEventListener.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final List<AbstractEntityIndex<?>> indexes;
+
+    @Inject
+    public EntityIndexEventListener(EntityManagerFactory entityManagerFactory, List<AbstractEntityIndex<?>> indexes) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.indexes = indexes;
+    }
+
+    @PostConstruct
+    public void register() {
+        log.debug("Registering entity index listener for {} indexes", indexes.size());
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        onSave(event.getEntity(), event.getId());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        onSave(event.getEntity(), event.getId());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (!(event.getId() instanceof Long)) {
+            return;
+        }
+        Long id = (Long) event.getId();
+
+        for (AbstractEntityIndex<?> index : indexes) {
+            if (index.getEntityClass().isInstance(event.getEntity())) {
+                index.onDelete(id);
+                touch(index, id);
+            }
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void onSave(Object entity, Serializable id) {
+        if (!(id instanceof Long)) {
+            return;
+        }
+
+        for (AbstractEntityIndex<?> index : indexes) {
+            if (index.getEntityClass().isInstance(entity)) {
+                ((AbstractEntityIndex<Object>) index).onSave(entity);
+                touch(index, (Long) id);
+            }
+        }
+    }
+
+    /**
+     * remembers the entity for the current transaction, so it can be re-read if the transaction rolls back
+     */
+    private void touch(AbstractEntityIndex<?> index, Long id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<AbstractEntityIndex<?>, Set<Long>> touched =
+            (Map<AbstractEntityIndex<?>, Set<Long>>) TransactionSynchronizationManager.getResource(this);
+
+        if (touched == null) {
+            Map<AbstractEntityIndex<?>, Set<Long>> touchedInTransaction = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, touchedInTransaction);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(EntityIndexEventListener.this);
+                    if (status != TransactionSynchronization.STATUS_COMMITTED) {
+                        touchedInTransaction.forEach(AbstractEntityIndex::markDirty);
+                    }
+                }
+            });
+            touched = touchedInTransaction;
+        }
+
+        touched.computeIfAbsent(index, i -> new HashSet<>()).add(id);
+    }
+}
@@ -0,0 +1,131 @@
+package de.extremeenvironment.disasterservice.service.index;
+
+import de.extremeenvironment.disasterservice.domain.Action;
+import de.extremeenvironment.disasterservice.domain.Disaster;
+import de.extremeenvironment.disasterservice.domain.Tombstone;
+import de.extremeenvironment.disasterservice.repository.ActionRepository;
+import de.extremeenvironment.disasterservice.repository.DisasterRepository;
+import de.extremeenvironment.disasterservice.repository.TombstoneRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.*;
+
+/**
+ * Applies the changes of other instances to the in-memory entity indexes.
+ *
+ * <p>
+ * The {@link EntityIndexEventListener} only sees the changes of its own instance. Every
+ * {@code jhipster.index.syncIntervalMillis} the actions and disasters modified since the previous run, and the
+ * tombstones of deleted ones, are read from the primary database. Their ids are marked dirty in the indexes and
+ * evicted from the second-level cache, so they are read again before the next lookup. Every run starts
+ * {@link #OVERLAP} before the previous one, so changes of transactions which were still running are not missed.
+ * If more than {@value #MAX_CHANGES} entities of a type changed, its indexes are dropped and loaded again.
+ * Indexed entities without a modification date, i.e. areas, are dropped by every run.
+ * </p>
+ */
+@Component
+public class EntityIndexSynchronizer {
+
+    public static final int MAX_CHANGES = 1000;
+
+    static final Duration OVERLAP = Duration.ofSeconds(10);
+
+    private final Logger log = LoggerFactory.getLogger(EntityIndexSynchronizer.class);
+
+    private List<AbstractEntityIndex<?>> indexes;
+
+    private ActionRepository actionRepository;
+
+    private DisasterRepository disasterRepository;
+
+    private TombstoneRepository tombstoneRepository;
+
+    private EntityManagerFactory entityManagerFactory;
+
+    private TransactionTemplate transactionTemplate;
+
+    private ZonedDateTime lastRun = ZonedDateTime.now();
+
+    @Inject
+    public EntityIndexSynchronizer(List<AbstractEntityIndex<?>> indexes, ActionRepository actionRepository,
+                                   DisasterRepository disasterRepository, TombstoneRepository tombstoneRepository,
+                                   EntityManagerFactory entityManagerFactory, PlatformTransactionManager transactionManager) {
+        this.indexes = indexes;
+        this.actionRepository = actionRepository;
+        this.disasterRepository = disasterRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(initialDelayString = "${jhipster.index.syncIntervalMillis:10000}",
+        fixedDelayString = "${jhipster.index.syncIntervalMillis:10000}")
+    public void scheduledSync() {
+        sync();
+    }
+
+    /**
+     * marks the entities changed since the previous run dirty
+     *
+     * @return the number of changed entities
+     */
+    public synchronized int sync() {
+        ZonedDateTime start = ZonedDateTime.now();
+        ZonedDateTime since = lastRun.minus(OVERLAP);
+        Pageable pageable = new PageRequest(0, MAX_CHANGES);
+
+        Map<Class<?>, Set<Long>> changed = new HashMap<>();
+        Set<Class<?>> overflown = new HashSet<>();
+        // read from the primary database, a replica may not contain the latest changes yet
+        transactionTemplate.execute(status -> {
+            List<Long> actionIds = actionRepository.findIdsModifiedSince(since, 0L, pageable);
+            changed.put(Action.class, new HashSet<>(actionIds));
+            if (actionIds.size() == MAX_CHANGES) {
+                overflown.add(Action.class);
+            }
+
+            List<Long> disasterIds = disasterRepository.findIdsModifiedSince(since, 0L, pageable);
+            changed.put(Disaster.class, new HashSet<>(disasterIds));
+            if (disasterIds.size() == MAX_CHANGES) {
+                overflown.add(Disaster.class);
+            }
+
+            List<Tombstone> deleted = tombstoneRepository.findDeletedSince(since, 0L, pageable);
+            for (Tombstone tombstone : deleted) {
+                changed.keySet().stream()
+                    .filter(entityClass -> entityClass.getSimpleName().equals(tombstone.getEntityName()))
+                    .forEach(entityClass -> changed.get(entityClass).add(tombstone.getEntityId()));
+            }
+            if (deleted.size() == MAX_CHANGES) {
+                overflown.addAll(changed.keySet());
+            }
+            return null;
+        });
+
+        changed.forEach((entityClass, ids) -> ids.forEach(id -> entityManagerFactory.getCache().evict(entityClass, id)));
+        for (AbstractEntityIndex<?> index : indexes) {
+            Set<Long> ids = changed.get(index.getEntityClass());
+            if (ids == null || overflown.contains(index.getEntityClass())) {
+                index.invalidate();
+            } else if (!ids.isEmpty()) {
+                index.markDirty(ids);
+            }
+        }
+
+        lastRun = start;
+        int changes = changed.values().stream().mapToInt(Set::size).sum();
+        log.debug("Marked {} changed entities dirty, {} overflown", changes, overflown);
+        return changes;
+    }
+}
@@ -0,0 +1,183 @@
+package de.extremeenvironment.disasterservice.service.index;
+
+import de.extremeenvironment.disasterservice.domain.Action;
+import de.extremeenvironment.disasterservice.domain.enumeration.ActionType;
+import de.extremeenvironment.disasterservice.repository.ActionRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.inject.Inject;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts the knowledges and seeks of every disaster in grids of increasing cell size.
+ *
+ * <p>
+ * The finest grid has cells of {@value #BASE_CELL_SIZE} degrees, every further level doubles the cell size up to
+ * {@value #LEVELS} levels. Each level is updated when an action is saved, so reading a heatmap only copies the
+ * cells of one level. Expired actions are not counted.
+ * </p>
+ */
+@Component
+public class HeatmapIndex extends AbstractEntityIndex<Action> {
+
+    public static final double BASE_CELL_SIZE = 0.001;
+
+    public static final int LEVELS = 12;
+
+    static final List<ActionType> INDEXED_TYPES = Arrays.asList(ActionType.KNOWLEDGE, ActionType.SEEK);
+
+    private final Map<Long, Heatmap> heatmapsByDisaster = new ConcurrentHashMap<>();
+
+    private final Map<Long, Position> positionByAction = new ConcurrentHashMap<>();
+
+    private ActionRepository actionRepository;
+
+    @Inject
+    public HeatmapIndex(ActionRepository actionRepository, PlatformTransactionManager transactionManager) {
+        super(Action.class, transactionManager);
+        this.actionRepository = actionRepository;
+    }
+
+    /**
+     * @param cellSize the requested cell size in degrees
+     * @return the level whose cell size is closest to the requested one
+     */
+    public static int getLevel(double cellSize) {
+        int level = (int) Math.round(Math.log(cellSize / BASE_CELL_SIZE) / Math.log(2));
+        return Math.max(0, Math.min(LEVELS - 1, level));
+    }
+
+    /**
+     * @param level the level of the grid
+     * @return the cell size of the level in degrees
+     */
+    public static double getCellSize(int level) {
+        return BASE_CELL_SIZE * (1 << level);
+    }
+
+    /**
+     * @param disasterId the id of the disaster
+     * @param level      the level of the grid, see {@link #getLevel(double)}
+     * @return the non-empty cells of the grid as latitude and longitude of the cell center and the number of actions
+     */
+    public List<float[]> getCells(Long disasterId, int level) {
+        refresh();
+
+        Heatmap heatmap = heatmapsByDisaster.get(disasterId);
+        return heatmap == null ? new ArrayList<>() : heatmap.snapshot(level);
+    }
+
+    @Override
+    protected Long getId(Action action) {
+        return action.getId();
+    }
+
+    @Override
+    protected List<Action> loadAll() {
+        return actionRepository.findNotExpiredInDisasters(INDEXED_TYPES);
+    }
+
+    @Override
+    protected List<Action> load(Collection<Long> ids) {
+        return actionRepository.findAll(ids);
+    }
+
+    @Override
+    protected synchronized void put(Action action) {
+        remove(action.getId());
+
+        if (!INDEXED_TYPES.contains(action.getActionType()) || Boolean.TRUE.equals(action.isIsExpired())
+            || action.getDisaster() == null || action.getDisaster().getId() == null
+            || action.getLat() == null || action.getLon() == null) {
+            return;
+        }
+
+        Position position = new Position(action.getDisaster().getId(),
+            (int) Math.floor(action.getLat() / BASE_CELL_SIZE), (int) Math.floor(action.getLon() / BASE_CELL_SIZE));
+        heatmapsByDisaster.computeIfAbsent(position.disasterId, d -> new Heatmap()).add(position, 1);
+        positionByAction.put(action.getId(), position);
+    }
+
+    @Override
+    protected synchronized void remove(Long id) {
+        Position position = positionByAction.remove(id);
+        if (position == null) {
+            return;
+        }
+
+        Heatmap heatmap = heatmapsByDisaster.get(position.disasterId);
+        if (heatmap != null && heatmap.add(position, -1)) {
+            heatmapsByDisaster.remove(position.disasterId);
+        }
+    }
+
+    @Override
+    protected synchronized void clear() {
+        heatmapsByDisaster.clear();
+        positionByAction.clear();
+    }
+
+    private static long key(int lat, int lon) {
+        return ((long) lat << 32) | (lon & 0xffffffffL);
+    }
+
+    /**
+     * the grids of one disaster
+     */
+    private static class Heatmap {
+
+        private final List<Map<Long, Integer>> levels = new ArrayList<>(LEVELS);
+
+        Heatmap() {
+            for (int level = 0; level < LEVELS; level++) {
+                levels.add(new HashMap<>());
+            }
+        }
+
+        /**
+         * @return whether the heatmap is empty afterwards
+         */
+        synchronized boolean add(Position position, int weight) {
+            for (int level = 0; level < LEVELS; level++) {
+                // an arithmetic shift rounds towards negative infinity, like the base cells
+                long key = key(position.lat >> level, position.lon >> level);
+                levels.get(level).compute(key, (k, count) -> {
+                    int sum = (count == null ? 0 : count) + weight;
+                    return sum > 0 ? sum : null;
+                });
+            }
+            return levels.get(LEVELS - 1).isEmpty();
+        }
+
+        synchronized List<float[]> snapshot(int level) {
+            double cellSize = getCellSize(level);
+            List<float[]> cells = new ArrayList<>(levels.get(level).size());
+            levels.get(level).forEach((key, count) -> cells.add(new float[]{
+                (float) (((int) (key >> 32) + 0.5) * cellSize),
+                (float) (((int) (long) key + 0.5) * cellSize),
+                count
+            }));
+            return cells;
+        }
+    }
+
+    /**
+     * the base cell of an action
+     */
+    private static class Position {
+
+        private final Long disasterId;
+
+        private final int lat;
+
+        private final int lon;
+
+        Position(Long disasterId, int lat, int lon) {
+            this.disasterId = disasterId;
+            this.lat = lat;
+            this.lon = lon;
+        }
+    }
+}
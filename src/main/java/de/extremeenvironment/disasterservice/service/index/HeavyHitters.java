@@ -0,0 +1,61 @@
+package de.extremeenvironment.disasterservice.service.index;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Counts the most frequent keys in a fixed amount of memory, using the Space-Saving algorithm.
+ *
+ * <p>
+ * At most {@code capacity} keys are counted. A new key replaces the least frequent one and inherits its count,
+ * so the counts of rare keys are overestimated, while keys occurring more often than the least counted key are
+ * always kept. Decrements of keys which are no longer counted are ignored.
+ * </p>
+ */
+class HeavyHitters {
+
+    private final int capacity;
+
+    private final Map<Long, Long> counts = new HashMap<>();
+
+    HeavyHitters(int capacity) {
+        this.capacity = capacity;
+    }
+
+    synchronized void increment(Long key) {
+        Long count = counts.get(key);
+        if (count != null) {
+            counts.put(key, count + 1);
+            return;
+        }
+
+        if (counts.size() < capacity) {
+            counts.put(key, 1L);
+            return;
+        }
+
+        Map.Entry<Long, Long> least = Collections.min(counts.entrySet(), Map.Entry.comparingByValue());
+        counts.remove(least.getKey());
+        counts.put(key, least.getValue() + 1);
+    }
+
+    synchronized void decrement(Long key) {
+        counts.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+    }
+
+    synchronized boolean isEmpty() {
+        return counts.isEmpty();
+    }
+
+    /**
+     * @param limit the maximum number of keys
+     * @return the most frequent keys, the most frequent first
+     */
+    synchronized List<Long> top(int limit) {
+        return counts.entrySet().stream()
+            .sorted(Map.Entry.<Long, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+            .limit(limit)
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,123 @@
+package de.extremeenvironment.disasterservice.service.index;
+
+import de.extremeenvironment.disasterservice.domain.Action;
+import de.extremeenvironment.disasterservice.domain.enumeration.ActionType;
+import de.extremeenvironment.disasterservice.repository.ActionRepository;
+import org.hibernate.Hibernate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.inject.Inject;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts per disaster how often the action objects are sought by open seeks.
+ *
+ * <p>
+ * Every disaster keeps at most {@value #CAPACITY} counters in a {@link HeavyHitters} structure, so the memory
+ * stays fixed no matter how many distinct objects are sought.
+ * </p>
+ */
+@Component
+public class SearchedObjectIndex extends AbstractEntityIndex<Action> {
+
+    private static final int CAPACITY = 100;
+
+    private final Map<Long, HeavyHitters> countersByDisaster = new ConcurrentHashMap<>();
+
+    private final Map<Long, Search> searchByAction = new ConcurrentHashMap<>();
+
+    private ActionRepository actionRepository;
+
+    @Inject
+    public SearchedObjectIndex(ActionRepository actionRepository, PlatformTransactionManager transactionManager) {
+        super(Action.class, transactionManager);
+        this.actionRepository = actionRepository;
+    }
+
+    /**
+     * @param disasterId the id of the disaster
+     * @param limit      the maximum number of action objects
+     * @return the ids of the most sought action objects of the disaster, the most sought first
+     */
+    public List<Long> findMostSearched(Long disasterId, int limit) {
+        refresh();
+
+        HeavyHitters counters = countersByDisaster.get(disasterId);
+        return counters == null ? new ArrayList<>() : counters.top(limit);
+    }
+
+    @Override
+    protected Long getId(Action action) {
+        return action.getId();
+    }
+
+    @Override
+    protected boolean isInitialized(Action action) {
+        return Hibernate.isInitialized(action.getActionObjects());
+    }
+
+    @Override
+    protected List<Action> loadAll() {
+        return actionRepository.findOpenActionsWithActionObjects(Collections.singletonList(ActionType.SEEK));
+    }
+
+    @Override
+    protected List<Action> load(Collection<Long> ids) {
+        return actionRepository.findAllWithEagerRelationships(ids);
+    }
+
+    @Override
+    protected synchronized void put(Action action) {
+        remove(action.getId());
+
+        if (action.getActionType() != ActionType.SEEK || action.getMatch() != null || action.isIsExpired()
+            || action.getDisaster() == null || action.getDisaster().getId() == null) {
+            return;
+        }
+
+        Search search = new Search(action.getDisaster().getId());
+        action.getActionObjects().forEach(actionObject -> search.objectIds.add(actionObject.getId()));
+
+        HeavyHitters counters = countersByDisaster.computeIfAbsent(search.disasterId, d -> new HeavyHitters(CAPACITY));
+        search.objectIds.forEach(counters::increment);
+        searchByAction.put(action.getId(), search);
+    }
+
+    @Override
+    protected synchronized void remove(Long id) {
+        Search search = searchByAction.remove(id);
+        if (search == null) {
+            return;
+        }
+
+        HeavyHitters counters = countersByDisaster.get(search.disasterId);
+        if (counters != null) {
+            search.objectIds.forEach(counters::decrement);
+            if (counters.isEmpty()) {
+                countersByDisaster.remove(search.disasterId);
+            }
+        }
+    }
+
+    @Override
+    protected synchronized void clear() {
+        countersByDisaster.clear();
+        searchByAction.clear();
+    }
+
+    /**
+     * the counted action objects of a seek
+     */
+    private static class Search {
+
+        private final Long disasterId;
+
+        private final Set<Long> objectIds = new HashSet<>();
+
+        Search(Long disasterId) {
+            this.disasterId = disasterId;
+        }
+    }
+}
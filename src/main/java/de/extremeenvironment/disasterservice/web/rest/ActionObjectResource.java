@@ -1,11 +1,12 @@
 package de.extremeenvironment.disasterservice.web.rest;
 
 import com.codahale.metrics.annotation.Timed;
-import de.extremeenvironment.disasterservice.domain.Action;
 import de.extremeenvironment.disasterservice.domain.ActionObject;
-import de.extremeenvironment.disasterservice.domain.enumeration.ActionType;
 import de.extremeenvironment.disasterservice.repository.ActionObjectRepository;
 import de.extremeenvironment.disasterservice.repository.ActionRepository;
+import de.extremeenvironment.disasterservice.service.ReferenceDataService;
+import de.extremeenvironment.disasterservice.service.index.SearchedObjectIndex;
+import de.extremeenvironment.disasterservice.web.rest.dto.ActionObjectDTO;
 import de.extremeenvironment.disasterservice.web.rest.util.HeaderUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,11 +37,21 @@ public class ActionObjectResource {
     @Inject
     private ActionRepository actionRepository;
 
+    @Inject
+    private SearchedObjectIndex searchedObjectIndex;
+
+    @Inject
+    private ReferenceDataService referenceDataService;
+
     @Autowired
     public ActionObjectResource(ActionRepository actionRepositoryRepository,
-                                ActionObjectRepository actionObjectRepository) {
+                                ActionObjectRepository actionObjectRepository,
+                                SearchedObjectIndex searchedObjectIndex,
+                                ReferenceDataService referenceDataService) {
         this.actionRepository = actionRepositoryRepository;
         this.actionObjectRepository = actionObjectRepository;
+        this.searchedObjectIndex = searchedObjectIndex;
+        this.referenceDataService = referenceDataService;
     }
 
     /**
@@ -98,10 +109,9 @@ public class ActionObjectResource {
         method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
-    public List<ActionObject> getAllActionObjects() {
+    public List<ActionObjectDTO> getAllActionObjects() {
         log.debug("REST request to get all ActionObjects");
-        List<ActionObject> actionObjects = actionObjectRepository.findAll();
-        return actionObjects;
+        return referenceDataService.getAllActionObjects();
     }
 
     /**
@@ -143,7 +153,7 @@ public class ActionObjectResource {
     /**
      * GET //action-objects/topten/{id} : get the TopTen of a disaster
      * @param id
-     * @return a List of ActionObjects ordered by absolute frequency with size 10. The first element has the highest absolute frequency
+     * @return a List of at most 10 ActionObjects sought by open seeks, ordered by absolute frequency. The first element has the highest absolute frequency
      */
     @RequestMapping(value = "/action-objects/topten/{id}",
         method = RequestMethod.GET,
@@ -152,66 +162,14 @@ public class ActionObjectResource {
     public List<ActionObject> getTopTenSearch(@PathVariable Long id) {
         log.debug("REST request to get TopTen of Search of a Disaster : {}", id );
 
+        List<Long> topTenIds = searchedObjectIndex.findMostSearched(id, 10);
 
-        HashMap<ActionObject,Integer> objectWithRate = new HashMap<ActionObject,Integer>();
-
-        List<Action> actions = actionRepository.findByDisasterIdAndActionType(id, ActionType.SEEK);
-
-        List<ActionObject> actionObjects = new ArrayList<ActionObject>();
-
-        //alle ActionObjekte werden einer Actionobject Liste hinzugefügt
-        for(int i = 0;i<actions.size();i++){
-            actionObjects.addAll(actions.get(i).getActionObjects());
-        }
-
-
-        //ActionObjects werden mit ihrer Häufigkeit in einer Hashmap gespeichert
-        for(int i = 0;i<actionObjects.size();i++){
-            ActionObject actionObject = actionObjects.get(i);
-            if(objectWithRate.keySet().contains(actionObject)){
-                int a = objectWithRate.get(actionObject);
-                objectWithRate.put(actionObject,a+1);
-            }else{
-                objectWithRate.put(actionObject,1);
-            }
-        }
+        Map<Long, ActionObject> actionObjectsById = new HashMap<>();
+        actionObjectRepository.findAll(topTenIds).forEach(actionObject -> actionObjectsById.put(actionObject.getId(), actionObject));
 
-        //Liste enthält keine mehrfache Elemente mehr
-        actionObjects.clear();
-        actionObjects.addAll(objectWithRate.keySet());
-
-
-        Comparator<ActionObject> c = new Comparator<ActionObject>() {
-            @Override
-            public int compare(ActionObject o1, ActionObject o2) {
-                if(objectWithRate.get(o1)>objectWithRate.get(o2)){
-                    return -1;
-                }
-                if(objectWithRate.get(o1)==objectWithRate.get(o2)){
-                    return 0;
-                }
-                return 1;
-            }
-        };
-
-        //Liste wird nach Häufigkeit sortiert
-
-        actionObjects.sort(c);
-
-        //erste 10 Elemente werden zurück gegeben
-        if(actionObjects.size()==0){
-            return actionObjects;
-        }
-        if(actionObjects.size()>9) {
-            actionObjects.subList(0, 9);
-        }else{
-            actionObjects.subList(0, actionObjects.size()-1);
-        }
+        List<ActionObject> actionObjects = new ArrayList<>();
+        topTenIds.stream().map(actionObjectsById::get).filter(Objects::nonNull).forEach(actionObjects::add);
         return actionObjects;
-
     }
 
-
-
-
 }
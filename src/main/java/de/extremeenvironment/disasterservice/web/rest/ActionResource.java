@@ -1,28 +1,39 @@
 package de.extremeenvironment.disasterservice.web.rest;
 
 import com.codahale.metrics.annotation.Timed;
-import de.extremeenvironment.disasterservice.client.Conversation;
-import de.extremeenvironment.disasterservice.client.MessageClient;
 import de.extremeenvironment.disasterservice.client.UserService;
 import de.extremeenvironment.disasterservice.domain.Action;
 import de.extremeenvironment.disasterservice.domain.Disaster;
 import de.extremeenvironment.disasterservice.domain.User;
 import de.extremeenvironment.disasterservice.domain.enumeration.ActionType;
+import de.extremeenvironment.disasterservice.domain.enumeration.MatchStatus;
 import de.extremeenvironment.disasterservice.repository.ActionRepository;
 import de.extremeenvironment.disasterservice.repository.DisasterRepository;
 import de.extremeenvironment.disasterservice.service.ActionService;
 import de.extremeenvironment.disasterservice.service.DisasterService;
+import de.extremeenvironment.disasterservice.service.LikeCounterService;
+import de.extremeenvironment.disasterservice.service.MatchingService;
+import de.extremeenvironment.disasterservice.web.rest.dto.ActionBatchResultDTO;
 import de.extremeenvironment.disasterservice.web.rest.util.HeaderUtil;
+import de.extremeenvironment.disasterservice.web.rest.util.PaginationUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.oauth2.provider.OAuth2Authentication;
 import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.Validator;
 import org.springframework.web.bind.annotation.*;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.validation.Valid;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -39,34 +50,48 @@ public class ActionResource {
 
     private final Logger log = LoggerFactory.getLogger(ActionResource.class);
 
+    private static final int TOP_KNOWLEDGE_SIZE = 10;
+
+    static final int MAX_BATCH_SIZE = 1000;
+
     private ActionRepository actionRepository;
 
     private ActionService actionService;
 
     private DisasterRepository disasterRepository;
 
-    private MessageClient messageClient;
-
     private DisasterService disasterService;
 
     private UserService userService;
 
+    private MatchingService matchingService;
+
+    private LikeCounterService likeCounterService;
+
+    private Validator validator;
+
     @Inject
     public ActionResource(ActionRepository actionRepository, DisasterRepository disasterRepository,
-                          MessageClient messageClient, DisasterService disasterService, UserService userService,
-                          ActionService actionService) {
+                          DisasterService disasterService, UserService userService,
+                          ActionService actionService, MatchingService matchingService,
+                          LikeCounterService likeCounterService,
+                          @Named("mvcValidator") Validator validator) {
 
         this.actionRepository = actionRepository;
         this.disasterRepository = disasterRepository;
-        this.messageClient = messageClient;
         this.disasterService = disasterService;
         this.userService = userService;
         this.actionService = actionService;
+        this.matchingService = matchingService;
+        this.likeCounterService = likeCounterService;
+        this.validator = validator;
     }
 
     /**
      * POST  /actions : Create a new action.
      *
+     * The action is matched in the background, the header "X-disasterServiceApp-match" holds the match status.
+     *
      * @param action the action to create
      * @return the ResponseEntity with status 201 (Created) and with body the new action, or with status 400 (Bad Request) if the action has already an ID
      * @throws URISyntaxException if the Location URI syntax is incorrect
@@ -83,16 +108,7 @@ public class ActionResource {
                 .headers(HeaderUtil.createFailureAlert("action", "idexists", "A new action cannot already have an ID")).body(null);
         }
         if ((action.getDisaster() == null) && (action.getActionType() != ActionType.OFFER)) {
-            if (disasterService.getDisasterForAction(action) == null) {
-
-                Disaster disaster = new Disaster();
-                disaster.setLat(action.getLat());
-                disaster.setLon(action.getLon());
-                action.setDisaster(disaster);
-                disasterService.createDisaster(disaster);
-            } else {
-                action.setDisaster(disasterService.getDisasterForAction(action));
-            }
+            action.setDisaster(disasterService.findOrCreateDisaster(action.getLat(), action.getLon()));
         }
 
 
@@ -104,17 +120,81 @@ public class ActionResource {
         User user = userService.findOrCreateByName(principal.getName());
         action.setUser(user);
 
-        action = matchActions(action);
         //Action result = actionRepository.saveAndFlush(action);
         Action result = actionService.save(action);
+        MatchStatus matchStatus = matchingService.submit(result.getId());
         return ResponseEntity.created(new URI("/api/actions/" + result.getId()))
-            .headers(HeaderUtil.createEntityCreationAlert("action", result.getId().toString()))
+            .headers(HeaderUtil.addMatchStatus(HeaderUtil.createEntityCreationAlert("action", result.getId().toString()), matchStatus))
             .body(result);
     }
 
+    /**
+     * POST  /actions/batch : Create many actions of the current user at once.
+     *
+     * Invalid actions are skipped, the others are saved in one transaction together with the disasters they need and
+     * matched one by one afterwards. The user and every referenced disaster are resolved once per batch.
+     *
+     * @param actions the actions to create, at most {@value #MAX_BATCH_SIZE}
+     * @return the ResponseEntity with status 200 (OK) and with body the result of every action in the order of the
+     * request, or with status 400 (Bad Request) if the batch is too large
+     */
+    @RequestMapping(value = "/actions/batch",
+        method = RequestMethod.POST,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public ResponseEntity<List<ActionBatchResultDTO>> createActions(@RequestBody List<Action> actions, Principal principal) {
+        log.debug("REST request to save {} Actions", actions.size());
+        if (actions.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest()
+                .headers(HeaderUtil.createFailureAlert("action", "batchtoolarge",
+                    "A batch cannot contain more than " + MAX_BATCH_SIZE + " actions")).body(null);
+        }
+
+        Set<Long> disasterIds = actions.stream()
+            .filter(action -> action != null && action.getDisaster() != null && action.getDisaster().getId() != null)
+            .map(action -> action.getDisaster().getId())
+            .collect(Collectors.toSet());
+        Map<Long, Disaster> disastersById = new HashMap<>();
+        disasterRepository.findAll(disasterIds).forEach(disaster -> disastersById.put(disaster.getId(), disaster));
+
+        ActionBatchResultDTO[] results = new ActionBatchResultDTO[actions.size()];
+        List<Action> valid = new ArrayList<>();
+        List<Integer> validIndexes = new ArrayList<>();
+        for (int i = 0; i < actions.size(); i++) {
+            Action action = actions.get(i);
+            ActionBatchResultDTO rejected = validate(i, action, disastersById);
+            if (rejected != null) {
+                results[i] = rejected;
+                continue;
+            }
+
+            if (action.getDisaster() != null) {
+                action.setDisaster(disastersById.get(action.getDisaster().getId()));
+            }
+            valid.add(action);
+            validIndexes.add(i);
+        }
+
+        if (!valid.isEmpty()) {
+            User user = userService.findOrCreateByName(principal.getName());
+            List<Action> saved = actionService.saveAll(valid, user);
+            Map<Long, MatchStatus> matchStatus = matchingService.submitAll(
+                saved.stream().map(Action::getId).collect(Collectors.toList()));
+            for (int i = 0; i < saved.size(); i++) {
+                Long id = saved.get(i).getId();
+                results[validIndexes.get(i)] = ActionBatchResultDTO.created(validIndexes.get(i), id, matchStatus.get(id));
+            }
+        }
+
+        return new ResponseEntity<>(Arrays.asList(results),
+            HeaderUtil.createAlert("disasterServiceApp.action.batchCreated", String.valueOf(valid.size())), HttpStatus.OK);
+    }
+
     /**
      * PUT  /actions : Updates an existing action.
      *
+     * The like counter can only be changed through "/actions/{id}/likes", the one of the update is ignored.
+     *
      * @param action the action to update
      * @return the ResponseEntity with status 200 (OK) and with body the updated action,
      * or with status 400 (Bad Request) if the action is not valid,
@@ -132,28 +212,43 @@ public class ActionResource {
             return createAction(action, principal);
         }
 
-        action = matchActions(action);
-
+        // the like counter is only changed by likes, the value of the client is ignored
+        Action stored = actionRepository.findOne(action.getId());
+        if (stored != null) {
+            action.setLikeCounter(stored.getLikeCounter());
+        }
 
         Action result = actionRepository.save(action);
+        MatchStatus matchStatus = matchingService.submit(result.getId());
         return ResponseEntity.ok()
-            .headers(HeaderUtil.createEntityUpdateAlert("action", action.getId().toString()))
+            .headers(HeaderUtil.addMatchStatus(HeaderUtil.createEntityUpdateAlert("action", action.getId().toString()), matchStatus))
             .body(result);
     }
 
     /**
-     * GET  /actions : get all the actions.
+     * GET  /actions : get a page of the actions, ordered by id.
      *
-     * @return the ResponseEntity with status 200 (OK) and the list of actions in body
+     * @param after the id of the last action of the previous page
+     * @param size  the page size, capped at {@value PaginationUtil#MAX_PAGE_SIZE}
+     * @return the ResponseEntity with status 200 (OK), the list of actions in body and the links to the next and first page
      */
     @RequestMapping(value = "/actions",
         method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
-    public List<Action> getAllActions() {
-        log.debug("REST request to get all Actions");
-        List<Action> actions = actionRepository.findAllWithEagerRelationships();
-        return actions;
+    public ResponseEntity<List<Action>> getAllActions(@RequestParam(value = "after", defaultValue = "0") Long after,
+                                                      @RequestParam(value = "size", required = false) Integer size) {
+        log.debug("REST request to get a page of Actions after : {}", after);
+        Pageable pageable = PaginationUtil.generateKeysetPageable(size);
+
+        // the page is selected by id first, paging a fetch join would read all rows
+        List<Long> ids = actionRepository.findIdsAfter(after, pageable);
+        List<Action> actions = ids.isEmpty() ? new ArrayList<>() : actionRepository.findAllWithEagerRelationships(ids);
+        actions.sort(Comparator.comparing(Action::getId));
+        actions.forEach(likeCounterService::applyPendingLikes);
+
+        HttpHeaders headers = PaginationUtil.generateKeysetPaginationHttpHeaders(ids, pageable, "/api/actions");
+        return new ResponseEntity<>(actions, headers, HttpStatus.OK);
     }
 
     /**
@@ -170,6 +265,7 @@ public class ActionResource {
         log.debug("REST request to get Action : {}", id);
         Action action = actionRepository.findOneWithEagerRelationships(id);
         return Optional.ofNullable(action)
+            .map(likeCounterService::applyPendingLikes)
             .map(result -> new ResponseEntity<>(
                 result,
                 HttpStatus.OK))
@@ -216,6 +312,8 @@ public class ActionResource {
     /**
      * PUT /actions/:id/likes : increments the "id" like-counter by one
      *
+     * The like is written to the database with the next flush of the like counters.
+     *
      * @param id the id of the action
      * @return ResponseEntity with status 200 (OK) and the action in the body or with 400 (Bad Request)
      * @throws URISyntaxException
@@ -225,22 +323,17 @@ public class ActionResource {
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
     public ResponseEntity<Action> updateLikes(@PathVariable Long id) throws URISyntaxException {
-
-        if (!actionRepository.findActionById(id).isPresent()) {
+        Action action = actionRepository.findOneWithEagerRelationships(id);
+        if (action == null) {
             return ResponseEntity.badRequest().body(null);
         }
 
-        return actionRepository.findActionById(id)
-            .map(action -> {
-                log.debug("REST request to update Action : {}", action);
-                action.setLikeCounter(action.getLikeCounter() + 1);
-                actionRepository.save(action);
+        log.debug("REST request to like Action : {}", id);
+        likeCounterService.like(id);
 
-                return ResponseEntity.ok()
-                    .headers(HeaderUtil.createEntityUpdateAlert("action", action.getId().toString()))
-                    .body(action);
-            })
-            .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(null));
+        return ResponseEntity.ok()
+            .headers(HeaderUtil.createEntityUpdateAlert("action", id.toString()))
+            .body(likeCounterService.applyPendingLikes(action));
     }
 
     /**
@@ -255,15 +348,17 @@ public class ActionResource {
     @Timed
     public List<Action> getActionKnowledgeByCatastrophe(@Valid @PathVariable("id") Long id) {
         return disasterRepository.findById(id)
-            .map(disaster -> actionRepository.findActionByActionType(ActionType.KNOWLEDGE).stream()
-                .filter(a -> a.getDisaster().getId().equals(disaster.getId()))
-                .collect(Collectors.toList()))
+            .map(disaster -> {
+                List<Action> actions = actionRepository.findByDisasterIdAndActionType(disaster.getId(), ActionType.KNOWLEDGE);
+                actions.forEach(likeCounterService::applyPendingLikes);
+                return actions;
+            })
             .orElseGet(() -> null);
     }
 
 
     /**
-     * GET /actions/:disasterId/topTenKnowledge : lists the ten knowledges with the most likes of "disasterId"
+     * GET /actions/:disasterId/topTenKnowledge : lists the ten knowledges with the most likes of "disasterId", the most liked first
      *
      * @param id the disasterId of the wanted request
      * @return ResponseEntity with status 200 (OK) and the list of actions or with 404 (Not Found)
@@ -275,30 +370,56 @@ public class ActionResource {
     public List<Action> getTopTenKnowledge(@PathVariable Long id) {
         return disasterRepository.findById(id)
             .map(disaster -> {
-                List<Action> actions = actionRepository.findActionByActionType(ActionType.KNOWLEDGE);
-
-                List<Action> result = actions.stream()
-                    .filter(action -> action.getDisaster().getId().equals(disaster.getId()))
-                    .collect(Collectors.toList());
-
-                if (result.size() <= 10) {
-                    return result;
-                } else {
-                    Collections.sort(result, (o1, o2) -> {
-                        if (o1.getLikeCounter() > o2.getLikeCounter()) {
-                            return 1;
-                        } else if (o1.getLikeCounter().equals(o2.getLikeCounter())) {
-                            return 0;
-                        } else {
-                            return -1;
-                        }
-                    });
+                List<Long> ids = actionRepository.findMostLikedIds(disaster.getId(), ActionType.KNOWLEDGE,
+                    new PageRequest(0, TOP_KNOWLEDGE_SIZE));
+                if (ids.isEmpty()) {
+                    return new ArrayList<Action>();
                 }
-                return result.subList(0, 9);
+
+                // the page is read without its action objects, a fetch join would make the database return all rows
+                List<Action> actions = actionRepository.findAllWithEagerRelationships(ids);
+                // likes which are not flushed yet only reorder the page, they are written within a few seconds
+                actions.forEach(likeCounterService::applyPendingLikes);
+                actions.sort(Comparator.comparing(Action::getLikeCounter, Comparator.nullsLast(Comparator.reverseOrder()))
+                    .thenComparing(Action::getId, Comparator.reverseOrder()));
+                return actions;
             })
             .orElseGet(() -> null);
     }
 
+    /**
+     * GET /actions/:id/match : get the match of the "id" action, waiting for a pending matching if necessary
+     *
+     * @param id      the id of the action
+     * @param timeout how long to wait for a pending matching in milliseconds
+     * @return the ResponseEntity with status 200 (OK) and the matched action in body, with status 202 (Accepted)
+     * if the matching is still pending, with status 204 (No Content) if no match was found or with status 404 (Not Found)
+     * @throws InterruptedException if the request thread was interrupted while waiting
+     */
+    @RequestMapping(value = "/actions/{id}/match",
+        method = RequestMethod.GET,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public ResponseEntity<Action> getMatch(@PathVariable Long id,
+                                           @RequestParam(value = "timeout", defaultValue = "0") long timeout) throws InterruptedException {
+        log.debug("REST request to get match of Action : {}", id);
+        MatchStatus matchStatus = matchingService.awaitMatch(id, timeout);
+        if (matchStatus == MatchStatus.PENDING) {
+            return new ResponseEntity<>(HeaderUtil.addMatchStatus(new HttpHeaders(), matchStatus), HttpStatus.ACCEPTED);
+        }
+
+        Action action = actionRepository.findOneWithEagerRelationships(id);
+        if (action == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        if (action.getMatch() == null) {
+            return new ResponseEntity<>(HeaderUtil.addMatchStatus(new HttpHeaders(), matchStatus), HttpStatus.NO_CONTENT);
+        }
+        return ResponseEntity.ok()
+            .headers(HeaderUtil.addMatchStatus(new HttpHeaders(), matchStatus))
+            .body(actionRepository.findOneWithEagerRelationships(action.getMatch().getId()));
+    }
+
     /**
      * PUT /actions/:id/rejectMatch the "id" of the action for which the current match shall be released
      *
@@ -316,10 +437,7 @@ public class ActionResource {
             return ResponseEntity.badRequest().body(null);
         }
 
-        Action action = actionRepository.getOne(id);
-
-        System.out.println(action);
-        System.out.println(action.getMatch());
+        Action action = actionRepository.findOneWithEagerRelationships(id);
 
         if (action.getMatch() == null) {
             return ResponseEntity.badRequest()
@@ -328,106 +446,32 @@ public class ActionResource {
 
         log.debug("REST request to reject match : {}", action);
 
-        action = rejectMatch(action);
-        Action result = actionRepository.save(action);
+        Action result = matchingService.rejectMatch(action);
 
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert("action", action.getId().toString()))
             .body(result);
     }
 
-
-
-
     /**
-     * checks whether a match is available for a specific action
-     * commented lines for later removal of already rejected actions
-     *
-     * @param a the action for which a match shall be found
+     * @return the result of a rejected action of a batch, null if the action is valid
      */
-    public Action matchActions(Action a) {
-//        System.out.println("\n\n### matching begin ###");
-
-        if (a.getMatch() != null || a.getActionType() == ActionType.KNOWLEDGE || (a.isIsExpired())) {
-            return a;
+    private ActionBatchResultDTO validate(int index, Action action, Map<Long, Disaster> disastersById) {
+        if (action == null) {
+            return ActionBatchResultDTO.rejected(index, "invalid", "The action is missing");
         }
-
-        Set<Action> possibleMatches = new HashSet<>(actionRepository.findAll());
-
-        possibleMatches.remove(a);
-        possibleMatches.removeAll(a.getRejectedMatches());
-
-
-        Action bestMatch = null;
-        Float bestMatchDist = Float.MAX_VALUE;
-
-//        System.out.println("### Matching prior For ###");
-
-        for (Action act : possibleMatches) {
-            if (act.getMatch() != null || act.isIsExpired()) {
-                continue;
-            }
-
-            HashSet actionObjectIntersect = new HashSet<>(a.getActionObjects());
-            actionObjectIntersect.retainAll(act.getActionObjects());
-
-            Float matchDist = disasterService.getDistance(a.getLat(), a.getLon(), act.getLat(), act.getLon(), (a.getActionType().equals(ActionType.SEEK) ? a.getCreatedDate() : act.getCreatedDate()));
-
-//            System.out.println("### " + act.getId() + " " + matchDist + " ###");
-
-            if (!actionObjectIntersect.isEmpty() && matchDist <= 100_000.0 && matchDist < bestMatchDist && a.getActionType() != act.getActionType() && a.getUser() != act.getUser()) { //check if a is in act's rejectedMatches shouldnt be necessary
-                bestMatchDist = matchDist;
-                bestMatch = act;
-            }
+        if (action.getId() != null) {
+            return ActionBatchResultDTO.rejected(index, "idexists", "A new action cannot already have an ID");
         }
-
-        a.setMatch(bestMatch);
-        actionRepository.save(a);
-
-        if (bestMatch != null) {
-            bestMatch.setMatch(a);
-            actionRepository.save(bestMatch);
-
-
-            Conversation savedConversation = messageClient.addConversation(
-                new Conversation(null, true, bestMatch.getDescription() + " Conversation", "match", bestMatch.getId())
-            );
-            messageClient.addMember(new User(bestMatch.getUser().getUserId()), savedConversation.getId());
-            messageClient.addMember(new User(a.getUser().getUserId()), savedConversation.getId());
+        Errors errors = new BeanPropertyBindingResult(action, "action");
+        validator.validate(action, errors);
+        if (errors.hasFieldErrors()) {
+            FieldError error = errors.getFieldError();
+            return ActionBatchResultDTO.rejected(index, "invalid", error.getField() + " " + error.getDefaultMessage());
         }
-
-//        System.out.println("### match " + bestMatch + "###");
-
-        return a;
-
-    }
-
-
-    /**
-     * removes a match from actions
-     * commented lines for later removal of already rejected actions
-     *
-     * @param a the action the match shall be removed from
-     */
-    public Action rejectMatch(Action a) {
-//        if (a.getMatch() == null) {
-//            return ;
-//        }
-
-        a.getMatch().addRejectedMatch(a);
-        Action otherAction = a.getMatch();
-        a.getMatch().setMatch(null);
-        actionRepository.save(a.getMatch());
-
-        a.addRejectedMatch(a.getMatch());
-        a.setMatch(null);
-//        actionRepository.save(a);
-
-        matchActions(otherAction);
-
-        matchActions(a);
-
-        return a;
+        if (action.getDisaster() != null && !disastersById.containsKey(action.getDisaster().getId())) {
+            return ActionBatchResultDTO.rejected(index, "disasternotfound", "The disaster does not exist");
+        }
+        return null;
     }
-
 }
@@ -1,17 +1,21 @@
 package de.extremeenvironment.disasterservice.web.rest;
 
 import com.codahale.metrics.annotation.Timed;
-import com.vividsolutions.jts.geom.*;
-import com.vividsolutions.jts.geom.impl.CoordinateArraySequence;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.Polygon;
 import de.extremeenvironment.disasterservice.domain.Area;
 import de.extremeenvironment.disasterservice.domain.Corner;
 import de.extremeenvironment.disasterservice.domain.Ngo;
 import de.extremeenvironment.disasterservice.repository.AreaRepository;
 import de.extremeenvironment.disasterservice.repository.CornerRepository;
 import de.extremeenvironment.disasterservice.repository.NgoRepository;
+import de.extremeenvironment.disasterservice.service.index.AreaIndex;
 import de.extremeenvironment.disasterservice.web.rest.util.HeaderUtil;
+import de.extremeenvironment.disasterservice.web.rest.util.PaginationUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -30,6 +34,8 @@ import java.util.List;
 @RequestMapping("/api")
 public class AreaResource {
 
+    private static final double MAX_OVERLAP = 0.05;
+
     private final Logger log = LoggerFactory.getLogger(AreaResource.class);
 
     @Inject
@@ -42,10 +48,14 @@ public class AreaResource {
     private NgoRepository ngoRepository;
 
     @Inject
-    AreaResource(AreaRepository areaRepository,CornerRepository cornerRepository,NgoRepository ngoRepository){
+    private AreaIndex areaIndex;
+
+    @Inject
+    AreaResource(AreaRepository areaRepository,CornerRepository cornerRepository,NgoRepository ngoRepository,AreaIndex areaIndex){
         this.areaRepository = areaRepository;
         this.cornerRepository = cornerRepository;
         this.ngoRepository = ngoRepository;
+        this.areaIndex = areaIndex;
     }
     /**
      * POST  /areas : Create a new area.
@@ -70,31 +80,26 @@ public class AreaResource {
 
 
 
-        Set<Corner> cornerSet = new HashSet<>();
-        ArrayList<Corner> corners = new ArrayList<>();
-        corners.addAll(area.getCorners());
-
-        for(Corner co : corners){
-            Corner cor = new Corner();
-            cor.setLat(co.getLat());
-            cor.setLon(co.getLon());
-            cornerSet.add(cor);
-            cor.setArea(area);
+        // the corners are inserted with the area in one batch, as new corners even if the client sent ids
+        Set<Corner> corners = new HashSet<>();
+        for (Corner co : area.getCorners()) {
+            Corner corner = new Corner();
+            corner.setLat(co.getLat());
+            corner.setLon(co.getLon());
+            corner.setArea(area);
+            corners.add(corner);
         }
+        area.setCorners(corners);
 
         Ngo ngo = new Ngo();
         ngo.setId(area.getNgo().getId());
-        ngo.setArea(area);
         ngo.setName(area.getNgo().getName());
+        // the ngo owns the association, so it is saved once the area exists
+        area.setNgo(null);
 
-        Area result = areaRepository.saveAndFlush(area);
-        corners.addAll(cornerSet);
-
-        ngoRepository.save(ngo);
-        for(Corner co :corners){
-            cornerRepository.saveAndFlush(co);
-        }
-
+        Area result = areaRepository.save(area);
+        ngo.setArea(result);
+        result.setNgo(ngoRepository.save(ngo));
 
         return ResponseEntity.created(new URI("/api/areas/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert("area", result.getId().toString()))
@@ -126,17 +131,53 @@ public class AreaResource {
     }
 
     /**
-     * GET  /areas : get all the areas.
+     * GET  /areas : get a page of the areas, ordered by id.
      *
-     * @return the ResponseEntity with status 200 (OK) and the list of areas in body
+     * @param after the id of the last area of the previous page
+     * @param size  the page size, capped at {@value PaginationUtil#MAX_PAGE_SIZE}
+     * @return the ResponseEntity with status 200 (OK), the list of areas in body and the links to the next and first page
      */
     @RequestMapping(value = "/areas",
         method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
-    public List<Area> getAllAreas() {
-        log.debug("REST request to get all Areas");
-        List<Area> areas = areaRepository.findAll();
+    public ResponseEntity<List<Area>> getAllAreas(@RequestParam(value = "after", defaultValue = "0") Long after,
+                                                  @RequestParam(value = "size", required = false) Integer size) {
+        log.debug("REST request to get a page of Areas after : {}", after);
+        Pageable pageable = PaginationUtil.generateKeysetPageable(size);
+
+        // the page is selected by id first, paging a fetch join would read all rows
+        List<Long> ids = areaRepository.findIdsAfter(after, pageable);
+        List<Area> areas = ids.isEmpty() ? new ArrayList<>() : areaRepository.findAllWithCorners(ids);
+        areas.sort(Comparator.comparing(Area::getId));
+
+        HttpHeaders headers = PaginationUtil.generateKeysetPaginationHttpHeaders(ids, pageable, "/api/areas");
+        return new ResponseEntity<>(areas, headers, HttpStatus.OK);
+    }
+
+    /**
+     * GET  /areas/containing : get the areas covering a coordinate.
+     *
+     * @param lat the latitude of the coordinate
+     * @param lon the longitude of the coordinate
+     * @return the list of areas with their NGO, smallest area first
+     */
+    @RequestMapping(value = "/areas/containing",
+        method = RequestMethod.GET,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public List<Area> getAreasContaining(@RequestParam float lat, @RequestParam float lon) {
+        log.debug("REST request to get Areas containing : {}, {}", lat, lon);
+        List<Long> ids = areaIndex.findContaining(lat, lon);
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, Area> areasById = new HashMap<>();
+        areaRepository.findAllWithCorners(ids).forEach(area -> areasById.put(area.getId(), area));
+
+        List<Area> areas = new ArrayList<>();
+        ids.stream().map(areasById::get).filter(Objects::nonNull).forEach(areas::add);
         return areas;
     }
 
@@ -152,7 +193,7 @@ public class AreaResource {
     @Timed
     public ResponseEntity<Area> getArea(@PathVariable Long id) {
         log.debug("REST request to get Area : {}", id);
-        Area area = areaRepository.findOne(id);
+        Area area = areaRepository.findOneWithCorners(id);
         return Optional.ofNullable(area)
             .map(result -> new ResponseEntity<>(
                 result,
@@ -184,43 +225,14 @@ public class AreaResource {
      * @param corners the corners of the to-be-tested area
      * @return the validity
      */
-    private boolean checkIsValidArea(Area area, Set<Corner> corners) {
-
-        Comparator<Corner> comp = new Comparator<Corner>() {
-            @Override
-            public int compare(Corner c1, Corner c2) {
-                if (c1.getId() < c2.getId()) {
-                    return 1;
-                }
-
-                return -1;
-            }
-        };
-        List<Corner> cornerList = new ArrayList<>(corners);
-//        cornerList.sort(comp);
-
-
-        HashMap<Area, Polygon> allAreas = new HashMap<>();
-        Polygon thisPoly = cornersToPolygon(cornerList);
-
-
-//        log.debug("cornerRepository : ", cornerRepository);
-//        log.debug("corners of area : ", cornerRepository.findByAreaId(area.getId()));
-//        areaRepository.findAll().forEach(i -> i.getCorners().forEach(j -> System.out.println(j.toString())));
-
-
-        areaRepository.findAll().forEach(a ->
-            allAreas.put(a, cornersToPolygon(new ArrayList<>(a.getCorners())))
-        );
-
-        allAreas.remove(area);
-
+    boolean checkIsValidArea(Area area, Set<Corner> corners) {
+        Polygon thisPoly = AreaIndex.toPolygon(new ArrayList<>(corners));
         double thisPolyArea = thisPoly.getArea();
 
-        for (Polygon p : allAreas.values()) {
+        for (Geometry p : areaIndex.findIntersecting(thisPoly, area.getId()).values()) {
             Geometry intersect = p.intersection(thisPoly);
 
-            if (!intersect.isEmpty() && ((intersect.getArea() / p.getArea() > 0.05) || (intersect.getArea() / thisPolyArea > 0.05))) {
+            if (!intersect.isEmpty() && ((intersect.getArea() / p.getArea() > MAX_OVERLAP) || (intersect.getArea() / thisPolyArea > MAX_OVERLAP))) {
                 return false;
             }
 
@@ -229,27 +241,4 @@ public class AreaResource {
         return true;
     }
 
-
-    /**
-     * converts a set of Corners into a polygon
-     *
-     * @param cList the Corners
-     * @return the polygon
-     */
-    private Polygon cornersToPolygon(List<Corner> cList) {
-        ArrayList<Coordinate> coordList = new ArrayList<>();
-        cList.forEach(c -> coordList.add(new Coordinate(c.getLat(), c.getLon())));
-        coordList.add(new Coordinate(cList.get(0).getLat(), cList.get(0).getLon()));
-
-        CoordinateSequence cs = new CoordinateArraySequence(coordList.toArray(new Coordinate[0]));
-
-        GeometryFactory gf = new GeometryFactory();
-
-        LinearRing shell = new LinearRing(cs, gf);
-
-
-        return new Polygon(shell, null, gf);
-
-    }
-
 }
@@ -3,6 +3,8 @@ package de.extremeenvironment.disasterservice.web.rest;
 import com.codahale.metrics.annotation.Timed;
 import de.extremeenvironment.disasterservice.domain.Category;
 import de.extremeenvironment.disasterservice.repository.CategoryRepository;
+import de.extremeenvironment.disasterservice.service.ReferenceDataService;
+import de.extremeenvironment.disasterservice.web.rest.dto.CategoryDTO;
 import de.extremeenvironment.disasterservice.web.rest.util.HeaderUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,6 +31,9 @@ public class CategoryResource {
         
     @Inject
     private CategoryRepository categoryRepository;
+
+    @Inject
+    private ReferenceDataService referenceDataService;
     
     /**
      * POST  /categories : Create a new category.
@@ -85,10 +90,9 @@ public class CategoryResource {
         method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
-    public List<Category> getAllCategories() {
+    public List<CategoryDTO> getAllCategories() {
         log.debug("REST request to get all Categories");
-        List<Category> categories = categoryRepository.findAll();
-        return categories;
+        return referenceDataService.getAllCategories();
     }
 
     /**
@@ -3,6 +3,7 @@ package de.extremeenvironment.disasterservice.web.rest;
 import com.codahale.metrics.annotation.Timed;
 import de.extremeenvironment.disasterservice.domain.Corner;
 import de.extremeenvironment.disasterservice.repository.CornerRepository;
+import de.extremeenvironment.disasterservice.service.index.AreaIndex;
 import de.extremeenvironment.disasterservice.web.rest.util.HeaderUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,6 +16,7 @@ import org.springframework.web.bind.annotation.*;
 import javax.inject.Inject;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,6 +32,9 @@ public class CornerResource {
     @Inject
     private CornerRepository cornerRepository;
 
+    @Inject
+    private AreaIndex areaIndex;
+
     /**
      * POST  /corners : Create a new corner.
      *
@@ -47,6 +52,7 @@ public class CornerResource {
             return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("corner", "idexists", "A new corner cannot already have an ID")).body(null);
         }
         Corner result = cornerRepository.save(corner);
+        markAreaDirty(result);
         return ResponseEntity.created(new URI("/api/corners/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert("corner", result.getId().toString()))
             .body(result);
@@ -73,6 +79,7 @@ public class CornerResource {
             return createCorner(corner);
         }
         Corner result = cornerRepository.save(corner);
+        markAreaDirty(result);
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert("corner", corner.getId().toString()))
             .body(result);
@@ -140,8 +147,17 @@ public class CornerResource {
     @Timed
     public ResponseEntity<Void> deleteCorner(@PathVariable Long id) {
         log.debug("REST request to delete Corner : {}", id);
+        markAreaDirty(cornerRepository.findOne(id));
         cornerRepository.delete(id);
         return ResponseEntity.ok().headers(HeaderUtil.createEntityDeletionAlert("corner", id.toString())).build();
     }
 
+    /**
+     * the polygon of the area changes with its corners, so the area has to be re-read by the index
+     */
+    private void markAreaDirty(Corner corner) {
+        if (corner != null && corner.getArea() != null && corner.getArea().getId() != null) {
+            areaIndex.markDirty(Collections.singleton(corner.getArea().getId()));
+        }
+    }
 }
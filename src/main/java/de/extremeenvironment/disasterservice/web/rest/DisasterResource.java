@@ -6,19 +6,30 @@ import de.extremeenvironment.disasterservice.domain.Disaster;
 import de.extremeenvironment.disasterservice.domain.enumeration.ActionType;
 import de.extremeenvironment.disasterservice.repository.ActionRepository;
 import de.extremeenvironment.disasterservice.repository.DisasterRepository;
+import de.extremeenvironment.disasterservice.service.ActionExportService;
 import de.extremeenvironment.disasterservice.service.DisasterService;
+import de.extremeenvironment.disasterservice.service.index.HeatmapIndex;
 import de.extremeenvironment.disasterservice.web.rest.util.HeaderUtil;
+import de.extremeenvironment.disasterservice.web.rest.util.PaginationUtil;
+import de.extremeenvironment.disasterservice.web.rest.util.PointsUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import javax.inject.Inject;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -31,18 +42,26 @@ public class DisasterResource {
 
     private final Logger log = LoggerFactory.getLogger(DisasterResource.class);
 
+    private static final List<ActionType> HEATMAP_TYPES = Arrays.asList(ActionType.KNOWLEDGE, ActionType.SEEK);
+
     private ActionRepository actionRepository;
 
     private DisasterRepository disasterRepository;
 
     private DisasterService disasterService;
 
+    private HeatmapIndex heatmapIndex;
+
+    private ActionExportService actionExportService;
 
     @Inject
-    public DisasterResource(ActionRepository actionRepository, DisasterRepository disasterRepository, DisasterService disasterService) {
+    public DisasterResource(ActionRepository actionRepository, DisasterRepository disasterRepository, DisasterService disasterService,
+                            HeatmapIndex heatmapIndex, ActionExportService actionExportService) {
         this.actionRepository = actionRepository;
         this.disasterRepository = disasterRepository;
         this.disasterService = disasterService;
+        this.heatmapIndex = heatmapIndex;
+        this.actionExportService = actionExportService;
     }
 
     /**
@@ -111,18 +130,36 @@ public class DisasterResource {
     }
 
     /**
-     * GET  /disasters : get all the disasters.
+     * GET  /disasters : get a page of the disasters, ordered by id.
      *
-     * @return the ResponseEntity with status 200 (OK) and the list of disasters in body
+     * Clients preferring {@value PointsUtil#APPLICATION_POINTS_VALUE} get the page as packed points, see {@link PointsUtil}.
+     *
+     * @param after the id of the last disaster of the previous page
+     * @param size  the page size, capped at {@value PaginationUtil#MAX_PAGE_SIZE}
+     * @return the ResponseEntity with status 200 (OK), the list of disasters in body and the links to the next and first page,
+     * or null if the packed points have been written to the response
      */
     @RequestMapping(value = "/disasters",
         method = RequestMethod.GET,
-        produces = MediaType.APPLICATION_JSON_VALUE)
+        produces = {MediaType.APPLICATION_JSON_VALUE, PointsUtil.APPLICATION_POINTS_VALUE})
     @Timed
-    public List<Disaster> getAllDisasters() {
-        log.debug("REST request to get all Disasters");
-        List<Disaster> disasters = disasterRepository.findAll();
-        return disasters;
+    public ResponseEntity<List<Disaster>> getAllDisasters(@RequestParam(value = "after", defaultValue = "0") Long after,
+                                                          @RequestParam(value = "size", required = false) Integer size,
+                                                          HttpServletRequest request,
+                                                          HttpServletResponse response) throws IOException {
+        log.debug("REST request to get a page of Disasters after : {}", after);
+        Pageable pageable = PaginationUtil.generateKeysetPageable(size);
+        if (PointsUtil.isRequested(request)) {
+            List<Object[]> points = disasterRepository.findPointsAfter(after, pageable);
+            List<Long> ids = points.stream().map(point -> (Long) point[0]).collect(Collectors.toList());
+            PointsUtil.writePoints(points, PaginationUtil.generateKeysetPaginationHttpHeaders(ids, pageable, "/api/disasters"), response);
+            return null;
+        }
+        List<Disaster> disasters = disasterRepository.findAllAfter(after, pageable);
+
+        List<Long> ids = disasters.stream().map(Disaster::getId).collect(Collectors.toList());
+        HttpHeaders headers = PaginationUtil.generateKeysetPaginationHttpHeaders(ids, pageable, "/api/disasters");
+        return new ResponseEntity<>(disasters, headers, HttpStatus.OK);
     }
 
     /**
@@ -163,21 +200,99 @@ public class DisasterResource {
 
 
     /**
-     * GET  /disasters/:id/heatmap : get the Knowledge or Seek-actions for "id" disaster
+     * GET  /disasters/:id/actions/export : export all actions of "id" disaster, see {@link ActionExportService}.
      *
-     * @param id the id of the disaster to retrieve
-     * @return the ResponseEntity with status 200 (OK) and with body the disaster, or with status 404 (Not Found)
+     * @param id     the id of the disaster
+     * @param format the format of the export, "ndjson" or "csv"
+     */
+    @RequestMapping(value = "/disasters/{id}/actions/export",
+        method = RequestMethod.GET)
+    @Timed
+    public void exportActions(@PathVariable Long id, @RequestParam(value = "format", defaultValue = "ndjson") String format,
+                              HttpServletResponse response) throws IOException {
+        log.debug("REST request to export the Actions of Disaster : {} as {}", id, format);
+        ActionExportService.Format exportFormat;
+        try {
+            exportFormat = ActionExportService.Format.valueOf(format.toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unknown export format " + format);
+            return;
+        }
+        if (!disasterRepository.exists(id)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        response.setContentType(exportFormat.getContentType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+            "attachment; filename=\"disaster-" + id + "-actions." + format.toLowerCase(Locale.ENGLISH) + "\"");
+        actionExportService.export(id, exportFormat, response.getOutputStream());
+    }
+
+    /**
+     * GET  /disasters/:id/heatmap : get a page of the Knowledge or Seek-actions for "id" disaster, ordered by id
+     *
+     * Clients preferring {@value PointsUtil#APPLICATION_POINTS_VALUE} get the page as packed points, see {@link PointsUtil}.
+     *
+     * @param id    the id of the disaster to retrieve
+     * @param after the id of the last action of the previous page
+     * @param size  the page size, capped at {@value PaginationUtil#MAX_PAGE_SIZE}
+     * @return the ResponseEntity with status 200 (OK), the list of actions in body and the links to the next and first page,
+     * or null if the packed points have been written to the response
      */
     @RequestMapping(value = "/disasters/{id}/heatmap",
         method = RequestMethod.GET,
-        produces = MediaType.APPLICATION_JSON_VALUE)
+        produces = {MediaType.APPLICATION_JSON_VALUE, PointsUtil.APPLICATION_POINTS_VALUE})
     @Timed
-    public List<Action> getActionsInDisasterForHeatmap(@PathVariable Long id) {
-        log.debug("REST request to get all Actions in a Disaster ");
-        List<Action> actions = actionRepository.findByDisasterId(id)
-            .stream().filter(a -> (a.getActionType() == ActionType.KNOWLEDGE || a.getActionType() == ActionType.SEEK))
-            .collect(Collectors.toList());
-        return actions;
+    public ResponseEntity<List<Action>> getActionsInDisasterForHeatmap(@PathVariable Long id,
+                                                                       @RequestParam(value = "after", defaultValue = "0") Long after,
+                                                                       @RequestParam(value = "size", required = false) Integer size,
+                                                                       HttpServletRequest request,
+                                                                       HttpServletResponse response) throws IOException {
+        log.debug("REST request to get a page of Actions in Disaster : {}", id);
+        Pageable pageable = PaginationUtil.generateKeysetPageable(size);
+        if (PointsUtil.isRequested(request)) {
+            List<Object[]> points = actionRepository.findPointsByDisasterIdAfter(id, HEATMAP_TYPES, after, pageable);
+            List<Long> ids = points.stream().map(point -> (Long) point[0]).collect(Collectors.toList());
+            HttpHeaders headers = PaginationUtil.generateKeysetPaginationHttpHeaders(ids, pageable, "/api/disasters/" + id + "/heatmap");
+            PointsUtil.writePoints(points, headers, response);
+            return null;
+        }
+        List<Action> actions = actionRepository.findByDisasterIdAfter(id, HEATMAP_TYPES, after, pageable);
+
+        List<Long> ids = actions.stream().map(Action::getId).collect(Collectors.toList());
+        HttpHeaders headers = PaginationUtil.generateKeysetPaginationHttpHeaders(ids, pageable, "/api/disasters/" + id + "/heatmap");
+        return new ResponseEntity<>(actions, headers, HttpStatus.OK);
+    }
+
+    /**
+     * GET  /disasters/:id/heatmap/grid : get the Knowledge and Seek-actions of "id" disaster counted in grid cells
+     *
+     * The cell size is rounded to the nearest maintained grid, the header "X-disasterServiceApp-cellSize" holds the
+     * cell size which has been used. Clients preferring {@value PointsUtil#APPLICATION_POINTS_VALUE} get packed cells,
+     * see {@link PointsUtil}.
+     *
+     * @param id       the id of the disaster
+     * @param cellSize the requested cell size in degrees
+     * @return the ResponseEntity with status 200 (OK) and the non-empty cells as [lat, lon, weight] in body,
+     * lat and lon being the center of the cell, or null if the packed cells have been written to the response
+     */
+    @RequestMapping(value = "/disasters/{id}/heatmap/grid",
+        method = RequestMethod.GET,
+        produces = {MediaType.APPLICATION_JSON_VALUE, PointsUtil.APPLICATION_POINTS_VALUE})
+    @Timed
+    public ResponseEntity<List<float[]>> getHeatmapGrid(@PathVariable Long id,
+                                                        @RequestParam(value = "cellSize", defaultValue = "0.01") double cellSize,
+                                                        HttpServletRequest request,
+                                                        HttpServletResponse response) throws IOException {
+        log.debug("REST request to get heatmap grid of Disaster : {}", id);
+        int level = HeatmapIndex.getLevel(cellSize);
+        HttpHeaders headers = HeaderUtil.addCellSize(new HttpHeaders(), HeatmapIndex.getCellSize(level));
+        if (PointsUtil.isRequested(request)) {
+            PointsUtil.writeCells(heatmapIndex.getCells(id, level), headers, response);
+            return null;
+        }
+        return new ResponseEntity<>(heatmapIndex.getCells(id, level), headers, HttpStatus.OK);
     }
 
 
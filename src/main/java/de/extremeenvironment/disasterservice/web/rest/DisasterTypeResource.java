@@ -3,6 +3,8 @@ package de.extremeenvironment.disasterservice.web.rest;
 import com.codahale.metrics.annotation.Timed;
 import de.extremeenvironment.disasterservice.domain.DisasterType;
 import de.extremeenvironment.disasterservice.repository.DisasterTypeRepository;
+import de.extremeenvironment.disasterservice.service.ReferenceDataService;
+import de.extremeenvironment.disasterservice.web.rest.dto.DisasterTypeDTO;
 import de.extremeenvironment.disasterservice.web.rest.util.HeaderUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,6 +31,9 @@ public class DisasterTypeResource {
         
     @Inject
     private DisasterTypeRepository disasterTypeRepository;
+
+    @Inject
+    private ReferenceDataService referenceDataService;
     
     /**
      * POST  /disaster-types : Create a new disasterType.
@@ -85,10 +90,9 @@ public class DisasterTypeResource {
         method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
-    public List<DisasterType> getAllDisasterTypes() {
+    public List<DisasterTypeDTO> getAllDisasterTypes() {
         log.debug("REST request to get all DisasterTypes");
-        List<DisasterType> disasterTypes = disasterTypeRepository.findAll();
-        return disasterTypes;
+        return referenceDataService.getAllDisasterTypes();
     }
 
     /**
@@ -0,0 +1,52 @@
+package de.extremeenvironment.disasterservice.web.rest;
+
+import com.codahale.metrics.annotation.Timed;
+import de.extremeenvironment.disasterservice.client.UserService;
+import de.extremeenvironment.disasterservice.service.EventBroadcaster;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.inject.Inject;
+import java.security.Principal;
+
+/**
+ * REST controller for pushing events to clients.
+ */
+@RestController
+@RequestMapping("/api")
+public class EventResource {
+
+    private final Logger log = LoggerFactory.getLogger(EventResource.class);
+
+    private EventBroadcaster eventBroadcaster;
+
+    private UserService userService;
+
+    @Inject
+    public EventResource(EventBroadcaster eventBroadcaster, UserService userService) {
+        this.eventBroadcaster = eventBroadcaster;
+        this.userService = userService;
+    }
+
+    /**
+     * GET  /events : subscribe to the events of the current user and the events for everyone.
+     *
+     * The events are "match" and "matchRejected" with the actionId and matchId of an action of the user, "disaster"
+     * with the id, lat, lon and title of a new disaster and "likes" with a list of the actionId and the number of added
+     * likes of every action liked since the last "likes" event.
+     *
+     * @return the event stream
+     */
+    @RequestMapping(value = "/events",
+        method = RequestMethod.GET,
+        produces = "text/event-stream")
+    @Timed
+    public SseEmitter subscribe(Principal principal) {
+        log.debug("REST request to subscribe to events : {}", principal.getName());
+        return eventBroadcaster.subscribe(userService.findOrCreateByName(principal.getName()).getUserId());
+    }
+}
@@ -0,0 +1,59 @@
+package de.extremeenvironment.disasterservice.web.rest;
+
+import com.codahale.metrics.annotation.Timed;
+import de.extremeenvironment.disasterservice.domain.OutboxMessage;
+import de.extremeenvironment.disasterservice.service.OutboxService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.inject.Inject;
+import java.util.List;
+
+/**
+ * Controller for the dead letters of the outbox, which are replayed by hand.
+ */
+@RestController
+@RequestMapping("/management/outbox")
+public class OutboxResource {
+
+    private final Logger log = LoggerFactory.getLogger(OutboxResource.class);
+
+    private OutboxService outboxService;
+
+    @Inject
+    public OutboxResource(OutboxService outboxService) {
+        this.outboxService = outboxService;
+    }
+
+    /**
+     * GET  /dead-letters : get the outbox messages which failed too often.
+     *
+     * @return the list of dead letters
+     */
+    @RequestMapping(value = "/dead-letters",
+        method = RequestMethod.GET,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public List<OutboxMessage> getDeadLetters() {
+        log.debug("REST request to get the dead letters of the outbox");
+        return outboxService.getDeadLetters();
+    }
+
+    /**
+     * POST  /dead-letters/:id/replay : deliver a dead letter again.
+     *
+     * @param id the id of the outbox message
+     * @return the ResponseEntity with status 200 (OK), or with status 404 (Not Found) if there is no such dead letter
+     */
+    @RequestMapping(value = "/dead-letters/{id}/replay",
+        method = RequestMethod.POST)
+    @Timed
+    public ResponseEntity<Void> replay(@PathVariable Long id) {
+        log.debug("REST request to replay the dead letter : {}", id);
+        return new ResponseEntity<>(outboxService.replay(id) ? HttpStatus.OK : HttpStatus.NOT_FOUND);
+    }
+}
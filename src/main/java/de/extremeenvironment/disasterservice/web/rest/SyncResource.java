@@ -0,0 +1,61 @@
+package de.extremeenvironment.disasterservice.web.rest;
+
+import com.codahale.metrics.annotation.Timed;
+import de.extremeenvironment.disasterservice.service.SyncService;
+import de.extremeenvironment.disasterservice.web.rest.dto.SyncDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.inject.Inject;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+/**
+ * REST controller for the delta sync of actions and disasters.
+ */
+@RestController
+@RequestMapping("/api")
+public class SyncResource {
+
+    private final Logger log = LoggerFactory.getLogger(SyncResource.class);
+
+    private SyncService syncService;
+
+    @Inject
+    public SyncResource(SyncService syncService) {
+        this.syncService = syncService;
+    }
+
+    /**
+     * GET  /sync : get the actions and disasters created, updated or deleted after a cursor.
+     *
+     * @param since           the "until" of the previous sync as ISO-8601 date time, all entities are returned if missing
+     * @param lastActionId    the "lastActionId" of the previous sync
+     * @param lastDisasterId  the "lastDisasterId" of the previous sync
+     * @param lastTombstoneId the "lastTombstoneId" of the previous sync
+     * @return the ResponseEntity with status 200 (OK) and the changes in body
+     */
+    @RequestMapping(value = "/sync",
+        method = RequestMethod.GET,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public ResponseEntity<SyncDTO> getChanges(@RequestParam(value = "since", required = false)
+                                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime since,
+                                              @RequestParam(value = "lastActionId", defaultValue = "0") long lastActionId,
+                                              @RequestParam(value = "lastDisasterId", defaultValue = "0") long lastDisasterId,
+                                              @RequestParam(value = "lastTombstoneId", defaultValue = "0") long lastTombstoneId) {
+        log.debug("REST request to get the changes since : {}", since);
+        if (since == null) {
+            since = ZonedDateTime.ofInstant(Instant.EPOCH, ZoneOffset.UTC);
+        }
+        return ResponseEntity.ok(syncService.getChangesSince(since, lastActionId, lastDisasterId, lastTombstoneId));
+    }
+}
@@ -0,0 +1,70 @@
+package de.extremeenvironment.disasterservice.web.rest.dto;
+
+import de.extremeenvironment.disasterservice.domain.enumeration.MatchStatus;
+
+/**
+ * The result of one action of a batch creation.
+ */
+public class ActionBatchResultDTO {
+
+    private int index;
+
+    private Long id;
+
+    private MatchStatus matchStatus;
+
+    private String error;
+
+    private String message;
+
+    private ActionBatchResultDTO(int index, Long id, MatchStatus matchStatus, String error, String message) {
+        this.index = index;
+        this.id = id;
+        this.matchStatus = matchStatus;
+        this.error = error;
+        this.message = message;
+    }
+
+    public static ActionBatchResultDTO created(int index, Long id, MatchStatus matchStatus) {
+        return new ActionBatchResultDTO(index, id, matchStatus, null, null);
+    }
+
+    public static ActionBatchResultDTO rejected(int index, String error, String message) {
+        return new ActionBatchResultDTO(index, null, null, error, message);
+    }
+
+    /**
+     * @return the position of the action in the request
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return the id of the created action, null if it has been rejected
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * @return the status of the matching right after creating the action
+     */
+    public MatchStatus getMatchStatus() {
+        return matchStatus;
+    }
+
+    /**
+     * @return the error key if the action has been rejected
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * @return a description of the error
+     */
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,33 @@
+package de.extremeenvironment.disasterservice.web.rest.dto;
+
+import de.extremeenvironment.disasterservice.domain.ActionObject;
+
+/**
+ * An immutable action object with its category, which can be cached and shared by all requests.
+ */
+public class ActionObjectDTO {
+
+    private final Long id;
+
+    private final String name;
+
+    private final CategoryDTO category;
+
+    public ActionObjectDTO(ActionObject actionObject) {
+        this.id = actionObject.getId();
+        this.name = actionObject.getName();
+        this.category = actionObject.getCategory() == null ? null : new CategoryDTO(actionObject.getCategory());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public CategoryDTO getCategory() {
+        return category;
+    }
+}
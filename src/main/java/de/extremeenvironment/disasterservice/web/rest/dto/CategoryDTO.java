@@ -0,0 +1,26 @@
+package de.extremeenvironment.disasterservice.web.rest.dto;
+
+import de.extremeenvironment.disasterservice.domain.Category;
+
+/**
+ * An immutable category, which can be cached and shared by all requests.
+ */
+public class CategoryDTO {
+
+    private final Long id;
+
+    private final String name;
+
+    public CategoryDTO(Category category) {
+        this.id = category.getId();
+        this.name = category.getName();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
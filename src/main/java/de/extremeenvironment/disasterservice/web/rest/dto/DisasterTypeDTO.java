@@ -0,0 +1,26 @@
+package de.extremeenvironment.disasterservice.web.rest.dto;
+
+import de.extremeenvironment.disasterservice.domain.DisasterType;
+
+/**
+ * An immutable disaster type, which can be cached and shared by all requests.
+ */
+public class DisasterTypeDTO {
+
+    private final Long id;
+
+    private final String name;
+
+    public DisasterTypeDTO(DisasterType disasterType) {
+        this.id = disasterType.getId();
+        this.name = disasterType.getName();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
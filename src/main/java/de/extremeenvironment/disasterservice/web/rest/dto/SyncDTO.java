@@ -0,0 +1,102 @@
+package de.extremeenvironment.disasterservice.web.rest.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import de.extremeenvironment.disasterservice.domain.Action;
+import de.extremeenvironment.disasterservice.domain.Disaster;
+import de.extremeenvironment.disasterservice.domain.Tombstone;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * The changes since the last sync of a client.
+ */
+public class SyncDTO {
+
+    private List<Action> actions;
+
+    private List<Disaster> disasters;
+
+    private List<Tombstone> deleted;
+
+    private ZonedDateTime until;
+
+    private boolean complete;
+
+    private long lastActionId;
+
+    private long lastDisasterId;
+
+    private long lastTombstoneId;
+
+    public SyncDTO(List<Action> actions, List<Disaster> disasters, List<Tombstone> deleted, ZonedDateTime until,
+                   boolean complete, long lastActionId, long lastDisasterId, long lastTombstoneId) {
+        this.actions = actions;
+        this.disasters = disasters;
+        this.deleted = deleted;
+        this.until = until.withZoneSameInstant(ZoneOffset.UTC);
+        this.complete = complete;
+        this.lastActionId = lastActionId;
+        this.lastDisasterId = lastDisasterId;
+        this.lastTombstoneId = lastTombstoneId;
+    }
+
+    /**
+     * @return the created or updated actions
+     */
+    public List<Action> getActions() {
+        return actions;
+    }
+
+    /**
+     * @return the created or updated disasters
+     */
+    public List<Disaster> getDisasters() {
+        return disasters;
+    }
+
+    /**
+     * @return the deleted actions and disasters
+     */
+    public List<Tombstone> getDeleted() {
+        return deleted;
+    }
+
+    /**
+     * @return the instant to pass as "since" to the next sync, with the full precision of the stored dates
+     */
+    @JsonSerialize(using = ToStringSerializer.class)
+    public ZonedDateTime getUntil() {
+        return until;
+    }
+
+    /**
+     * @return whether all changes are included, otherwise the client should sync again right away
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * @return the id of the last action changed at "until" to pass as "lastActionId" to the next sync, 0 if all of them are included
+     */
+    public long getLastActionId() {
+        return lastActionId;
+    }
+
+    /**
+     * @return the id of the last disaster changed at "until" to pass as "lastDisasterId" to the next sync, 0 if all of them are included
+     */
+    public long getLastDisasterId() {
+        return lastDisasterId;
+    }
+
+    /**
+     * @return the id of the last tombstone written at "until" to pass as "lastTombstoneId" to the next sync, 0 if all of them are included
+     */
+    public long getLastTombstoneId() {
+        return lastTombstoneId;
+    }
+}
@@ -1,5 +1,6 @@
 package de.extremeenvironment.disasterservice.web.rest.util;
 
+import de.extremeenvironment.disasterservice.domain.enumeration.MatchStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpHeaders;
@@ -31,6 +32,16 @@ public class HeaderUtil {
         return createAlert("disasterServiceApp." + entityName + ".deleted", param);
     }
 
+    public static HttpHeaders addMatchStatus(HttpHeaders headers, MatchStatus matchStatus) {
+        headers.add("X-disasterServiceApp-match", matchStatus.toString().toLowerCase());
+        return headers;
+    }
+
+    public static HttpHeaders addCellSize(HttpHeaders headers, double cellSize) {
+        headers.add("X-disasterServiceApp-cellSize", String.valueOf(cellSize));
+        return headers;
+    }
+
     public static HttpHeaders createFailureAlert(String entityName, String errorKey, String defaultMessage) {
         log.error("Entity creation failed, {}", defaultMessage);
         HttpHeaders headers = new HttpHeaders();
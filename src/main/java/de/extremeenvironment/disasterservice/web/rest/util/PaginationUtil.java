@@ -1,10 +1,13 @@
 package de.extremeenvironment.disasterservice.web.rest.util;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.net.URISyntaxException;
+import java.util.List;
 
 /**
  * Utility class for handling pagination.
@@ -15,6 +18,10 @@ import java.net.URISyntaxException;
  */
 public class PaginationUtil {
 
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
     public static HttpHeaders generatePaginationHttpHeaders(Page<?> page, String baseUrl)
         throws URISyntaxException {
 
@@ -39,10 +46,43 @@ public class PaginationUtil {
         return headers;
     }
 
-    private static String generateUri(String baseUrl, int page, int size) throws URISyntaxException {
-        return UriComponentsBuilder.fromUriString(baseUrl).queryParam("page", page).queryParam("size", size).toUriString();
+    /**
+     * @param size the requested page size, may be null
+     * @return the first page of a keyset pagination, capped at {@link #MAX_PAGE_SIZE} entries
+     */
+    public static Pageable generateKeysetPageable(Integer size) {
+        int pageSize = size == null || size < 1 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        return new PageRequest(0, pageSize);
     }
 
+    /**
+     * generates the links of a keyset pagination, where each page starts after the last id of the previous page
+     *
+     * @param ids      the ids of the current page, in ascending order
+     * @param pageable the page which has been requested
+     * @param baseUrl  the url of the endpoint
+     * @return the headers with a "next" link, if the page is full, and a "first" link
+     */
+    public static HttpHeaders generateKeysetPaginationHttpHeaders(List<Long> ids, Pageable pageable, String baseUrl) {
+        HttpHeaders headers = new HttpHeaders();
+        String link = "";
+        if (!ids.isEmpty() && ids.size() >= pageable.getPageSize()) {
+            link = "<" + generateKeysetUri(baseUrl, ids.get(ids.size() - 1), pageable.getPageSize()) + ">; rel=\"next\",";
+        }
+        link += "<" + generateKeysetUri(baseUrl, null, pageable.getPageSize()) + ">; rel=\"first\"";
+        headers.add(HttpHeaders.LINK, link);
+        return headers;
+    }
 
+    private static String generateUri(String baseUrl, int page, int size) throws URISyntaxException {
+        return UriComponentsBuilder.fromUriString(baseUrl).queryParam("page", page).queryParam("size", size).toUriString();
+    }
 
+    private static String generateKeysetUri(String baseUrl, Long after, int size) {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromUriString(baseUrl);
+        if (after != null) {
+            builder.queryParam("after", after);
+        }
+        return builder.queryParam("size", size).toUriString();
+    }
 }
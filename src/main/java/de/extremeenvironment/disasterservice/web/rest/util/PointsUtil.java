@@ -0,0 +1,109 @@
+package de.extremeenvironment.disasterservice.web.rest.util;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+/**
+ * Utility class for writing map points in a packed binary format.
+ *
+ * <p>
+ * Clients request the format with the header "Accept: {@value #APPLICATION_POINTS_VALUE}", all other clients get
+ * JSON. JSON stays the default as long as the client does not rank the packed format above it, so a client accepting
+ * anything never receives binary data. The body is a sequence of fixed size little-endian records without any header, so the number of records is
+ * the content length divided by the record size:
+ * </p>
+ * <ul>
+ * <li>points: int64 id, float32 lat, float32 lon ({@value #POINT_BYTES} bytes), a missing coordinate is NaN</li>
+ * <li>grid cells: float32 lat, float32 lon, int32 weight ({@value #CELL_BYTES} bytes)</li>
+ * </ul>
+ */
+public class PointsUtil {
+
+    public static final String APPLICATION_POINTS_VALUE = "application/vnd.disasterservice.points";
+
+    public static final MediaType APPLICATION_POINTS = MediaType.valueOf(APPLICATION_POINTS_VALUE);
+
+    public static final int POINT_BYTES = 16;
+
+    public static final int CELL_BYTES = 12;
+
+    /**
+     * checks if the client prefers the packed format over JSON
+     *
+     * @param request the request with the Accept header
+     * @return true if the packed format is named explicitly and ranked before any type including JSON
+     */
+    public static boolean isRequested(HttpServletRequest request) {
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(request.getHeader(HttpHeaders.ACCEPT));
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        MediaType.sortBySpecificityAndQuality(accepted);
+        for (MediaType mediaType : accepted) {
+            if (APPLICATION_POINTS.includes(mediaType)) {
+                return mediaType.getQualityValue() > 0;
+            }
+            if (mediaType.includes(MediaType.APPLICATION_JSON)) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * writes points to the response
+     *
+     * @param points  the points as [id, lat, lon] with a Long id and Float coordinates
+     * @param headers additional headers of the response
+     */
+    public static void writePoints(List<Object[]> points, HttpHeaders headers, HttpServletResponse response)
+        throws IOException {
+
+        ByteBuffer buffer = ByteBuffer.allocate(points.size() * POINT_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (Object[] point : points) {
+            buffer.putLong((Long) point[0]);
+            buffer.putFloat(toFloat(point[1]));
+            buffer.putFloat(toFloat(point[2]));
+        }
+        write(buffer, headers, response);
+    }
+
+    /**
+     * writes grid cells to the response
+     *
+     * @param cells   the cells as [lat, lon, weight]
+     * @param headers additional headers of the response
+     */
+    public static void writeCells(List<float[]> cells, HttpHeaders headers, HttpServletResponse response)
+        throws IOException {
+
+        ByteBuffer buffer = ByteBuffer.allocate(cells.size() * CELL_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (float[] cell : cells) {
+            buffer.putFloat(cell[0]);
+            buffer.putFloat(cell[1]);
+            buffer.putInt((int) cell[2]);
+        }
+        write(buffer, headers, response);
+    }
+
+    private static void write(ByteBuffer buffer, HttpHeaders headers, HttpServletResponse response) throws IOException {
+        headers.forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        response.setContentType(APPLICATION_POINTS_VALUE);
+        response.setContentLength(buffer.capacity());
+        response.getOutputStream().write(buffer.array());
+    }
+
+    private static float toFloat(Object coordinate) {
+        return coordinate == null ? Float.NaN : ((Number) coordinate).floatValue();
+    }
+}
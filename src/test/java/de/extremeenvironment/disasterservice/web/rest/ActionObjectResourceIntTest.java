@@ -1,6 +1,9 @@
 package de.extremeenvironment.disasterservice.web.rest;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
 import de.extremeenvironment.disasterservice.DisasterServiceApp;
+import de.extremeenvironment.disasterservice.config.CacheConfiguration;
 import de.extremeenvironment.disasterservice.domain.Action;
 import de.extremeenvironment.disasterservice.domain.ActionObject;
 import de.extremeenvironment.disasterservice.domain.Disaster;
@@ -8,6 +11,9 @@ import de.extremeenvironment.disasterservice.domain.enumeration.ActionType;
 import de.extremeenvironment.disasterservice.repository.ActionObjectRepository;
 import de.extremeenvironment.disasterservice.repository.ActionRepository;
 import de.extremeenvironment.disasterservice.repository.DisasterRepository;
+import de.extremeenvironment.disasterservice.service.ReferenceDataService;
+import de.extremeenvironment.disasterservice.service.index.SearchedObjectIndex;
+import de.extremeenvironment.disasterservice.web.rest.dto.ActionObjectDTO;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -22,7 +28,9 @@ import org.springframework.test.context.web.WebAppConfiguration;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
@@ -31,6 +39,7 @@ import java.util.List;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -53,12 +62,24 @@ public class ActionObjectResourceIntTest {
     @Inject
     private ActionObjectRepository actionObjectRepository;
 
+    @Inject
+    private SearchedObjectIndex searchedObjectIndex;
+
     @Inject
     private ActionRepository actionRepository;
 
+    @Inject
+    private ReferenceDataService referenceDataService;
+
     @Inject
     private DisasterRepository disasterRepository;
 
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    @Inject
+    private MetricRegistry metricRegistry;
+
     @Inject
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
 
@@ -72,7 +93,7 @@ public class ActionObjectResourceIntTest {
     @PostConstruct
     public void setup() {
         MockitoAnnotations.initMocks(this);
-        ActionObjectResource actionObjectResource = new ActionObjectResource(actionRepository,actionObjectRepository);
+        ActionObjectResource actionObjectResource = new ActionObjectResource(actionRepository,actionObjectRepository,searchedObjectIndex,referenceDataService);
         ReflectionTestUtils.setField(actionObjectResource, "actionObjectRepository", actionObjectRepository);
         this.restActionObjectMockMvc = MockMvcBuilders.standaloneSetup(actionObjectResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
@@ -251,4 +272,56 @@ public class ActionObjectResourceIntTest {
 
     }
 
+    @Test
+    public void getAllActionObjectsFromCache() throws Exception {
+        // committed and read outside of a transaction, so the list reaches the cache
+        actionObjectRepository.saveAndFlush(actionObject);
+        try {
+            restActionObjectMockMvc.perform(get("/api/action-objects"))
+                .andExpect(status().isOk());
+            long hits = cacheHits();
+            restActionObjectMockMvc.perform(get("/api/action-objects"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].name").value(hasItem(DEFAULT_NAME)));
+            assertThat(cacheHits()).isGreaterThan(hits);
+
+            // the cache holds a list of DTOs, which no request can change
+            List<ActionObjectDTO> cached = referenceDataService.getAllActionObjects();
+            assertThat(cached).isSameAs(referenceDataService.getAllActionObjects());
+            assertThatThrownBy(() -> cached.remove(0)).isInstanceOf(UnsupportedOperationException.class);
+
+            ActionObject updatedActionObject = new ActionObject();
+            updatedActionObject.setId(actionObject.getId());
+            updatedActionObject.setName(UPDATED_NAME);
+            restActionObjectMockMvc.perform(put("/api/action-objects")
+                .contentType(TestUtil.APPLICATION_JSON_UTF8)
+                .content(TestUtil.convertObjectToJsonBytes(updatedActionObject)))
+                .andExpect(status().isOk());
+
+            restActionObjectMockMvc.perform(get("/api/action-objects"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].name").value(hasItem(UPDATED_NAME)));
+        } finally {
+            actionObjectRepository.delete(actionObject.getId());
+        }
+    }
+
+    @Test
+    public void transactionSeesItsOwnActionObjects() throws Exception {
+        List<ActionObjectDTO> cached = referenceDataService.getAllActionObjects();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.execute(status -> {
+            actionObjectRepository.saveAndFlush(actionObject);
+            // the save is evicted from the cache only after the commit, so the transaction reads past the cache
+            assertThat(referenceDataService.getAllActionObjects()).extracting("id").contains(actionObject.getId());
+            status.setRollbackOnly();
+            return null;
+        });
+        assertThat(referenceDataService.getAllActionObjects()).isSameAs(cached);
+    }
+
+    private long cacheHits() {
+        Gauge<?> hits = metricRegistry.getGauges().get(MetricRegistry.name("cache", CacheConfiguration.ACTION_OBJECT_LIST, "hits"));
+        return (Long) hits.getValue();
+    }
 }
@@ -7,6 +7,7 @@ import de.extremeenvironment.disasterservice.domain.Action;
 import de.extremeenvironment.disasterservice.domain.Disaster;
 import de.extremeenvironment.disasterservice.domain.User;
 import de.extremeenvironment.disasterservice.domain.enumeration.ActionType;
+import de.extremeenvironment.disasterservice.domain.enumeration.MatchStatus;
 import de.extremeenvironment.disasterservice.repository.ActionObjectRepository;
 import de.extremeenvironment.disasterservice.repository.ActionRepository;
 import de.extremeenvironment.disasterservice.repository.DisasterRepository;
@@ -30,12 +31,16 @@ import util.WithMockOAuth2Authentication;
 
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
+import java.util.Arrays;
 import java.util.List;
 
 import static junit.framework.TestCase.assertFalse;
 import static junit.framework.TestCase.assertTrue;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -159,6 +164,48 @@ public class ActionResourceIntTest {
 
     }
 
+    @Test
+    @Transactional
+    @WithMockOAuth2Authentication(scope = "web-app")
+    public void createActionsInBatch() throws Exception {
+        int databaseSizeBeforeCreate = actionRepository.findAll().size();
+
+        Action withId = new Action();
+        withId.setId(1L);
+        withId.setLat(DEFAULT_LAT);
+        withId.setLon(DEFAULT_LON);
+        withId.setActionType(DEFAULT_ACTION_TYPE);
+
+        Action withoutLat = new Action();
+        withoutLat.setLon(DEFAULT_LON);
+        withoutLat.setActionType(DEFAULT_ACTION_TYPE);
+
+        Action inDisaster = new Action();
+        inDisaster.setLat(DEFAULT_LAT);
+        inDisaster.setLon(DEFAULT_LON);
+        inDisaster.setActionType(ActionType.SEEK);
+        inDisaster.setDisaster(disaster);
+
+        restActionMockMvc.perform(post("/api/actions/batch")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(Arrays.asList(action, withId, withoutLat, inDisaster))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$").value(hasSize(4)))
+            .andExpect(jsonPath("$[0].id").isNumber())
+            .andExpect(jsonPath("$[0].matchStatus").value(MatchStatus.UNMATCHED.toString()))
+            .andExpect(jsonPath("$[1].error").value("idexists"))
+            .andExpect(jsonPath("$[2].error").value("invalid"))
+            .andExpect(jsonPath("$[3].index").value(3))
+            .andExpect(jsonPath("$[3].id").isNumber());
+
+        List<Action> actions = actionRepository.findAll();
+        assertThat(actions).hasSize(databaseSizeBeforeCreate + 2);
+        Action testAction = actions.get(actions.size() - 1);
+        assertThat(testAction.getActionType()).isEqualTo(ActionType.SEEK);
+        assertThat(testAction.getDisaster().getId()).isEqualTo(disaster.getId());
+        assertThat(testAction.getUser()).isNotNull();
+    }
+
     @Test
     @Transactional
     @WithMockOAuth2Authentication(scope = "web-app")
@@ -292,6 +339,32 @@ public class ActionResourceIntTest {
         assertThat(testAction.getActionType()).isEqualTo(UPDATED_ACTION_TYPE);
     }
 
+    @Test
+    @Transactional
+    @WithMockOAuth2Authentication(scope = "web-app")
+    public void updateActionIgnoresLikeCounter() throws Exception {
+        // Initialize the database
+        actionRepository.saveAndFlush(action);
+
+        Action updatedAction = new Action();
+        updatedAction.setId(action.getId());
+        updatedAction.setLat(UPDATED_LAT);
+        updatedAction.setLon(UPDATED_LON);
+        updatedAction.setIsExpired(DEFAULT_IS_EXPIRED);
+        updatedAction.setActionType(DEFAULT_ACTION_TYPE);
+        updatedAction.setLikeCounter(action.getLikeCounter() + 5);
+
+        restActionMockMvc.perform(put("/api/actions")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(updatedAction)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.likeCounter").value(action.getLikeCounter().intValue()));
+
+        Action testAction = actionRepository.findOne(action.getId());
+        assertThat(testAction.getLat()).isEqualTo(UPDATED_LAT);
+        assertThat(testAction.getLikeCounter()).isEqualTo(action.getLikeCounter());
+    }
+
     @Test
     @Transactional
     @WithMockOAuth2Authentication(scope = "web-app")
@@ -387,6 +460,31 @@ public class ActionResourceIntTest {
 
     }
 
+    @Test
+    @Transactional
+    @WithMockOAuth2Authentication(scope = "web-app")
+    public void testActionIsNotMatchedWithExpiredCatastrophy() throws Exception {
+        disaster.setIsExpired(true);
+        disasterRepository.saveAndFlush(disaster);
+
+        Action actionT = new Action();
+        actionT.setLat(64F);
+        actionT.setLon(64F);
+        actionT.setActionType(UPDATED_ACTION_TYPE);
+        actionT.setIsExpired(DEFAULT_IS_EXPIRED);
+        actionT.setUser(user);
+
+        restActionMockMvc.perform(post("/api/actions")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(actionT)))
+            .andExpect(status().isCreated());
+
+        List<Action> actions = actionRepository.findAll();
+        Action testAction = actions.get(actions.size() - 1);
+
+        assertFalse(testAction.getDisaster().equals(disaster));
+    }
+
     @Test
     @Transactional
     @WithMockOAuth2Authentication(username = "admin", scope = "web-app")
@@ -412,6 +510,56 @@ public class ActionResourceIntTest {
 
     }
 
+    @Test
+    @Transactional
+    @WithMockOAuth2Authentication(scope = "web-app")
+    public void getAllActionsByKeyset() throws Exception {
+        Action first = actionRepository.saveAndFlush(action);
+        Action second = new Action();
+        second.setLat(DEFAULT_LAT);
+        second.setLon(DEFAULT_LON);
+        second.setIsExpired(DEFAULT_IS_EXPIRED);
+        second.setActionType(DEFAULT_ACTION_TYPE);
+        actionRepository.saveAndFlush(second);
+
+        restActionMockMvc.perform(get("/api/actions?after={after}&size=1", first.getId() - 1))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$").value(hasSize(1)))
+            .andExpect(jsonPath("$[0].id").value(first.getId().intValue()))
+            .andExpect(header().string("Link", containsString("after=" + first.getId() + "&size=1>; rel=\"next\"")));
+
+        restActionMockMvc.perform(get("/api/actions?after={after}&size=1", first.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].id").value(second.getId().intValue()));
+
+        restActionMockMvc.perform(get("/api/actions?after={after}", second.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$").value(hasSize(0)))
+            .andExpect(header().string("Link", not(containsString("rel=\"next\""))));
+    }
+
+    @Test
+    @Transactional
+    @WithMockOAuth2Authentication(scope = "web-app")
+    public void getTopTenKnowledge() throws Exception {
+        for (long likes = 0; likes < 12; likes++) {
+            Action knowledge = new Action();
+            knowledge.setLat(DEFAULT_LAT);
+            knowledge.setLon(DEFAULT_LON);
+            knowledge.setIsExpired(false);
+            knowledge.setActionType(ActionType.KNOWLEDGE);
+            knowledge.setDisaster(disaster);
+            knowledge.setLikeCounter(likes);
+            actionRepository.saveAndFlush(knowledge);
+        }
+
+        restActionMockMvc.perform(get("/api/actions/{id}/topTenKnowledge", disaster.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$").value(hasSize(10)))
+            .andExpect(jsonPath("$[0].likeCounter").value(11))
+            .andExpect(jsonPath("$[9].likeCounter").value(2));
+    }
+
     /* TODO
      * dieser test failed, ist aber sinn los. In JUNIT muss jede Methode davon ausgehen, dass sie
      * zu erst ran kommt
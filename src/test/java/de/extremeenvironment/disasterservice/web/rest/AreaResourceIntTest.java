@@ -5,13 +5,17 @@ import de.extremeenvironment.disasterservice.config.JHipsterProperties;
 import de.extremeenvironment.disasterservice.domain.*;
 import de.extremeenvironment.disasterservice.domain.Area;
 import de.extremeenvironment.disasterservice.repository.*;
+import de.extremeenvironment.disasterservice.service.index.AreaIndex;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import static junit.framework.TestCase.assertTrue;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
 
 import org.mockito.MockitoAnnotations;
 import org.slf4j.Logger;
@@ -30,6 +34,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
+import javax.persistence.EntityManager;
 import java.awt.geom.*;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -57,6 +62,9 @@ public class AreaResourceIntTest {
     @Inject
     private AreaRepository areaRepository;
 
+    @Inject
+    private AreaIndex areaIndex;
+
     @Inject
     private CornerRepository cornerRepository;
 
@@ -69,6 +77,9 @@ public class AreaResourceIntTest {
     @Inject
     private NgoRepository ngoRepository;
 
+    @Inject
+    private EntityManager entityManager;
+
     @Inject
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
 
@@ -84,7 +95,7 @@ public class AreaResourceIntTest {
     @PostConstruct
     public void setup() {
         MockitoAnnotations.initMocks(this);
-        AreaResource areaResource = new AreaResource(areaRepository,cornerRepository,ngoRepository);
+        AreaResource areaResource = new AreaResource(areaRepository,cornerRepository,ngoRepository,areaIndex);
         ReflectionTestUtils.setField(areaResource, "areaRepository", areaRepository);
         this.restAreaMockMvc = MockMvcBuilders.standaloneSetup(areaResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
@@ -149,6 +160,30 @@ public class AreaResourceIntTest {
         Area testArea = areas.get(areas.size() - 1);
     }
 
+    @Test
+    @Transactional
+    public void getAreasContaining() throws Exception {
+        // Initialize the database
+        Area triangle = new Area();
+        float[][] coordinates = {{10F, 10F}, {12F, 10F}, {12F, 12F}};
+        for (float[] coordinate : coordinates) {
+            Corner corner = new Corner();
+            corner.setLat(coordinate[0]);
+            corner.setLon(coordinate[1]);
+            corner.setArea(triangle);
+            triangle.getCorners().add(corner);
+        }
+        areaRepository.saveAndFlush(triangle);
+
+        restAreaMockMvc.perform(get("/api/areas/containing?lat=11.5&lon=10.5"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(hasItem(triangle.getId().intValue())));
+
+        restAreaMockMvc.perform(get("/api/areas/containing?lat=10.5&lon=11.8"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$").isEmpty());
+    }
+
     @Test
     @Transactional
     public void getAllAreas() throws Exception {
@@ -162,6 +197,46 @@ public class AreaResourceIntTest {
             .andExpect(jsonPath("$.[*].id").value(hasItem(area.getId().intValue())));
     }
 
+    @Test
+    @Transactional
+    public void getAllAreasByKeyset() throws Exception {
+        List<Area> areas = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Area pagedArea = new Area();
+            for (int j = 0; j < 3; j++) {
+                Corner corner = new Corner();
+                corner.setLat((float) i);
+                corner.setLon((float) j);
+                corner.setArea(pagedArea);
+                pagedArea.getCorners().add(corner);
+            }
+            areas.add(areaRepository.save(pagedArea));
+        }
+        // the page is read from the database, not from the areas built above
+        entityManager.flush();
+        entityManager.clear();
+        Area first = areas.get(0);
+        Area second = areas.get(1);
+        Area third = areas.get(2);
+
+        // two areas with three corners each are six joined rows, the page size still counts areas
+        restAreaMockMvc.perform(get("/api/areas?after={after}&size=2", first.getId() - 1))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$").value(hasSize(2)))
+            .andExpect(jsonPath("$[0].id").value(first.getId().intValue()))
+            .andExpect(jsonPath("$[0].corners").value(hasSize(3)))
+            .andExpect(jsonPath("$[1].id").value(second.getId().intValue()))
+            .andExpect(jsonPath("$[1].corners").value(hasSize(3)))
+            .andExpect(header().string("Link", containsString("after=" + second.getId() + "&size=2>; rel=\"next\"")));
+
+        restAreaMockMvc.perform(get("/api/areas?after={after}&size=2", second.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$").value(hasSize(1)))
+            .andExpect(jsonPath("$[0].id").value(third.getId().intValue()))
+            .andExpect(jsonPath("$[0].corners").value(hasSize(3)))
+            .andExpect(header().string("Link", not(containsString("rel=\"next\""))));
+    }
+
     @Test
     @Transactional
     public void getArea() throws Exception {
@@ -276,6 +351,35 @@ public class AreaResourceIntTest {
 
     }
 
+    @Test
+    @Transactional
+    public void createAreaWithCornerIds() throws Exception {
+        Area a = new Area();
+        Ngo ngo = new Ngo();
+        ngo.setName("Corner Ids");
+        a.setNgo(ngo);
+
+        // ids sent by the client are ignored, the corners are always created
+        long id = 4711;
+        for (float[] position : new float[][]{{60F, 60F}, {61F, 60F}, {61F, 61F}, {60F, 61F}}) {
+            Corner corner = new Corner();
+            corner.setId(id++);
+            corner.setLat(position[0]);
+            corner.setLon(position[1]);
+            a.getCorners().add(corner);
+        }
+
+        restAreaMockMvc.perform(post("/api/areas")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(a)))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.corners").value(hasSize(4)))
+            .andExpect(jsonPath("$.corners[*].id").value(not(hasItem(4711))));
+
+        List<Area> areas = areaRepository.findAll();
+        assertThat(areas.get(areas.size() - 1).getCorners()).hasSize(4);
+    }
+
     @Test
     @Transactional
     public void createOverlappingArea() throws Exception {
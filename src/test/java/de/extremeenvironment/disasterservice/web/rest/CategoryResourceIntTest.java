@@ -3,6 +3,7 @@ package de.extremeenvironment.disasterservice.web.rest;
 import de.extremeenvironment.disasterservice.DisasterServiceApp;
 import de.extremeenvironment.disasterservice.domain.Category;
 import de.extremeenvironment.disasterservice.repository.CategoryRepository;
+import de.extremeenvironment.disasterservice.service.ReferenceDataService;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -47,6 +48,9 @@ public class CategoryResourceIntTest {
     @Inject
     private CategoryRepository categoryRepository;
 
+    @Inject
+    private ReferenceDataService referenceDataService;
+
     @Inject
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
 
@@ -62,6 +66,7 @@ public class CategoryResourceIntTest {
         MockitoAnnotations.initMocks(this);
         CategoryResource categoryResource = new CategoryResource();
         ReflectionTestUtils.setField(categoryResource, "categoryRepository", categoryRepository);
+        ReflectionTestUtils.setField(categoryResource, "referenceDataService", referenceDataService);
         this.restCategoryMockMvc = MockMvcBuilders.standaloneSetup(categoryResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
             .setMessageConverters(jacksonMessageConverter).build();
@@ -8,7 +8,7 @@ import de.extremeenvironment.disasterservice.domain.enumeration.ActionType;
 import de.extremeenvironment.disasterservice.repository.ActionRepository;
 import de.extremeenvironment.disasterservice.repository.DisasterRepository;
 import de.extremeenvironment.disasterservice.repository.DisasterTypeRepository;
-import de.extremeenvironment.disasterservice.service.DisasterService;
+import de.extremeenvironment.disasterservice.web.rest.util.PointsUtil;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -27,13 +27,17 @@ import util.WithMockOAuth2Authentication;
 
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import static junit.framework.TestCase.assertEquals;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -75,9 +79,6 @@ public class DisasterResourceIntTest {
     @Inject
     private ActionRepository actionRepository;
 
-    @Inject
-    private DisasterService disasterService;
-
     @Inject
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
 
@@ -160,6 +161,204 @@ public class DisasterResourceIntTest {
                 .andExpect(jsonPath("$.[*].description").value(hasItem(DEFAULT_DESCRIPTION.toString())));
     }
 
+    @Test
+    @Transactional
+    @WithMockOAuth2Authentication(username = "admin", scope = "web-app")
+    public void getAllDisastersByKeyset() throws Exception {
+        Disaster first = disasterRepository.saveAndFlush(disaster);
+        Disaster second = new Disaster();
+        second.setIsExpired(DEFAULT_IS_EXPIRED);
+        second.setLat(DEFAULT_LAT);
+        second.setLon(DEFAULT_LON);
+        second.setTitle(DEFAULT_TITLE);
+        second.setDescription(DEFAULT_DESCRIPTION);
+        second.setDisasterType(diTy);
+        disasterRepository.saveAndFlush(second);
+
+        restDisasterMockMvc.perform(get("/api/disasters?after={after}&size=1", first.getId() - 1))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$").value(hasSize(1)))
+            .andExpect(jsonPath("$[0].id").value(first.getId().intValue()))
+            .andExpect(header().string("Link", containsString("after=" + first.getId() + "&size=1>; rel=\"next\"")));
+
+        restDisasterMockMvc.perform(get("/api/disasters?after={after}&size=1", first.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].id").value(second.getId().intValue()));
+
+        restDisasterMockMvc.perform(get("/api/disasters?after={after}", second.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$").value(hasSize(0)))
+            .andExpect(header().string("Link", not(containsString("rel=\"next\""))));
+    }
+
+    @Test
+    @Transactional
+    @WithMockOAuth2Authentication(username = "admin", scope = "web-app")
+    public void getActionsForHeatmapByKeyset() throws Exception {
+        disasterRepository.saveAndFlush(disaster);
+        Action seek = saveHeatmapAction(ActionType.SEEK, 10.1F, 20.1F, false);
+        // offers are not part of the heatmap and must not end up on a page
+        saveHeatmapAction(ActionType.OFFER, 10.2F, 20.2F, false);
+        Action knowledge = saveHeatmapAction(ActionType.KNOWLEDGE, 10.3F, 20.3F, false);
+
+        restDisasterMockMvc.perform(get("/api/disasters/{id}/heatmap?after={after}&size=1", disaster.getId(), seek.getId() - 1))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$").value(hasSize(1)))
+            .andExpect(jsonPath("$[0].id").value(seek.getId().intValue()))
+            .andExpect(header().string("Link", containsString(
+                "/api/disasters/" + disaster.getId() + "/heatmap?after=" + seek.getId() + "&size=1>; rel=\"next\"")));
+
+        restDisasterMockMvc.perform(get("/api/disasters/{id}/heatmap?after={after}&size=1", disaster.getId(), seek.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$").value(hasSize(1)))
+            .andExpect(jsonPath("$[0].id").value(knowledge.getId().intValue()));
+
+        restDisasterMockMvc.perform(get("/api/disasters/{id}/heatmap?after={after}", disaster.getId(), knowledge.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$").value(hasSize(0)))
+            .andExpect(header().string("Link", not(containsString("rel=\"next\""))));
+    }
+
+    @Test
+    @Transactional
+    @WithMockOAuth2Authentication(username = "admin", scope = "web-app")
+    public void getHeatmapGrid() throws Exception {
+        disasterRepository.saveAndFlush(disaster);
+        saveHeatmapAction(ActionType.SEEK, 10.1F, 20.1F, false);
+        saveHeatmapAction(ActionType.KNOWLEDGE, 10.2F, 20.2F, false);
+        saveHeatmapAction(ActionType.SEEK, 10.9F, 20.9F, false);
+        saveHeatmapAction(ActionType.SEEK, 10.3F, 20.3F, true);
+        saveHeatmapAction(ActionType.OFFER, 10.4F, 20.4F, false);
+
+        // cells of 1.024 degrees, the first two actions share the cell [9.216, 10.24) x [19.456, 20.48)
+        restDisasterMockMvc.perform(get("/api/disasters/{id}/heatmap/grid?cellSize=1", disaster.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-disasterServiceApp-cellSize", "1.024"))
+            .andExpect(jsonPath("$").value(hasSize(2)))
+            .andExpect(jsonPath("$[*][2]").value(hasItem(2.0)))
+            .andExpect(jsonPath("$[*][2]").value(hasItem(1.0)));
+
+        restDisasterMockMvc.perform(get("/api/disasters/{id}/heatmap/grid", disaster.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$").value(hasSize(3)));
+    }
+
+    @Test
+    @Transactional
+    @WithMockOAuth2Authentication(username = "admin", scope = "web-app")
+    public void getPackedPoints() throws Exception {
+        disasterRepository.saveAndFlush(disaster);
+        saveHeatmapAction(ActionType.SEEK, 10.1F, 20.1F, false);
+
+        byte[] body = restDisasterMockMvc.perform(get("/api/disasters?after={after}", disaster.getId() - 1)
+            .accept(PointsUtil.APPLICATION_POINTS_VALUE))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(PointsUtil.APPLICATION_POINTS_VALUE))
+            .andReturn().getResponse().getContentAsByteArray();
+        assertThat(body).hasSize(PointsUtil.POINT_BYTES);
+        ByteBuffer buffer = ByteBuffer.wrap(body).order(ByteOrder.LITTLE_ENDIAN);
+        assertThat(buffer.getLong()).isEqualTo(disaster.getId());
+        assertThat(buffer.getFloat()).isEqualTo(DEFAULT_LAT);
+        assertThat(buffer.getFloat()).isEqualTo(DEFAULT_LON);
+
+        body = restDisasterMockMvc.perform(get("/api/disasters/{id}/heatmap", disaster.getId())
+            .accept(PointsUtil.APPLICATION_POINTS_VALUE))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsByteArray();
+        assertThat(body).hasSize(PointsUtil.POINT_BYTES);
+        assertThat(ByteBuffer.wrap(body).order(ByteOrder.LITTLE_ENDIAN).getFloat(8)).isEqualTo(10.1F);
+
+        body = restDisasterMockMvc.perform(get("/api/disasters/{id}/heatmap/grid?cellSize=1", disaster.getId())
+            .accept(PointsUtil.APPLICATION_POINTS_VALUE))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-disasterServiceApp-cellSize", "1.024"))
+            .andReturn().getResponse().getContentAsByteArray();
+        assertThat(body).hasSize(PointsUtil.CELL_BYTES);
+        assertThat(ByteBuffer.wrap(body).order(ByteOrder.LITTLE_ENDIAN).getInt(8)).isEqualTo(1);
+
+        // clients accepting anything still get JSON
+        restDisasterMockMvc.perform(get("/api/disasters/{id}/heatmap", disaster.getId())
+            .accept(MediaType.APPLICATION_JSON, MediaType.ALL))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(jsonPath("$").value(hasSize(1)));
+    }
+
+    @Test
+    @Transactional
+    @WithMockOAuth2Authentication(username = "admin", scope = "web-app")
+    public void getPointsAsJsonByDefault() throws Exception {
+        disasterRepository.saveAndFlush(disaster);
+        saveHeatmapAction(ActionType.SEEK, 10.1F, 20.1F, false);
+
+        // JSON is the default of every point endpoint, whatever the order of the handler methods
+        for (String path : new String[]{"/api/disasters", "/api/disasters/{id}/heatmap", "/api/disasters/{id}/heatmap/grid"}) {
+            restDisasterMockMvc.perform(get(path, disaster.getId()).accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+
+            restDisasterMockMvc.perform(get(path, disaster.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+
+            restDisasterMockMvc.perform(get(path, disaster.getId()).header("Accept", "application/json, " + PointsUtil.APPLICATION_POINTS_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+
+            // the packed format only when it is ranked above JSON
+            restDisasterMockMvc.perform(get(path, disaster.getId()).header("Accept", "application/json;q=0.5, " + PointsUtil.APPLICATION_POINTS_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(PointsUtil.APPLICATION_POINTS_VALUE));
+        }
+
+        restDisasterMockMvc.perform(get("/api/disasters").accept(MediaType.TEXT_PLAIN))
+            .andExpect(status().isNotAcceptable());
+    }
+
+    @Test
+    @Transactional
+    @WithMockOAuth2Authentication(username = "admin", scope = "web-app")
+    public void exportActions() throws Exception {
+        disasterRepository.saveAndFlush(disaster);
+        Action first = saveHeatmapAction(ActionType.SEEK, 10.1F, 20.1F, false);
+        first.setTitle("water, food");
+        actionRepository.saveAndFlush(first);
+        Action second = saveHeatmapAction(ActionType.OFFER, 10.2F, 20.2F, true);
+
+        String ndjson = restDisasterMockMvc.perform(get("/api/disasters/{id}/actions/export", disaster.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/x-ndjson;charset=UTF-8"))
+            .andReturn().getResponse().getContentAsString();
+        String[] lines = ndjson.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("{\"id\":" + first.getId() + ",\"actionType\":\"SEEK\",\"title\":\"water, food\"");
+        assertThat(lines[1]).startsWith("{\"id\":" + second.getId() + ",\"actionType\":\"OFFER\"");
+
+        String csv = restDisasterMockMvc.perform(get("/api/disasters/{id}/actions/export?format=csv", disaster.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Disposition", containsString(".csv")))
+            .andReturn().getResponse().getContentAsString();
+        lines = csv.split("\r\n");
+        assertThat(lines).hasSize(3);
+        assertThat(lines[0]).isEqualTo("id,actionType,title,description,lat,lon,date,isExpired,likeCounter,userId,matchId,actionObjects");
+        assertThat(lines[1]).startsWith(first.getId() + ",SEEK,\"water, food\",,10.1,20.1,,false,");
+
+        restDisasterMockMvc.perform(get("/api/disasters/{id}/actions/export?format=xml", disaster.getId()))
+            .andExpect(status().isBadRequest());
+        restDisasterMockMvc.perform(get("/api/disasters/{id}/actions/export", Long.MAX_VALUE))
+            .andExpect(status().isNotFound());
+    }
+
+    private Action saveHeatmapAction(ActionType actionType, float lat, float lon, boolean expired) {
+        Action action = new Action();
+        action.setActionType(actionType);
+        action.setLat(lat);
+        action.setLon(lon);
+        action.setIsExpired(expired);
+        action.setDisaster(disaster);
+        return actionRepository.saveAndFlush(action);
+    }
+
     @Test
     @Transactional
     @WithMockOAuth2Authentication(username = "admin", scope = "web-app")
@@ -1,8 +1,12 @@
 package de.extremeenvironment.disasterservice.web.rest;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
 import de.extremeenvironment.disasterservice.DisasterServiceApp;
+import de.extremeenvironment.disasterservice.config.CacheConfiguration;
 import de.extremeenvironment.disasterservice.domain.DisasterType;
 import de.extremeenvironment.disasterservice.repository.DisasterTypeRepository;
+import de.extremeenvironment.disasterservice.service.ReferenceDataService;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -23,6 +27,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
+import javax.persistence.EntityManagerFactory;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -47,6 +52,15 @@ public class DisasterTypeResourceIntTest {
     @Inject
     private DisasterTypeRepository disasterTypeRepository;
 
+    @Inject
+    private ReferenceDataService referenceDataService;
+
+    @Inject
+    private MetricRegistry metricRegistry;
+
+    @Inject
+    private EntityManagerFactory entityManagerFactory;
+
     @Inject
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
 
@@ -62,6 +76,7 @@ public class DisasterTypeResourceIntTest {
         MockitoAnnotations.initMocks(this);
         DisasterTypeResource disasterTypeResource = new DisasterTypeResource();
         ReflectionTestUtils.setField(disasterTypeResource, "disasterTypeRepository", disasterTypeRepository);
+        ReflectionTestUtils.setField(disasterTypeResource, "referenceDataService", referenceDataService);
         this.restDisasterTypeMockMvc = MockMvcBuilders.standaloneSetup(disasterTypeResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
             .setMessageConverters(jacksonMessageConverter).build();
@@ -169,6 +184,71 @@ public class DisasterTypeResourceIntTest {
         assertThat(disasterTypes).hasSize(databaseSizeBeforeDelete - 1);
     }
 
-}
+    @Test
+    public void updateDisasterTypeEvictsCache() throws Exception {
+        // committed, so the disaster type and the lookups reach the second-level cache
+        disasterTypeRepository.saveAndFlush(disasterType);
+        try {
+            restDisasterTypeMockMvc.perform(get("/api/disaster-types/{id}", disasterType.getId()))
+                .andExpect(status().isOk());
+            long hits = cacheHits(CacheConfiguration.DISASTER_TYPES);
+            restDisasterTypeMockMvc.perform(get("/api/disaster-types/{id}", disasterType.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value(DEFAULT_NAME));
+            assertThat(cacheHits(CacheConfiguration.DISASTER_TYPES)).isGreaterThan(hits);
+
+            assertThat(disasterTypeRepository.findByName(DEFAULT_NAME)).isPresent();
+            hits = cacheHits(CacheConfiguration.QUERIES);
+            assertThat(disasterTypeRepository.findByName(DEFAULT_NAME)).isPresent();
+            assertThat(cacheHits(CacheConfiguration.QUERIES)).isGreaterThan(hits);
+
+            DisasterType updatedDisasterType = new DisasterType();
+            updatedDisasterType.setId(disasterType.getId());
+            updatedDisasterType.setName(UPDATED_NAME);
+            restDisasterTypeMockMvc.perform(put("/api/disaster-types")
+                .contentType(TestUtil.APPLICATION_JSON_UTF8)
+                .content(TestUtil.convertObjectToJsonBytes(updatedDisasterType)))
+                .andExpect(status().isOk());
+
+            restDisasterTypeMockMvc.perform(get("/api/disaster-types/{id}", disasterType.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value(UPDATED_NAME));
+            assertThat(disasterTypeRepository.findByName(DEFAULT_NAME)).isEmpty();
+            assertThat(disasterTypeRepository.findByName(UPDATED_NAME)).isPresent();
+        } finally {
+            disasterTypeRepository.delete(disasterType.getId());
+        }
+    }
 
+    @Test
+    public void updateDisasterTypeWithColdCache() throws Exception {
+        disasterTypeRepository.saveAndFlush(disasterType);
+        try {
+            // the update loads the disaster type itself, nothing has been cached before
+            entityManagerFactory.getCache().evict(DisasterType.class);
+            DisasterType updatedDisasterType = new DisasterType();
+            updatedDisasterType.setId(disasterType.getId());
+            updatedDisasterType.setName(UPDATED_NAME);
+            restDisasterTypeMockMvc.perform(put("/api/disaster-types")
+                .contentType(TestUtil.APPLICATION_JSON_UTF8)
+                .content(TestUtil.convertObjectToJsonBytes(updatedDisasterType)))
+                .andExpect(status().isOk());
+
+            restDisasterTypeMockMvc.perform(get("/api/disaster-types/{id}", disasterType.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value(UPDATED_NAME));
+            long hits = cacheHits(CacheConfiguration.DISASTER_TYPES);
+            restDisasterTypeMockMvc.perform(get("/api/disaster-types/{id}", disasterType.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value(UPDATED_NAME));
+            assertThat(cacheHits(CacheConfiguration.DISASTER_TYPES)).isGreaterThan(hits);
+        } finally {
+            disasterTypeRepository.delete(disasterType.getId());
+        }
+    }
 
+    private long cacheHits(String region) {
+        Gauge<?> hits = metricRegistry.getGauges().get(MetricRegistry.name("cache", region, "hits"));
+        return (Long) hits.getValue();
+    }
+}
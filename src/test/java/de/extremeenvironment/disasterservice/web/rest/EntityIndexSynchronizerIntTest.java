@@ -0,0 +1,112 @@
+package de.extremeenvironment.disasterservice.web.rest;
+
+import de.extremeenvironment.disasterservice.DisasterServiceApp;
+import de.extremeenvironment.disasterservice.domain.Disaster;
+import de.extremeenvironment.disasterservice.domain.Tombstone;
+import de.extremeenvironment.disasterservice.repository.DisasterRepository;
+import de.extremeenvironment.disasterservice.repository.TombstoneRepository;
+import de.extremeenvironment.disasterservice.service.index.DisasterGridIndex;
+import de.extremeenvironment.disasterservice.service.index.EntityIndexSynchronizer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.boot.test.WebIntegrationTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.inject.Inject;
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for applying the changes of other instances to the indexes.
+ *
+ * <p>
+ * The changes of the other instance are written with plain JDBC, so the entity listeners of this instance miss them.
+ * </p>
+ *
+ * @see EntityIndexSynchronizer
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = DisasterServiceApp.class)
+@WebIntegrationTest({
+    "spring.profiles.active:test",
+    "server.port:0"
+})
+public class EntityIndexSynchronizerIntTest {
+
+    @Inject
+    private EntityIndexSynchronizer entityIndexSynchronizer;
+
+    @Inject
+    private DisasterGridIndex disasterGridIndex;
+
+    @Inject
+    private DisasterRepository disasterRepository;
+
+    @Inject
+    private TombstoneRepository tombstoneRepository;
+
+    @Inject
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private Disaster disaster;
+
+    private Tombstone tombstone;
+
+    @Before
+    public void initTest() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        disaster = new Disaster();
+        disaster.setIsExpired(false);
+        disaster.setLat(-60F);
+        disaster.setLon(-60F);
+        disaster = disasterRepository.save(disaster);
+    }
+
+    @After
+    public void cleanUp() {
+        if (disasterRepository.exists(disaster.getId())) {
+            disasterRepository.delete(disaster.getId());
+        }
+        if (tombstone != null) {
+            tombstoneRepository.delete(tombstone.getId());
+        }
+    }
+
+    @Test
+    public void applyUpdateOfOtherInstance() throws Exception {
+        assertThat(disasterGridIndex.findNearest(-60F, -60F, 1000)).isEqualTo(disaster.getId());
+
+        jdbcTemplate.update("update disaster set lat = ?, lon = ?, last_modified_date = ? where id = ?",
+            -61F, -61F, Timestamp.from(Instant.now()), disaster.getId());
+        entityIndexSynchronizer.sync();
+
+        assertThat(disasterGridIndex.findNearest(-61F, -61F, 1000)).isEqualTo(disaster.getId());
+        assertThat(disasterGridIndex.findNearest(-60F, -60F, 1000)).isNotEqualTo(disaster.getId());
+        assertThat(disasterRepository.findOne(disaster.getId()).getLat()).isEqualTo(-61F);
+    }
+
+    @Test
+    public void applyDeletionOfOtherInstance() throws Exception {
+        assertThat(disasterGridIndex.findNearest(-60F, -60F, 1000)).isEqualTo(disaster.getId());
+
+        jdbcTemplate.update("delete from disaster where id = ?", disaster.getId());
+        tombstone = new Tombstone();
+        tombstone.setEntityName(Disaster.class.getSimpleName());
+        tombstone.setEntityId(disaster.getId());
+        tombstone.setDeletedDate(ZonedDateTime.now());
+        tombstone = tombstoneRepository.save(tombstone);
+        entityIndexSynchronizer.sync();
+
+        assertThat(disasterGridIndex.findNearest(-60F, -60F, 1000)).isNotEqualTo(disaster.getId());
+    }
+}
@@ -0,0 +1,167 @@
+package de.extremeenvironment.disasterservice.web.rest;
+
+import de.extremeenvironment.disasterservice.DisasterServiceApp;
+import de.extremeenvironment.disasterservice.client.UserService;
+import de.extremeenvironment.disasterservice.config.JHipsterProperties;
+import de.extremeenvironment.disasterservice.domain.Action;
+import de.extremeenvironment.disasterservice.domain.Disaster;
+import de.extremeenvironment.disasterservice.domain.User;
+import de.extremeenvironment.disasterservice.service.EventBroadcaster;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.boot.test.WebIntegrationTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import util.WithMockOAuth2Authentication;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test class for the EventResource REST controller.
+ *
+ * <p>
+ * Events are only dispatched after a commit, so the tests run without a transaction and close their subscriptions
+ * and remove their user afterwards.
+ * </p>
+ *
+ * @see EventResource
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = DisasterServiceApp.class)
+@WebIntegrationTest({
+    "spring.profiles.active:test",
+    "server.port:0"
+})
+public class EventResourceIntTest {
+
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    @Inject
+    private EventBroadcaster eventBroadcaster;
+
+    @Inject
+    private UserService userService;
+
+    @Inject
+    private WebApplicationContext context;
+
+    private MockMvc restEventMockMvc;
+
+    private List<MvcResult> subscriptions = new ArrayList<>();
+
+    private int subscriberCount;
+
+    @PostConstruct
+    public void setup() {
+        this.restEventMockMvc = MockMvcBuilders.webAppContextSetup(context)
+            .apply(springSecurity())
+            .build();
+    }
+
+    @Before
+    public void initTest() {
+        subscriberCount = eventBroadcaster.getSubscriberCount();
+    }
+
+    @After
+    public void cleanUp() {
+        subscriptions.forEach(subscription -> subscription.getRequest().getAsyncContext().complete());
+        assertThat(eventBroadcaster.getSubscriberCount()).isEqualTo(subscriberCount);
+    }
+
+    @Test
+    @WithMockOAuth2Authentication(username = "event-subscriber", scope = "web-app")
+    public void receiveEvents() throws Exception {
+        MvcResult subscription = restEventMockMvc.perform(get("/api/events"))
+            .andExpect(status().isOk())
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        subscriptions.add(subscription);
+        MockHttpServletResponse response = subscription.getResponse();
+        assertThat(eventBroadcaster.getSubscriberCount()).isEqualTo(subscriberCount + 1);
+
+        eventBroadcaster.publishDisaster(disaster(4711L));
+        awaitContent(response, "\"id\":4711");
+
+        User subscriber = userService.findOrCreateByName("event-subscriber");
+        User other = new User(subscriber.getUserId() + 1);
+        Action seek = action(1001L, subscriber);
+        Action offer = action(1002L, other);
+        eventBroadcaster.publishMatch(seek, offer);
+        awaitContent(response, "\"actionId\":1001,\"matchId\":1002");
+
+        Map<Long, Long> likes = new LinkedHashMap<>();
+        likes.put(1003L, 2L);
+        likes.put(1004L, 1L);
+        eventBroadcaster.publishLikes(likes);
+        awaitContent(response, "[{\"actionId\":1003,\"added\":2},{\"actionId\":1004,\"added\":1}]");
+
+        assertThat(response.getContentAsString())
+            .contains("event:disaster\n")
+            .contains("event:match\n")
+            .contains("event:likes\n")
+            .doesNotContain("\"actionId\":1002");
+    }
+
+    @Test
+    public void disconnectSubscriberWithFullBuffer() throws Exception {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getEvents().setBufferSize(2);
+        // the executor never sends, so every event stays in the buffer
+        EventBroadcaster broadcaster = new EventBroadcaster(task -> { }, jHipsterProperties);
+        broadcaster.subscribe(1L);
+
+        // the likes of many actions take a single place in the buffer
+        Map<Long, Long> likes = new LinkedHashMap<>();
+        for (long actionId = 1; actionId <= 10; actionId++) {
+            likes.put(actionId, 1L);
+        }
+        broadcaster.publishLikes(likes);
+        broadcaster.publishDisaster(disaster(1L));
+        assertThat(broadcaster.getSubscriberCount()).isEqualTo(1);
+
+        broadcaster.publishDisaster(disaster(2L));
+        assertThat(broadcaster.getSubscriberCount()).isEqualTo(0);
+    }
+
+    private static Disaster disaster(Long id) {
+        Disaster disaster = new Disaster();
+        disaster.setId(id);
+        disaster.setLat(1F);
+        disaster.setLon(2F);
+        return disaster;
+    }
+
+    private static Action action(Long id, User user) {
+        Action action = new Action();
+        action.setId(id);
+        action.setUser(user);
+        return action;
+    }
+
+    private static void awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!response.getContentAsString().contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(response.getContentAsString()).contains(expected);
+    }
+}
@@ -0,0 +1,221 @@
+package de.extremeenvironment.disasterservice.web.rest;
+
+import de.extremeenvironment.disasterservice.DisasterServiceApp;
+import de.extremeenvironment.disasterservice.config.JHipsterProperties;
+import de.extremeenvironment.disasterservice.domain.Action;
+import de.extremeenvironment.disasterservice.domain.enumeration.ActionType;
+import de.extremeenvironment.disasterservice.repository.ActionRepository;
+import de.extremeenvironment.disasterservice.service.EventBroadcaster;
+import de.extremeenvironment.disasterservice.service.LikeCounterService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.inject.Inject;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the write-behind of likes.
+ *
+ * <p>
+ * The actions are committed, so every read sees the database state of its own session.
+ * </p>
+ *
+ * @see LikeCounterService
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = DisasterServiceApp.class)
+@WebAppConfiguration
+@IntegrationTest("server.port:0")
+public class LikeCounterIntTest {
+
+    @Inject
+    private ActionRepository actionRepository;
+
+    @Inject
+    private DataSource dataSource;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    private FailingDataSource failingDataSource;
+
+    private TransactionTemplate transactionTemplate;
+
+    private List<Action> actions = new ArrayList<>();
+
+    @Before
+    public void initTest() {
+        failingDataSource = new FailingDataSource(dataSource);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int i = 0; i < 3; i++) {
+            Action action = new Action();
+            action.setLat(1F);
+            action.setLon(1F);
+            action.setIsExpired(false);
+            action.setActionType(ActionType.KNOWLEDGE);
+            actions.add(actionRepository.saveAndFlush(action));
+        }
+    }
+
+    @After
+    public void cleanUp() {
+        actions.forEach(action -> actionRepository.delete(action.getId()));
+    }
+
+    @Test
+    public void flushWritesMergedLikesInBatches() throws Exception {
+        LikeCounterService likeCounterService = createLikeCounterService(new EventBroadcaster(Runnable::run, new JHipsterProperties()));
+        like(likeCounterService, 0, 3);
+        like(likeCounterService, 1, 1);
+        like(likeCounterService, 2, 2);
+        Action before = read(0);
+        assertThat(likeCounterService.getPendingLikes(before.getId(), before.getLastModifiedDate())).isEqualTo(3);
+
+        // three updates in batches of two
+        assertThat(likeCounterService.flush()).isEqualTo(3);
+
+        assertThat(read(0).getLikeCounter()).isEqualTo(3);
+        assertThat(read(1).getLikeCounter()).isEqualTo(1);
+        assertThat(read(2).getLikeCounter()).isEqualTo(2);
+        Action after = read(0);
+        assertThat(likeCounterService.applyPendingLikes(after).getLikeCounter()).isEqualTo(3);
+        // a row read before the flush committed does not contain its likes yet
+        assertThat(likeCounterService.applyPendingLikes(before).getLikeCounter()).isEqualTo(3);
+
+        assertThat(likeCounterService.flush()).isEqualTo(0);
+    }
+
+    @Test
+    public void failedFlushRequeuesLikes() throws Exception {
+        LikeCounterService likeCounterService = createLikeCounterService(new EventBroadcaster(Runnable::run, new JHipsterProperties()));
+        like(likeCounterService, 0, 2);
+
+        failingDataSource.failing = true;
+        assertThat(likeCounterService.flush()).isEqualTo(0);
+        assertThat(read(0).getLikeCounter()).isEqualTo(0);
+        assertThat(likeCounterService.applyPendingLikes(read(0)).getLikeCounter()).isEqualTo(2);
+
+        // likes of the failed flush are merged with new ones
+        like(likeCounterService, 0, 1);
+        failingDataSource.failing = false;
+        assertThat(likeCounterService.flush()).isEqualTo(1);
+        assertThat(read(0).getLikeCounter()).isEqualTo(3);
+        assertThat(likeCounterService.applyPendingLikes(read(0)).getLikeCounter()).isEqualTo(3);
+    }
+
+    @Test
+    public void likesAreCountedOnceWhileFlushCommits() throws Exception {
+        Map<Long, Long> readAfterCommit = new HashMap<>();
+        LikeCounterService[] likeCounterService = new LikeCounterService[1];
+        // events are published right after the commit, while the flush is still running
+        likeCounterService[0] = createLikeCounterService(new EventBroadcaster(Runnable::run, new JHipsterProperties()) {
+            @Override
+            public void publishLikes(Map<Long, Long> added) {
+                added.keySet().forEach(actionId -> {
+                    Action action = transactionTemplate.execute(status -> actionRepository.findOne(actionId));
+                    readAfterCommit.put(actionId, likeCounterService[0].applyPendingLikes(action).getLikeCounter());
+                });
+            }
+        });
+        like(likeCounterService[0], 0, 2);
+
+        likeCounterService[0].flush();
+
+        assertThat(readAfterCommit).containsEntry(actions.get(0).getId(), 2L);
+    }
+
+    @Test
+    public void flushDoesNotMoveLastModifiedDateBack() throws Exception {
+        LikeCounterService likeCounterService = createLikeCounterService(new EventBroadcaster(Runnable::run, new JHipsterProperties()));
+        like(likeCounterService, 0, 1);
+        // a change committed after the flush started
+        Timestamp later = Timestamp.from(Instant.now().plus(1, ChronoUnit.HOURS).truncatedTo(ChronoUnit.MILLIS));
+        new JdbcTemplate(dataSource).update("update action set last_modified_date = ? where id = ?",
+            later, actions.get(0).getId());
+
+        likeCounterService.flush();
+
+        Action action = read(0);
+        assertThat(action.getLikeCounter()).isEqualTo(1);
+        assertThat(action.getLastModifiedDate().toInstant()).isEqualTo(later.toInstant());
+    }
+
+    @Test
+    public void flushPublishesOneLikesEvent() throws Exception {
+        List<Map<Long, Long>> events = new ArrayList<>();
+        LikeCounterService likeCounterService = createLikeCounterService(new EventBroadcaster(Runnable::run, new JHipsterProperties()) {
+            @Override
+            public void publishLikes(Map<Long, Long> added) {
+                events.add(added);
+            }
+        });
+        like(likeCounterService, 0, 3);
+        like(likeCounterService, 1, 1);
+        like(likeCounterService, 2, 2);
+
+        likeCounterService.flush();
+
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0))
+            .containsEntry(actions.get(0).getId(), 3L)
+            .containsEntry(actions.get(1).getId(), 1L)
+            .containsEntry(actions.get(2).getId(), 2L);
+    }
+
+    private LikeCounterService createLikeCounterService(EventBroadcaster eventBroadcaster) {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getLikes().setBatchSize(2);
+        return new LikeCounterService(failingDataSource, transactionManager, jHipsterProperties, eventBroadcaster);
+    }
+
+    private void like(LikeCounterService likeCounterService, int action, int likes) {
+        for (int i = 0; i < likes; i++) {
+            likeCounterService.like(actions.get(action).getId());
+        }
+    }
+
+    private Action read(int action) {
+        return transactionTemplate.execute(status -> actionRepository.findOne(actions.get(action).getId()));
+    }
+
+    /**
+     * fails to hand out connections while {@link #failing} is set
+     */
+    private static class FailingDataSource extends DelegatingDataSource {
+
+        private volatile boolean failing;
+
+        FailingDataSource(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (failing) {
+                throw new SQLException("Database is down");
+            }
+            return super.getConnection();
+        }
+    }
+}
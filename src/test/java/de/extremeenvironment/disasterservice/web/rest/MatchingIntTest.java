@@ -1,18 +1,27 @@
 package de.extremeenvironment.disasterservice.web.rest;
 
 import de.extremeenvironment.disasterservice.DisasterServiceApp;
-import de.extremeenvironment.disasterservice.client.MessageClient;
+import de.extremeenvironment.disasterservice.client.TestMockMessageClient;
 import de.extremeenvironment.disasterservice.client.UserService;
+import de.extremeenvironment.disasterservice.config.JHipsterProperties;
 import de.extremeenvironment.disasterservice.domain.Action;
 import de.extremeenvironment.disasterservice.domain.ActionObject;
 import de.extremeenvironment.disasterservice.domain.Disaster;
 import de.extremeenvironment.disasterservice.domain.User;
 import de.extremeenvironment.disasterservice.domain.enumeration.ActionType;
+import de.extremeenvironment.disasterservice.domain.enumeration.MatchStatus;
 import de.extremeenvironment.disasterservice.repository.ActionObjectRepository;
 import de.extremeenvironment.disasterservice.repository.ActionRepository;
 import de.extremeenvironment.disasterservice.repository.DisasterRepository;
+import de.extremeenvironment.disasterservice.repository.OutboxMessageRepository;
 import de.extremeenvironment.disasterservice.repository.UserRepository;
+import de.extremeenvironment.disasterservice.service.BatchMatchingService;
 import de.extremeenvironment.disasterservice.service.DisasterService;
+import de.extremeenvironment.disasterservice.service.EventBroadcaster;
+import de.extremeenvironment.disasterservice.service.MatchingService;
+import de.extremeenvironment.disasterservice.service.OutboxService;
+import de.extremeenvironment.disasterservice.service.index.ActionGridIndex;
+import de.extremeenvironment.disasterservice.service.index.ActionObjectIndex;
 import org.junit.FixMethodOrder;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -24,23 +33,33 @@ import org.springframework.boot.test.SpringApplicationConfiguration;
 import org.springframework.boot.test.WebIntegrationTest;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.context.WebApplicationContext;
 import util.WithMockOAuth2Authentication;
 
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 
+import static junit.framework.TestCase.assertEquals;
 import static junit.framework.TestCase.assertTrue;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
@@ -70,7 +89,13 @@ public class MatchingIntTest {
     private ActionObjectRepository actionObjectRepository;
 
     @Inject
-    private MessageClient messageClient;
+    private OutboxService outboxService;
+
+    @Inject
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Inject
+    private TestMockMessageClient messageClient;
 
     @Inject
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
@@ -90,6 +115,24 @@ public class MatchingIntTest {
     @Inject
     private UserService userService;
 
+    @Inject
+    private BatchMatchingService batchMatchingService;
+
+    @Inject
+    private ActionGridIndex actionGridIndex;
+
+    @Inject
+    private ActionObjectIndex actionObjectIndex;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    @Inject
+    private EventBroadcaster eventBroadcaster;
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
     private List<Action> matchingActions = new LinkedList<>();
 
 
@@ -394,4 +437,289 @@ public class MatchingIntTest {
 
 
     }
+
+    @Test
+    @Transactional
+    @WithMockOAuth2Authentication(scope = "web-app")
+    public void matchAcrossGridCells() throws Exception {
+        User fortyTwo = userRepository.save(new User(42));
+
+        List<ActionObject> actionObjects = actionObjectRepository.findAll();
+        List<Disaster> disasters = disasterRepository.findAll();
+
+        Action action1Seek = new Action();
+        action1Seek.setLat(-0.49F);
+        action1Seek.setLon(179.99F);
+        action1Seek.setIsExpired(false);
+        action1Seek.setActionType(ActionType.SEEK);
+        action1Seek.setDisaster(disasters.get(disasters.size() - 1));
+        action1Seek.addActionObject(actionObjects.get(actionObjects.size() - 1));
+        action1Seek.setUser(fortyTwo);
+        actionRepository.saveAndFlush(action1Seek);
+
+        Action action2Offer = new Action();
+        action2Offer.setLat(-0.51F);
+        action2Offer.setLon(-179.99F);
+        action2Offer.setIsExpired(false);
+        action2Offer.setActionType(ActionType.OFFER);
+        action2Offer.setDisaster(disasters.get(disasters.size() - 1));
+        action2Offer.addActionObject(actionObjects.get(actionObjects.size() - 1));
+
+        restActionMockMvc.perform(post("/api/actions")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(action2Offer)))
+            .andExpect(status().isCreated());
+
+        List<Action> results = actionRepository.findAll();
+
+        assertTrue(results.get(results.size() - 2).getMatch().equals(results.get(results.size() - 1)));
+        assertTrue(results.get(results.size() - 1).getMatch().equals(results.get(results.size() - 2)));
+    }
+
+    @Test
+    @Transactional
+    @WithMockOAuth2Authentication(scope = "web-app")
+    public void getMatch() throws Exception {
+        User fortyTwo = userRepository.save(new User(42));
+
+        List<ActionObject> actionObjects = actionObjectRepository.findAll();
+        List<Disaster> disasters = disasterRepository.findAll();
+
+        Action action1Seek = new Action();
+        action1Seek.setLat(3F);
+        action1Seek.setLon(3F);
+        action1Seek.setIsExpired(false);
+        action1Seek.setActionType(ActionType.SEEK);
+        action1Seek.setDisaster(disasters.get(disasters.size() - 1));
+        action1Seek.addActionObject(actionObjects.get(actionObjects.size() - 1));
+        action1Seek.setUser(fortyTwo);
+        action1Seek = actionRepository.saveAndFlush(action1Seek);
+
+        Action action2Offer = new Action();
+        action2Offer.setLat(3.005F);
+        action2Offer.setLon(3.005F);
+        action2Offer.setIsExpired(false);
+        action2Offer.setActionType(ActionType.OFFER);
+        action2Offer.setDisaster(disasters.get(disasters.size() - 1));
+        action2Offer.addActionObject(actionObjects.get(actionObjects.size() - 1));
+
+        restActionMockMvc.perform(post("/api/actions")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(action2Offer)))
+            .andExpect(status().isCreated())
+            .andExpect(header().string("X-disasterServiceApp-match", "matched"));
+
+        List<Action> results = actionRepository.findAll();
+        Long offerId = results.get(results.size() - 1).getId();
+
+        restActionMockMvc.perform(get("/api/actions/{id}/match", offerId))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(action1Seek.getId().intValue()));
+
+        restActionMockMvc.perform(get("/api/actions/{id}/match", Long.MAX_VALUE))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    public void batchMatchingFindsOptimalAssignment() throws Exception {
+        User seeker = userRepository.save(new User(43));
+        User offerer = userRepository.save(new User(44));
+
+        ActionObject actionObject = new ActionObject();
+        actionObject.setName("Batch");
+        actionObject = actionObjectRepository.save(actionObject);
+
+        Disaster batchDisaster = new Disaster();
+        batchDisaster.setLat(-10F);
+        batchDisaster.setLon(-10F);
+        batchDisaster = disasterRepository.save(batchDisaster);
+
+        // matching the closest pair first would pair offer1 with seek2 and leave seek1 with the distant offer2
+        Action seek1 = createBatchAction(ActionType.SEEK, -10F, seeker, batchDisaster, actionObject);
+        Action offer1 = createBatchAction(ActionType.OFFER, -9.9F, offerer, batchDisaster, actionObject);
+        Action seek2 = createBatchAction(ActionType.SEEK, -9.81F, seeker, batchDisaster, actionObject);
+        Action offer2 = createBatchAction(ActionType.OFFER, -9.68F, offerer, batchDisaster, actionObject);
+
+        batchMatchingService.matchAll();
+
+        assertEquals(offer1, actionRepository.findOne(seek1.getId()).getMatch());
+        assertEquals(seek1, actionRepository.findOne(offer1.getId()).getMatch());
+        assertEquals(offer2, actionRepository.findOne(seek2.getId()).getMatch());
+        assertEquals(seek2, actionRepository.findOne(offer2.getId()).getMatch());
+    }
+
+    @Test
+    @Transactional
+    @WithMockOAuth2Authentication(scope = "web-app")
+    public void batchMatchingMatchesOfferWithoutDisaster() throws Exception {
+        User seeker = userRepository.save(new User(45));
+
+        ActionObject actionObject = new ActionObject();
+        actionObject.setName("Batch offer");
+        actionObject = actionObjectRepository.save(actionObject);
+
+        Disaster batchDisaster = new Disaster();
+        batchDisaster.setLat(-20F);
+        batchDisaster.setLon(-20F);
+        batchDisaster = disasterRepository.save(batchDisaster);
+
+        Action seek = new Action();
+        seek.setLat(-20F);
+        seek.setLon(-20F);
+        seek.setIsExpired(false);
+        seek.setActionType(ActionType.SEEK);
+        seek.setDisaster(batchDisaster);
+        seek.addActionObject(actionObject);
+        seek.setUser(seeker);
+        seek = actionRepository.saveAndFlush(seek);
+
+        Action offer = new Action();
+        offer.setLat(-20.005F);
+        offer.setLon(-20.005F);
+        offer.setIsExpired(false);
+        offer.setActionType(ActionType.OFFER);
+        offer.addActionObject(actionObject);
+
+        jHipsterProperties.getMatching().getBatch().setEnabled(true);
+        try {
+            restActionMockMvc.perform(post("/api/actions")
+                .contentType(TestUtil.APPLICATION_JSON_UTF8)
+                .content(TestUtil.convertObjectToJsonBytes(offer)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("X-disasterServiceApp-match", "pending"));
+        } finally {
+            jHipsterProperties.getMatching().getBatch().setEnabled(false);
+        }
+
+        List<Action> results = actionRepository.findAll();
+        offer = results.get(results.size() - 1);
+        assertEquals(null, offer.getDisaster());
+
+        assertEquals(1, batchMatchingService.matchAll());
+        assertEquals(offer, actionRepository.findOne(seek.getId()).getMatch());
+    }
+
+    @Test
+    public void fullMatchingQueueDefersMatching() throws Exception {
+        User seeker = userRepository.save(new User(48));
+        User offerer = userRepository.save(new User(49));
+        ActionObject actionObject = new ActionObject();
+        actionObject.setName("Overflow");
+        actionObject = actionObjectRepository.save(actionObject);
+        Action seek = createBatchAction(ActionType.SEEK, 50F, seeker, null, actionObject);
+        Action offer = createBatchAction(ActionType.OFFER, 50F, offerer, null, actionObject);
+        List<Action> actions = Arrays.asList(seek, offer);
+        // one thread and one queued task, both blocked until the latch is released
+        CountDownLatch latch = new CountDownLatch(1);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.initialize();
+        MatchingService matchingService = new MatchingService(actionRepository, outboxService, actionGridIndex,
+            actionObjectIndex, executor, transactionManager, new JHipsterProperties(), eventBroadcaster);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        try {
+            for (int i = 0; i < 2; i++) {
+                executor.execute(() -> {
+                    try {
+                        latch.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+
+            assertEquals(MatchStatus.PENDING, matchingService.submit(seek.getId()));
+            // still rejected while the queue is full
+            matchingService.resubmitRejected();
+            assertEquals(MatchStatus.PENDING, matchingService.awaitMatch(seek.getId(), 100));
+
+            latch.countDown();
+            while (!executor.getThreadPoolExecutor().getQueue().isEmpty()) {
+                Thread.sleep(10);
+            }
+            matchingService.resubmitRejected();
+
+            assertEquals(MatchStatus.MATCHED, matchingService.awaitMatch(seek.getId(), 10000));
+            assertEquals(offer.getId(), transactionTemplate.execute(status ->
+                actionRepository.findOne(seek.getId()).getMatch().getId()));
+        } finally {
+            latch.countDown();
+            executor.shutdown();
+            ActionObject overflow = actionObject;
+            transactionTemplate.execute(status -> {
+                actions.forEach(action -> actionRepository.findOne(action.getId()).setMatch(null));
+                actionRepository.flush();
+                actions.forEach(action -> actionRepository.delete(action.getId()));
+                actionObjectRepository.delete(overflow.getId());
+                userRepository.delete(Arrays.asList(seeker, offerer));
+                return null;
+            });
+        }
+    }
+
+    @Test
+    public void failingActionLeavesOtherActionsOfBatchMatched() throws Exception {
+        User seeker = userRepository.save(new User(46));
+        User offerer = userRepository.save(new User(47));
+        ActionObject actionObject = new ActionObject();
+        actionObject.setName("Isolated");
+        actionObject = actionObjectRepository.save(actionObject);
+        // far enough apart that every seek can only be matched with the offer next to it
+        Action seek1 = createBatchAction(ActionType.SEEK, 30F, seeker, null, actionObject);
+        Action offer1 = createBatchAction(ActionType.OFFER, 30F, offerer, null, actionObject);
+        Action seek2 = createBatchAction(ActionType.SEEK, 40F, seeker, null, actionObject);
+        Action offer2 = createBatchAction(ActionType.OFFER, 40F, offerer, null, actionObject);
+        Long failingMatchId = offer1.getId();
+        OutboxService failingOutbox = new OutboxService(outboxMessageRepository, disasterRepository, actionRepository,
+            messageClient, transactionManager, jHipsterProperties) {
+            @Override
+            public void createConversation(Action action, Action match) {
+                if (failingMatchId.equals(match.getId())) {
+                    throw new IllegalStateException("Outbox is full");
+                }
+                super.createConversation(action, match);
+            }
+        };
+        MatchingService matchingService = new MatchingService(actionRepository, failingOutbox, actionGridIndex,
+            actionObjectIndex, Runnable::run, transactionManager, new JHipsterProperties(), eventBroadcaster);
+        List<Action> actions = Arrays.asList(seek1, offer1, seek2, offer2);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        try {
+            Map<Long, MatchStatus> matchStatus = matchingService.submitAll(Arrays.asList(seek1.getId(), seek2.getId()));
+
+            assertEquals(MatchStatus.UNMATCHED, matchStatus.get(seek1.getId()));
+            assertEquals(MatchStatus.MATCHED, matchStatus.get(seek2.getId()));
+            assertEquals(null, actionRepository.findOne(seek1.getId()).getMatch());
+            assertEquals(null, actionRepository.findOne(offer1.getId()).getMatch());
+            assertEquals(offer2.getId(), transactionTemplate.execute(status ->
+                actionRepository.findOne(seek2.getId()).getMatch().getId()));
+        } finally {
+            ActionObject isolated = actionObject;
+            transactionTemplate.execute(status -> {
+                actions.forEach(action -> actionRepository.findOne(action.getId()).setMatch(null));
+                actionRepository.flush();
+                actions.forEach(action -> actionRepository.delete(action.getId()));
+                actionObjectRepository.delete(isolated.getId());
+                userRepository.delete(Arrays.asList(seeker, offerer));
+                return null;
+            });
+        }
+    }
+
+    private Action createBatchAction(ActionType actionType, float lon, User user, Disaster disaster, ActionObject actionObject) {
+        Action action = new Action();
+        action.setLat(-10F);
+        action.setLon(lon);
+        action.setIsExpired(false);
+        action.setActionType(actionType);
+        action.setDisaster(disaster);
+        action.addActionObject(actionObject);
+        action.setUser(user);
+        return actionRepository.saveAndFlush(action);
+    }
 }
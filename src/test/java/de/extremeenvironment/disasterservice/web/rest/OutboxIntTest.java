@@ -0,0 +1,290 @@
+package de.extremeenvironment.disasterservice.web.rest;
+
+import de.extremeenvironment.disasterservice.DisasterServiceApp;
+import de.extremeenvironment.disasterservice.client.Conversation;
+import de.extremeenvironment.disasterservice.client.MessageClient;
+import de.extremeenvironment.disasterservice.client.TestMockMessageClient;
+import de.extremeenvironment.disasterservice.config.JHipsterProperties;
+import de.extremeenvironment.disasterservice.domain.Action;
+import de.extremeenvironment.disasterservice.domain.Disaster;
+import de.extremeenvironment.disasterservice.domain.OutboxMessage;
+import de.extremeenvironment.disasterservice.domain.User;
+import de.extremeenvironment.disasterservice.domain.enumeration.ActionType;
+import de.extremeenvironment.disasterservice.domain.enumeration.OutboxMessageType;
+import de.extremeenvironment.disasterservice.repository.ActionRepository;
+import de.extremeenvironment.disasterservice.repository.DisasterRepository;
+import de.extremeenvironment.disasterservice.repository.OutboxMessageRepository;
+import de.extremeenvironment.disasterservice.repository.UserRepository;
+import de.extremeenvironment.disasterservice.service.DisasterService;
+import de.extremeenvironment.disasterservice.service.OutboxService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.inject.Inject;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the delivery of outbox messages.
+ *
+ * <p>
+ * The messages are claimed and delivered in transactions of their own, so the tests run without a transaction and
+ * remove their disaster afterwards.
+ * </p>
+ *
+ * @see OutboxService
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = DisasterServiceApp.class)
+@WebAppConfiguration
+@IntegrationTest("server.port:0")
+public class OutboxIntTest {
+
+    @Inject
+    private DisasterService disasterService;
+
+    @Inject
+    private DisasterRepository disasterRepository;
+
+    @Inject
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Inject
+    private ActionRepository actionRepository;
+
+    @Inject
+    private UserRepository userRepository;
+
+    @Inject
+    private TestMockMessageClient messageClient;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    private Disaster disaster;
+
+    @Before
+    public void initTest() {
+        // messages left by other tests would be delivered as well
+        outboxMessageRepository.deleteAll();
+        disaster = new Disaster();
+        disaster.setIsExpired(false);
+        disaster.setLat(1F);
+        disaster.setLon(1F);
+        disaster.setTitle("AAAAA");
+    }
+
+    @After
+    public void cleanUp() {
+        if (disaster.getId() != null) {
+            outboxMessageRepository.delete(outboxMessageRepository.findByDisasterId(disaster.getId()));
+            disasterRepository.delete(disaster.getId());
+        }
+    }
+
+    @Test
+    public void createConversationInBackground() throws Exception {
+        disaster = disasterService.createDisaster(disaster);
+
+        // the message service is not called within the request
+        assertThat(disaster.getConversationId()).isNull();
+        assertThat(outboxMessageRepository.findByDisasterId(disaster.getId())).hasSize(1);
+
+        createOutboxService(messageClient).dispatch();
+
+        assertThat(disasterRepository.findOne(disaster.getId()).getConversationId()).isNotNull();
+        assertThat(outboxMessageRepository.findByDisasterId(disaster.getId())).isEmpty();
+    }
+
+    @Test
+    public void retryFailedOutboxMessage() throws Exception {
+        disaster = disasterService.createDisaster(disaster);
+
+        createOutboxService(new UnavailableMessageClient()).dispatch();
+
+        List<OutboxMessage> messages = outboxMessageRepository.findByDisasterId(disaster.getId());
+        assertThat(messages).hasSize(1);
+        assertThat(messages.get(0).getAttempts()).isEqualTo(1);
+        assertThat(messages.get(0).getNextAttemptDate()).isAfter(ZonedDateTime.now());
+        assertThat(messages.get(0).getLastError()).isEqualTo("message service unavailable");
+        assertThat(disasterRepository.findOne(disaster.getId()).getConversationId()).isNull();
+    }
+
+    @Test
+    public void deferAddMemberUntilConversationExists() throws Exception {
+        disaster = disasterService.createDisaster(disaster);
+        createOutboxService(messageClient).addMember(new User(4711L), disaster);
+
+        createOutboxService(new UnavailableMessageClient()).dispatch();
+
+        OutboxMessage addMember = findMessage(OutboxMessageType.ADD_MEMBER);
+        assertThat(findMessage(OutboxMessageType.DISASTER_CONVERSATION).getAttempts()).isEqualTo(1);
+        // waiting for the conversation is not a failed attempt
+        assertThat(addMember.getAttempts()).isEqualTo(0);
+        assertThat(addMember.getLastError()).isNull();
+        assertThat(addMember.getNextAttemptDate()).isAfter(ZonedDateTime.now());
+
+        outboxMessageRepository.findByDisasterId(disaster.getId()).forEach(message -> {
+            message.setNextAttemptDate(ZonedDateTime.now());
+            outboxMessageRepository.save(message);
+        });
+        createOutboxService(messageClient).dispatch();
+
+        assertThat(disasterRepository.findOne(disaster.getId()).getConversationId()).isNotNull();
+        assertThat(outboxMessageRepository.findByDisasterId(disaster.getId())).isEmpty();
+    }
+
+    @Test
+    public void claimedMessageIsDeliveredOnce() throws Exception {
+        disaster = disasterService.createDisaster(disaster);
+        AtomicInteger conversations = new AtomicInteger();
+        AtomicInteger deliveredByOther = new AtomicInteger(-1);
+        OutboxService other = createOutboxService(messageClient);
+
+        // another instance dispatches while the first one is calling the message service
+        OutboxService outboxService = createOutboxService(new UnavailableMessageClient() {
+            @Override
+            public Conversation addConversation(Conversation conversation) {
+                conversations.incrementAndGet();
+                deliveredByOther.set(CompletableFuture.supplyAsync(other::dispatch).join());
+                return messageClient.addConversation(conversation);
+            }
+        });
+        outboxService.dispatch();
+
+        assertThat(conversations.get()).isEqualTo(1);
+        assertThat(deliveredByOther.get()).isEqualTo(0);
+        assertThat(disasterRepository.findOne(disaster.getId()).getConversationId()).isNotNull();
+        assertThat(outboxMessageRepository.findByDisasterId(disaster.getId())).isEmpty();
+    }
+
+    @Test
+    public void createMatchConversationInBackground() throws Exception {
+        User seeker = userRepository.save(new User(51L));
+        User offerer = userRepository.save(new User(52L));
+        Action seek = createAction(ActionType.SEEK, seeker);
+        Action offer = createAction(ActionType.OFFER, offerer);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<Long> members = new ArrayList<>();
+        OutboxService outboxService = createOutboxService(new TestMockMessageClient() {
+            @Override
+            public User addMember(User user, Long conversationId) {
+                members.add(user.getUserId());
+                return super.addMember(user, conversationId);
+            }
+        });
+
+        try {
+            transactionTemplate.execute(status -> {
+                Action matchedSeek = actionRepository.findOne(seek.getId());
+                Action matchedOffer = actionRepository.findOne(offer.getId());
+                matchedSeek.setMatch(matchedOffer);
+                matchedOffer.setMatch(matchedSeek);
+                outboxService.createConversation(matchedSeek, matchedOffer);
+                return null;
+            });
+
+            // the conversation is created first, its members are added by messages of their own
+            assertThat(outboxService.dispatch()).isEqualTo(1);
+            List<OutboxMessage> addMembers = outboxMessageRepository.findAll();
+            assertThat(addMembers).hasSize(2);
+            assertThat(addMembers).allMatch(message -> message.getMessageType() == OutboxMessageType.ADD_MEMBER
+                && message.getConversationId() != null);
+
+            assertThat(outboxService.dispatch()).isEqualTo(2);
+            assertThat(members).containsExactly(52L, 51L);
+            assertThat(outboxMessageRepository.findAll()).isEmpty();
+        } finally {
+            transactionTemplate.execute(status -> {
+                actionRepository.findOne(seek.getId()).setMatch(null);
+                actionRepository.findOne(offer.getId()).setMatch(null);
+                actionRepository.flush();
+                actionRepository.delete(Arrays.asList(seek, offer));
+                userRepository.delete(Arrays.asList(seeker, offerer));
+                return null;
+            });
+        }
+    }
+
+    @Test
+    public void parkDeadLetterUntilReplay() throws Exception {
+        disaster = disasterService.createDisaster(disaster);
+        createOutboxService(messageClient).addMember(new User(4711L), disaster);
+        JHipsterProperties properties = new JHipsterProperties();
+        properties.getOutbox().setMaxAttempts(1);
+
+        new OutboxService(outboxMessageRepository, disasterRepository, actionRepository, new UnavailableMessageClient(),
+            transactionManager, properties).dispatch();
+
+        OutboxMessage conversation = findMessage(OutboxMessageType.DISASTER_CONVERSATION);
+        assertThat(conversation.isDeadLetter()).isTrue();
+        assertThat(conversation.getLastError()).isEqualTo("message service unavailable");
+        // the member waits for its conversation to be replayed
+        assertThat(findMessage(OutboxMessageType.ADD_MEMBER).isDeadLetter()).isTrue();
+        assertThat(createOutboxService(messageClient).getDeadLetters()).hasSize(2);
+        assertThat(createOutboxService(messageClient).dispatch()).isEqualTo(0);
+
+        assertThat(createOutboxService(messageClient).replay(conversation.getId())).isTrue();
+        assertThat(createOutboxService(messageClient).dispatch()).isEqualTo(2);
+
+        assertThat(disasterRepository.findOne(disaster.getId()).getConversationId()).isNotNull();
+        assertThat(outboxMessageRepository.findByDisasterId(disaster.getId())).isEmpty();
+        assertThat(createOutboxService(messageClient).replay(conversation.getId())).isFalse();
+    }
+
+    private Action createAction(ActionType actionType, User user) {
+        Action action = new Action();
+        action.setLat(1F);
+        action.setLon(1F);
+        action.setIsExpired(false);
+        action.setActionType(actionType);
+        action.setUser(user);
+        return actionRepository.saveAndFlush(action);
+    }
+
+    private OutboxService createOutboxService(MessageClient messageClient) {
+        return new OutboxService(outboxMessageRepository, disasterRepository, actionRepository, messageClient,
+            transactionManager, jHipsterProperties);
+    }
+
+    private OutboxMessage findMessage(OutboxMessageType messageType) {
+        return outboxMessageRepository.findByDisasterId(disaster.getId()).stream()
+            .filter(message -> message.getMessageType() == messageType)
+            .findFirst().get();
+    }
+
+    private static class UnavailableMessageClient implements MessageClient {
+
+        @Override
+        public List<Conversation> getConversations() {
+            throw new IllegalStateException("message service unavailable");
+        }
+
+        @Override
+        public Conversation addConversation(Conversation conversation) {
+            throw new IllegalStateException("message service unavailable");
+        }
+
+        @Override
+        public User addMember(User user, Long conversationId) {
+            throw new IllegalStateException("message service unavailable");
+        }
+    }
+}
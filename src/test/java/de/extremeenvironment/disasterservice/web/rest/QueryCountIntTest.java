@@ -0,0 +1,291 @@
+package de.extremeenvironment.disasterservice.web.rest;
+
+import de.extremeenvironment.disasterservice.DisasterServiceApp;
+import de.extremeenvironment.disasterservice.domain.*;
+import de.extremeenvironment.disasterservice.domain.enumeration.ActionType;
+import de.extremeenvironment.disasterservice.repository.*;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.boot.test.WebIntegrationTest;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.WebApplicationContext;
+import util.WithMockOAuth2Authentication;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Counts the SQL statements of REST requests, so associations which load half of the database fail the build.
+ *
+ * <p>
+ * The persistence context is cleared before each request, so every entity has to be read from the database.
+ * Some requests are made twice with a growing amount of data, their number of statements must not grow.
+ * Only the statements of the test thread are counted, see {@link StatementCountInterceptor}.
+ * </p>
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = DisasterServiceApp.class)
+@WebIntegrationTest({
+    "spring.profiles.active:test",
+    "server.port:0"
+})
+public class QueryCountIntTest {
+
+    private static final int ACTIONS = 20;
+
+    private static final int ACTION_OBJECTS = 10;
+
+    private static final int CORNERS = 200;
+
+    @Inject
+    private WebApplicationContext context;
+
+    @Inject
+    private EntityManagerFactory entityManagerFactory;
+
+    @Inject
+    private EntityManager entityManager;
+
+    @Inject
+    private ActionRepository actionRepository;
+
+    @Inject
+    private ActionObjectRepository actionObjectRepository;
+
+    @Inject
+    private CategoryRepository categoryRepository;
+
+    @Inject
+    private DisasterRepository disasterRepository;
+
+    @Inject
+    private AreaRepository areaRepository;
+
+    @Inject
+    private CornerRepository cornerRepository;
+
+    @Inject
+    private UserRepository userRepository;
+
+    private MockMvc restMockMvc;
+
+    private Statistics statistics;
+
+    private Category category;
+
+    private Disaster disaster;
+
+    private Area area;
+
+    private User user;
+
+    private List<ActionObject> actionObjects;
+
+    @PostConstruct
+    public void setup() {
+        this.restMockMvc = MockMvcBuilders.webAppContextSetup(context)
+            .apply(springSecurity())
+            .build();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @Before
+    public void initTest() {
+        category = new Category();
+        category.setName("query count category");
+        categoryRepository.save(category);
+
+        area = areaRepository.save(new Area());
+        for (float[] corner : new float[][]{{10F, 10F}, {10F, 11F}, {11F, 11F}, {11F, 10F}}) {
+            Corner c = new Corner();
+            c.setLat(corner[0]);
+            c.setLon(corner[1]);
+            c.setArea(area);
+            cornerRepository.save(c);
+        }
+
+        disaster = new Disaster();
+        disaster.setLat(10.5F);
+        disaster.setLon(10.5F);
+        disaster.setIsExpired(false);
+        disaster.setArea(area);
+        disasterRepository.save(disaster);
+
+        user = userRepository.save(new User(4711));
+
+        actionObjects = new ArrayList<>();
+        for (int i = 0; i < ACTION_OBJECTS; i++) {
+            ActionObject actionObject = new ActionObject();
+            actionObject.setName("query count object " + i);
+            actionObject.setCategory(category);
+            actionObjects.add(actionObjectRepository.save(actionObject));
+        }
+    }
+
+    @Test
+    @Transactional
+    @WithMockOAuth2Authentication(scope = "web-app")
+    public void getCategoryDoesNotLoadActionObjects() throws Exception {
+        createActions(ACTIONS, ActionType.SEEK);
+
+        assertThat(countStatements(get("/api/categories/{id}", category.getId()))).isEqualTo(1);
+    }
+
+    @Test
+    @Transactional
+    @WithMockOAuth2Authentication(scope = "web-app")
+    public void getActionObjectDoesNotLoadActions() throws Exception {
+        createActions(ACTIONS, ActionType.SEEK);
+        // the action object and its category
+        assertThat(countStatements(get("/api/action-objects/{id}", actionObjects.get(0).getId()))).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    @Transactional
+    @WithMockOAuth2Authentication(scope = "web-app")
+    public void getActionFetchesActionObjects() throws Exception {
+        Action action = createActions(1, ActionType.SEEK);
+
+        long statements = countStatements(get("/api/actions/{id}", action.getId()),
+            jsonPath("$.actionObjects").value(hasSize(2)));
+        assertThat(statements).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    @Transactional
+    @WithMockOAuth2Authentication(scope = "web-app")
+    public void getAreaFetchesCorners() throws Exception {
+        long statements = countStatements(get("/api/areas/{id}", area.getId()),
+            jsonPath("$.corners").value(hasSize(4)));
+        assertThat(statements).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    @Transactional
+    @WithMockOAuth2Authentication(scope = "web-app")
+    public void getAllActionsDoesNotGrowWithActions() throws Exception {
+        createActions(ACTIONS, ActionType.SEEK);
+        long statements = countStatements(get("/api/actions"));
+
+        createActions(ACTIONS, ActionType.OFFER);
+        assertThat(countStatements(get("/api/actions"))).isEqualTo(statements);
+    }
+
+    @Test
+    @Transactional
+    @WithMockOAuth2Authentication(scope = "web-app")
+    public void getKnowledgeDoesNotGrowWithActions() throws Exception {
+        createActions(ACTIONS, ActionType.KNOWLEDGE);
+        long knowledge = countStatements(get("/api/actions/{id}/knowledge", disaster.getId()));
+        long topTen = countStatements(get("/api/actions/{id}/topTenKnowledge", disaster.getId()));
+
+        createActions(ACTIONS, ActionType.KNOWLEDGE);
+        assertThat(countStatements(get("/api/actions/{id}/knowledge", disaster.getId()))).isEqualTo(knowledge);
+        assertThat(countStatements(get("/api/actions/{id}/topTenKnowledge", disaster.getId()))).isEqualTo(topTen);
+    }
+
+    @Test
+    @Transactional
+    @WithMockOAuth2Authentication(scope = "web-app")
+    public void getAllAreasDoesNotGrowWithCorners() throws Exception {
+        long statements = countStatements(get("/api/areas"));
+
+        for (int i = 0; i < ACTIONS; i++) {
+            Corner corner = new Corner();
+            corner.setLat(12F);
+            corner.setLon(12F + i);
+            corner.setArea(area);
+            cornerRepository.save(corner);
+        }
+        assertThat(countStatements(get("/api/areas"))).isEqualTo(statements);
+    }
+
+    @Test
+    @Transactional
+    @WithMockOAuth2Authentication(scope = "web-app")
+    public void createAreaBatchesCornerInserts() throws Exception {
+        Area newArea = new Area();
+        for (int i = 0; i < CORNERS; i++) {
+            double angle = 2 * Math.PI * i / CORNERS;
+            Corner corner = new Corner();
+            corner.setLat((float) (60 + Math.sin(angle)));
+            corner.setLon((float) (60 + Math.cos(angle)));
+            newArea.getCorners().add(corner);
+        }
+        Ngo ngo = new Ngo();
+        ngo.setName("query count ngo");
+        newArea.setNgo(ngo);
+
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        StatementCountInterceptor.clear();
+
+        restMockMvc.perform(post("/api/areas")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(newArea)))
+            .andExpect(status().isCreated());
+        entityManager.flush();
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(CORNERS + 2);
+        // a few statements per batch and sequence block instead of one per corner
+        assertThat(StatementCountInterceptor.getCount()).isLessThan(CORNERS / 10);
+    }
+
+    /**
+     * creates actions in the disaster, each with two action objects of the category
+     *
+     * @return the last created action
+     */
+    private Action createActions(int count, ActionType actionType) {
+        Action action = null;
+        for (int i = 0; i < count; i++) {
+            action = new Action();
+            action.setLat(10.5F);
+            action.setLon(10.5F);
+            action.setIsExpired(false);
+            action.setActionType(actionType);
+            action.setDisaster(disaster);
+            action.setUser(user);
+            action.addActionObject(actionObjects.get(i % actionObjects.size()));
+            action.addActionObject(actionObjects.get((i + 1) % actionObjects.size()));
+            actionRepository.save(action);
+        }
+        return action;
+    }
+
+    private long countStatements(MockHttpServletRequestBuilder request, ResultMatcher... matchers) throws Exception {
+        entityManager.flush();
+        entityManager.clear();
+        StatementCountInterceptor.clear();
+
+        ResultActions result = restMockMvc.perform(request).andExpect(status().isOk());
+        for (ResultMatcher matcher : matchers) {
+            result.andExpect(matcher);
+        }
+        return StatementCountInterceptor.getCount();
+    }
+}
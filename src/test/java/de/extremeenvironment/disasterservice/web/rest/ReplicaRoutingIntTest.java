@@ -0,0 +1,131 @@
+package de.extremeenvironment.disasterservice.web.rest;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import de.extremeenvironment.disasterservice.DisasterServiceApp;
+import de.extremeenvironment.disasterservice.domain.Disaster;
+import de.extremeenvironment.disasterservice.domain.DisasterType;
+import de.extremeenvironment.disasterservice.repository.DisasterRepository;
+import de.extremeenvironment.disasterservice.repository.DisasterTypeRepository;
+import de.extremeenvironment.disasterservice.service.index.DisasterGridIndex;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.boot.test.WebIntegrationTest;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.WebApplicationContext;
+import util.WithMockOAuth2Authentication;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that read-only transactions use the replica pool and all others the primary one.
+ *
+ * <p>
+ * The replica is a second pool on the test database, so it has the schema without any replication.
+ * </p>
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = DisasterServiceApp.class)
+@WebIntegrationTest({
+    "spring.profiles.active:test",
+    "server.port:0",
+    "spring.datasource.replica.jdbc-url:jdbc:h2:mem:DisasterService;DB_CLOSE_DELAY=-1",
+    "spring.datasource.replica.maximum-pool-size:2"
+})
+public class ReplicaRoutingIntTest {
+
+    @Inject
+    private WebApplicationContext context;
+
+    @Inject
+    private MetricRegistry metricRegistry;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    @Inject
+    private DisasterTypeRepository disasterTypeRepository;
+
+    @Inject
+    private DisasterRepository disasterRepository;
+
+    @Inject
+    private DisasterGridIndex disasterGridIndex;
+
+    private MockMvc restMockMvc;
+
+    @PostConstruct
+    public void setup() {
+        this.restMockMvc = MockMvcBuilders.webAppContextSetup(context)
+            .apply(springSecurity())
+            .build();
+    }
+
+    @Test
+    @WithMockOAuth2Authentication(scope = "web-app")
+    public void readOnlyTransactionsUseReplica() throws Exception {
+        long replicaConnections = replicaConnections();
+        restMockMvc.perform(get("/api/disaster-types"))
+            .andExpect(status().isOk());
+        assertThat(replicaConnections()).isGreaterThan(replicaConnections);
+
+        replicaConnections = replicaConnections();
+        DisasterType disasterType = new DisasterType();
+        disasterType.setName("replica routing");
+        new TransactionTemplate(transactionManager).execute(status -> {
+            disasterTypeRepository.saveAndFlush(disasterType);
+            return disasterTypeRepository.findAll();
+        });
+        disasterTypeRepository.delete(disasterType.getId());
+        assertThat(replicaConnections()).isEqualTo(replicaConnections);
+    }
+
+    @Test
+    public void indexesLoadFromPrimary() throws Exception {
+        Disaster disaster = new Disaster();
+        disaster.setLat(-70F);
+        disaster.setLon(-70F);
+        disaster = disasterRepository.save(disaster);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        try {
+            long replicaConnections = replicaConnections();
+            disasterGridIndex.invalidate();
+            Long id = disaster.getId();
+            assertThat(readOnly.<Long>execute(status -> disasterGridIndex.findNearest(-70F, -70F, 1000))).isEqualTo(id);
+
+            disasterGridIndex.markDirty(Collections.singleton(id));
+            assertThat(readOnly.<Long>execute(status -> disasterGridIndex.findNearest(-70F, -70F, 1000))).isEqualTo(id);
+            assertThat(replicaConnections()).isEqualTo(replicaConnections);
+        } finally {
+            disasterRepository.delete(disaster.getId());
+        }
+    }
+
+    @Test
+    @WithMockOAuth2Authentication(scope = "web-app")
+    public void syncReadsFromPrimary() throws Exception {
+        long replicaConnections = replicaConnections();
+        restMockMvc.perform(get("/api/sync"))
+            .andExpect(status().isOk());
+        assertThat(replicaConnections()).isEqualTo(replicaConnections);
+    }
+
+    private long replicaConnections() {
+        Timer wait = metricRegistry.getTimers().get(MetricRegistry.name("replica", "pool", "Wait"));
+        return wait == null ? 0 : wait.getCount();
+    }
+}
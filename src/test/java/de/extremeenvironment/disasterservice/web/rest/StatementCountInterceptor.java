@@ -0,0 +1,32 @@
+package de.extremeenvironment.disasterservice.web.rest;
+
+import org.hibernate.EmptyInterceptor;
+
+/**
+ * Counts the SQL statements prepared by the current thread.
+ *
+ * <p>
+ * Unlike the statistics of the session factory, the count leaves out the statements of scheduled jobs
+ * running at the same time, e.g. the dummy data creation.
+ * </p>
+ */
+public class StatementCountInterceptor extends EmptyInterceptor {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    public static void clear() {
+        COUNT.get()[0] = 0;
+    }
+
+    public static long getCount() {
+        return COUNT.get()[0];
+    }
+
+    @Override
+    public String onPrepareStatement(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+}
@@ -0,0 +1,164 @@
+package de.extremeenvironment.disasterservice.web.rest;
+
+import com.jayway.jsonpath.JsonPath;
+import de.extremeenvironment.disasterservice.DisasterServiceApp;
+import de.extremeenvironment.disasterservice.domain.Action;
+import de.extremeenvironment.disasterservice.domain.Disaster;
+import de.extremeenvironment.disasterservice.domain.Tombstone;
+import de.extremeenvironment.disasterservice.domain.enumeration.ActionType;
+import de.extremeenvironment.disasterservice.repository.ActionRepository;
+import de.extremeenvironment.disasterservice.repository.DisasterRepository;
+import de.extremeenvironment.disasterservice.repository.TombstoneRepository;
+import de.extremeenvironment.disasterservice.service.SyncService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.boot.test.WebIntegrationTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.WebApplicationContext;
+import util.WithMockOAuth2Authentication;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Test class for the SyncResource REST controller.
+ *
+ * @see SyncResource
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = DisasterServiceApp.class)
+@WebIntegrationTest({
+    "spring.profiles.active:test",
+    "server.port:0"
+})
+public class SyncResourceIntTest {
+
+    @Inject
+    private ActionRepository actionRepository;
+
+    @Inject
+    private DisasterRepository disasterRepository;
+
+    @Inject
+    private TombstoneRepository tombstoneRepository;
+
+    @Inject
+    private WebApplicationContext context;
+
+    private MockMvc restSyncMockMvc;
+
+    private Disaster disaster;
+
+    @PostConstruct
+    public void setup() {
+        this.restSyncMockMvc = MockMvcBuilders.webAppContextSetup(context)
+            .apply(springSecurity())
+            .build();
+    }
+
+    @Before
+    public void initTest() {
+        disaster = new Disaster();
+        disaster.setIsExpired(false);
+        disaster.setLat(1F);
+        disaster.setLon(1F);
+    }
+
+    @Test
+    @Transactional
+    @WithMockOAuth2Authentication(username = "admin", scope = "web-app")
+    public void getChangesSince() throws Exception {
+        String since = format(ZonedDateTime.now().minusMinutes(1));
+        disasterRepository.saveAndFlush(disaster);
+        Action kept = saveAction();
+        Action deleted = saveAction();
+        actionRepository.delete(deleted);
+        actionRepository.flush();
+
+        restSyncMockMvc.perform(get("/api/sync?since={since}", since))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(jsonPath("$.actions[*].id").value(hasItem(kept.getId().intValue())))
+            .andExpect(jsonPath("$.actions[*].id").value(not(hasItem(deleted.getId().intValue()))))
+            .andExpect(jsonPath("$.disasters[*].id").value(hasItem(disaster.getId().intValue())))
+            .andExpect(jsonPath("$.deleted[*].entityId").value(hasItem(deleted.getId().intValue())))
+            .andExpect(jsonPath("$.deleted[*].entityName").value(hasItem("Action")))
+            .andExpect(jsonPath("$.complete").value(true))
+            .andExpect(jsonPath("$.until").exists());
+
+        restSyncMockMvc.perform(get("/api/sync?since={since}", format(ZonedDateTime.now().plusMinutes(1))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.actions").value(hasSize(0)))
+            .andExpect(jsonPath("$.disasters").value(hasSize(0)))
+            .andExpect(jsonPath("$.deleted").value(hasSize(0)));
+    }
+
+    @Test
+    @Transactional
+    @WithMockOAuth2Authentication(username = "admin", scope = "web-app")
+    public void getMoreChangesThanTheLimitAtOneInstant() throws Exception {
+        ZonedDateTime deletedDate = ZonedDateTime.now().minusDays(1).truncatedTo(ChronoUnit.SECONDS).plusNanos(123456000);
+        List<Tombstone> tombstones = new ArrayList<>();
+        for (long entityId = 0; entityId <= SyncService.MAX_CHANGES; entityId++) {
+            Tombstone tombstone = new Tombstone();
+            tombstone.setEntityName("Action");
+            tombstone.setEntityId(entityId);
+            tombstone.setDeletedDate(deletedDate);
+            tombstones.add(tombstone);
+        }
+        tombstoneRepository.save(tombstones);
+        tombstoneRepository.flush();
+        Tombstone lastOfPage = tombstones.get(SyncService.MAX_CHANGES - 1);
+        Tombstone firstOfNextPage = tombstones.get(SyncService.MAX_CHANGES);
+
+        String body = restSyncMockMvc.perform(get("/api/sync?since={since}", format(deletedDate.minusSeconds(1))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.deleted").value(hasSize(SyncService.MAX_CHANGES)))
+            .andExpect(jsonPath("$.complete").value(false))
+            .andExpect(jsonPath("$.lastTombstoneId").value(lastOfPage.getId().intValue()))
+            .andExpect(jsonPath("$.lastActionId").value(0))
+            .andReturn().getResponse().getContentAsString();
+        String until = JsonPath.read(body, "$.until");
+        assertThat(ZonedDateTime.parse(until).isEqual(deletedDate)).isTrue();
+
+        // the next sync continues after the last tombstone instead of returning the same page again
+        restSyncMockMvc.perform(get("/api/sync?since={since}&lastTombstoneId={lastTombstoneId}", until, lastOfPage.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.deleted[0].id").value(firstOfNextPage.getId().intValue()))
+            .andExpect(jsonPath("$.deleted[*].id").value(not(hasItem(lastOfPage.getId().intValue()))))
+            .andExpect(jsonPath("$.complete").value(true))
+            .andExpect(jsonPath("$.lastTombstoneId").value(0));
+    }
+
+    private Action saveAction() {
+        Action action = new Action();
+        action.setActionType(ActionType.KNOWLEDGE);
+        action.setLat(1F);
+        action.setLon(1F);
+        action.setIsExpired(false);
+        action.setDisaster(disaster);
+        return actionRepository.saveAndFlush(action);
+    }
+
+    private static String format(ZonedDateTime dateTime) {
+        return dateTime.withZoneSameInstant(ZoneOffset.UTC).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+    }
+}
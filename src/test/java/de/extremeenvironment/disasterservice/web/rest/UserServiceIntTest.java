@@ -0,0 +1,132 @@
+package de.extremeenvironment.disasterservice.web.rest;
+
+import com.codahale.metrics.MetricRegistry;
+import de.extremeenvironment.disasterservice.DisasterServiceApp;
+import de.extremeenvironment.disasterservice.client.UserClient;
+import de.extremeenvironment.disasterservice.client.UserService;
+import de.extremeenvironment.disasterservice.config.JHipsterProperties;
+import de.extremeenvironment.disasterservice.domain.User;
+import de.extremeenvironment.disasterservice.repository.UserRepository;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.boot.test.WebIntegrationTest;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the user caches of UserService.
+ *
+ * <p>
+ * The users are committed, so the primary keys of their user ids are cached.
+ * </p>
+ *
+ * @see UserService
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = DisasterServiceApp.class)
+@WebIntegrationTest({
+    "spring.profiles.active:test",
+    "server.port:0"
+})
+public class UserServiceIntTest {
+
+    private static final long CONCURRENT_USER_ID = 4711L;
+
+    private static final int THREADS = 8;
+
+    @Inject
+    private UserService userService;
+
+    @Inject
+    private UserRepository userRepository;
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    @Inject
+    private MetricRegistry metricRegistry;
+
+    @After
+    public void cleanUp() {
+        userRepository.findOneByUserId(CONCURRENT_USER_ID).ifPresent(userRepository::delete);
+    }
+
+    @Test
+    public void findUserByNameOnlyOnceRemote() throws Exception {
+        User first = userService.findOrCreateByName("cached-user");
+        long remoteCalls = metricRegistry.timer("users.remote").getCount();
+
+        User second = userService.findOrCreateByName("cached-user");
+
+        assertThat(second.getUserId()).isEqualTo(first.getUserId());
+        assertThat(second.getId()).isEqualTo(first.getId());
+        // every hit gets its own detached user
+        assertThat(second).isNotSameAs(first);
+        assertThat(metricRegistry.timer("users.remote").getCount()).isEqualTo(remoteCalls);
+    }
+
+    @Test
+    public void loadConcurrentlyMissedNameOnce() throws Exception {
+        User existing = userRepository.save(new User(CONCURRENT_USER_ID));
+        SlowUserClient userClient = new SlowUserClient();
+        UserService service = new UserService(userClient, userRepository, jHipsterProperties, new MetricRegistry());
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<User>> users = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                users.add(executor.submit(() -> {
+                    start.await();
+                    return service.findOrCreateByName("concurrent-user");
+                }));
+            }
+            start.countDown();
+
+            for (Future<User> user : users) {
+                assertThat(user.get(10, TimeUnit.SECONDS).getId()).isEqualTo(existing.getId());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(userClient.calls.get()).isEqualTo(1);
+    }
+
+    /**
+     * answers every name with {@link #CONCURRENT_USER_ID}, slow enough for all threads to miss the cache
+     */
+    private static class SlowUserClient implements UserClient {
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public User getUserById(Long id) {
+            return new User(id);
+        }
+
+        @Override
+        public User getUserByName(String name) {
+            calls.incrementAndGet();
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            User user = new User();
+            user.setId(CONCURRENT_USER_ID);
+            return user;
+        }
+    }
+}